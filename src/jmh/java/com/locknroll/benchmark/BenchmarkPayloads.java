@@ -0,0 +1,114 @@
+package com.locknroll.benchmark;
+
+import com.locknroll.dto.DashboardDto;
+import com.locknroll.entity.Fruit;
+import com.locknroll.entity.Role;
+import com.locknroll.entity.Task;
+import com.locknroll.entity.User;
+import com.locknroll.entity.WorkflowInstance;
+import com.locknroll.entity.WorkflowStep;
+import com.locknroll.service.MetricsService;
+import com.locknroll.service.TaskService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representative in-memory objects shared by the benchmarks
+ */
+public final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {}
+
+    /**
+     * Metrics backed by an in-memory registry, so instrumented services record as they do in production
+     */
+    public static MetricsService metricsService() {
+        MetricsService metricsService = new MetricsService();
+        ReflectionTestUtils.setField(metricsService, "meterRegistry", new SimpleMeterRegistry());
+        return metricsService;
+    }
+
+    /**
+     * A fully populated fruit as cached by FruitService
+     */
+    public static Fruit fruit() {
+        Fruit fruit = new Fruit("Benchmark Apple", new BigDecimal("2.50"), 100,
+                "An apple used for benchmarking", "Fruit");
+        fruit.setId(1L);
+        fruit.setStatus("ACTIVE");
+        fruit.setSubmittedBy("seller1");
+        fruit.setSubmittedAt(LocalDateTime.now().minusDays(2));
+        fruit.setApprovedAt(LocalDateTime.now().minusDays(1));
+        fruit.setCreatedAt(LocalDateTime.now().minusDays(2));
+        fruit.setUpdatedAt(LocalDateTime.now());
+        return fruit;
+    }
+
+    /**
+     * A task with its workflow instance, step, role and assignee populated
+     */
+    public static Task task(long id) {
+        Role role = new Role("FINANCE_ROLE", "Finance approvers");
+        role.setId(3L);
+
+        WorkflowStep step = new WorkflowStep("Finance Review", "Review pricing", 2, "APPROVAL");
+        step.setId(20L);
+        step.setAssignedRole(role);
+        step.setAssignedRoleName(role.getName());
+
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId(100L + id);
+        instance.setEntityId(String.valueOf(id));
+        instance.setEntityType("FRUIT");
+        instance.setStatus("IN_PROGRESS");
+
+        User user = new User("finance" + id, "finance" + id + "@example.com", "secret", "Fina", "Nance");
+        user.setId(10L + id);
+
+        Task task = new Task(instance, step, "Finance Review", "Review pricing for fruit " + id);
+        task.setId(id);
+        task.setAssignedTo(user);
+        task.setStatus("PENDING");
+        task.setPriority("MEDIUM");
+        task.setCreatedBy("system");
+        task.setCreatedAt(LocalDateTime.now().minusHours(1));
+        task.setDueDate(LocalDateTime.now().plusDays(7));
+        return task;
+    }
+
+    /**
+     * A dashboard with the given number of pending tasks, roughly what DashboardService caches per user
+     */
+    public static DashboardDto dashboard(int taskCount) {
+        TaskService taskService = new TaskService();
+        List<Object> pendingTasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            pendingTasks.add(taskService.convertToDto(task(i)));
+        }
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("pendingTasks", taskCount);
+        statistics.put("completedTasks", 120);
+        statistics.put("overdueTasks", 3);
+
+        DashboardDto dashboard = new DashboardDto();
+        dashboard.setId(1L);
+        dashboard.setUserType("FINANCE");
+        dashboard.setUsername("finance1");
+        dashboard.setFullName("Fina Nance");
+        dashboard.setRoles(List.of("FINANCE"));
+        dashboard.setStatistics(statistics);
+        dashboard.setRecentActivities(new ArrayList<>());
+        dashboard.setPendingTasks(pendingTasks);
+        dashboard.setNotifications(new ArrayList<>());
+        dashboard.setLastUpdated(LocalDateTime.now());
+        return dashboard;
+    }
+}
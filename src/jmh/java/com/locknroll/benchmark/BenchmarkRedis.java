@@ -0,0 +1,63 @@
+package com.locknroll.benchmark;
+
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Redis endpoint for benchmarks that need a real server.
+ *
+ * Uses the server given by -Dbench.redis.host / -Dbench.redis.port when set,
+ * otherwise starts a throwaway Redis container for the duration of the fork.
+ */
+public class BenchmarkRedis implements AutoCloseable {
+
+    private static final String REDIS_IMAGE = "redis:7-alpine";
+    private static final int REDIS_PORT = 6379;
+
+    private final GenericContainer<?> container;
+    private final String host;
+    private final int port;
+
+    private BenchmarkRedis(GenericContainer<?> container, String host, int port) {
+        this.container = container;
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Connect to the configured Redis or start a container
+     */
+    public static BenchmarkRedis start() {
+        String host = System.getProperty("bench.redis.host");
+        if (host != null) {
+            return new BenchmarkRedis(null, host, Integer.getInteger("bench.redis.port", REDIS_PORT));
+        }
+
+        GenericContainer<?> container = new GenericContainer<>(DockerImageName.parse(REDIS_IMAGE))
+                .withExposedPorts(REDIS_PORT);
+        container.start();
+        return new BenchmarkRedis(container, container.getHost(), container.getMappedPort(REDIS_PORT));
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Address in the form Redisson expects
+     */
+    public String getAddress() {
+        return "redis://" + host + ":" + port;
+    }
+
+    @Override
+    public void close() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
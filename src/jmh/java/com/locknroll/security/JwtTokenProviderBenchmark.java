@@ -0,0 +1,68 @@
+package com.locknroll.security;
+
+import com.locknroll.security.CustomUserDetailsService.CustomUserPrincipal;
+import com.locknroll.service.UserVersionService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT work: signing a token, validating it, and (in stateless
+ * mode) rebuilding the principal from its claims
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hs512-signing-0123456789";
+
+    @Param({"false", "true"})
+    private boolean statelessPrincipal;
+
+    private JwtTokenProvider tokenProvider;
+    private CustomUserPrincipal principal;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 3_600_000);
+        ReflectionTestUtils.setField(tokenProvider, "statelessPrincipal", statelessPrincipal);
+        // Version lookups are served from the near cache in production, so stub out Redis
+        ReflectionTestUtils.setField(tokenProvider, "userVersionService", new UserVersionService() {
+            @Override
+            public long getVersion(Long userId) {
+                return 0L;
+            }
+        });
+
+        principal = new CustomUserPrincipal(42L, "finance1", "finance1@example.com", "Fina Nance",
+                List.of("FINANCE"), List.of("TASK_READ", "TASK_APPROVE", "FRUIT_READ"));
+        token = tokenProvider.generateToken(principal);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(principal);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public Object parseAndResolvePrincipal() {
+        Claims claims = tokenProvider.parseClaims(token);
+        CustomUserPrincipal resolved = tokenProvider.getPrincipalFromClaims(claims);
+        return resolved != null ? resolved : claims.getSubject();
+    }
+}
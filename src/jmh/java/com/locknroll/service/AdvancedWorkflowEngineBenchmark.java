@@ -0,0 +1,53 @@
+package com.locknroll.service;
+
+import com.locknroll.entity.WorkflowCondition;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of evaluating a single step condition against a workflow context, parsing the
+ * expression on every call versus testing the predicate compiled into a WorkflowPlan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdvancedWorkflowEngineBenchmark {
+
+    @Param({"entityType=FRUIT", "userRole=FINANCE, entityType=FRUIT", "amount>100"})
+    private String expression;
+
+    private AdvancedWorkflowEngine engine;
+    private WorkflowCondition condition;
+    private WorkflowPlan.ConditionPlan compiledCondition;
+    private Map<String, Object> context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new AdvancedWorkflowEngine();
+        condition = new WorkflowCondition();
+        condition.setConditionName("benchmark");
+        condition.setConditionExpression(expression);
+        compiledCondition = WorkflowPlan.ConditionPlan.compile(condition);
+
+        context = new HashMap<>();
+        context.put("entityType", "FRUIT");
+        context.put("userRole", "FINANCE");
+        context.put("amount", 250);
+    }
+
+    @Benchmark
+    public boolean evaluateCondition() {
+        return engine.evaluateCondition(condition, context);
+    }
+
+    @Benchmark
+    public boolean evaluateCompiledCondition() {
+        return compiledCondition.test(context);
+    }
+}
@@ -0,0 +1,78 @@
+package com.locknroll.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.locknroll.benchmark.BenchmarkPayloads;
+import com.locknroll.benchmark.BenchmarkRedis;
+import com.locknroll.config.JacksonConfig;
+import com.locknroll.dto.DashboardDto;
+import com.locknroll.entity.Fruit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheService get/put round-trips against a real Redis, for a small entity
+ * (a fruit) and a large aggregate (a dashboard with task lists)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class CacheServiceBenchmark {
+
+    @Param({"fruit", "dashboard"})
+    private String payload;
+
+    private BenchmarkRedis redis;
+    private LettuceConnectionFactory connectionFactory;
+    private CacheService cacheService;
+    private Object value;
+    private Class<?> valueType;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redis = BenchmarkRedis.start();
+
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getPort());
+        connectionFactory.afterPropertiesSet();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        cacheService = new CacheService();
+        ReflectionTestUtils.setField(cacheService, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(cacheService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(cacheService, "metricsService", BenchmarkPayloads.metricsService());
+
+        if ("fruit".equals(payload)) {
+            value = BenchmarkPayloads.fruit();
+            valueType = Fruit.class;
+        } else {
+            value = BenchmarkPayloads.dashboard(50);
+            valueType = DashboardDto.class;
+        }
+        cacheService.cache("bench:" + payload, value);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionFactory.destroy();
+        redis.close();
+    }
+
+    @Benchmark
+    public void put() {
+        cacheService.cache("bench:" + payload, value);
+    }
+
+    @Benchmark
+    public Optional<?> get() {
+        return cacheService.get("bench:" + payload, valueType);
+    }
+}
@@ -0,0 +1,62 @@
+package com.locknroll.service;
+
+import com.locknroll.benchmark.BenchmarkPayloads;
+import com.locknroll.benchmark.BenchmarkRedis;
+import org.openjdk.jmh.annotations.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock acquire/release round-trips through DistributedLockService.
+ * With keyCount=1 every thread contends on the same key, which is the
+ * purchase/restock hot path for a single popular fruit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(8)
+public class DistributedLockServiceBenchmark {
+
+    @Param({"1", "16"})
+    private int keyCount;
+
+    private BenchmarkRedis redis;
+    private RedissonClient redissonClient;
+    private DistributedLockService lockService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redis = BenchmarkRedis.start();
+
+        Config config = new Config();
+        config.useSingleServer()
+                .setAddress(redis.getAddress())
+                .setConnectionPoolSize(64)
+                .setConnectionMinimumIdleSize(8);
+        redissonClient = Redisson.create(config);
+
+        lockService = new DistributedLockService();
+        ReflectionTestUtils.setField(lockService, "redissonClient", redissonClient);
+        ReflectionTestUtils.setField(lockService, "metricsService", BenchmarkPayloads.metricsService());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redissonClient.shutdown();
+        redis.close();
+    }
+
+    @Benchmark
+    public Integer executeWithLock() {
+        int key = ThreadLocalRandom.current().nextInt(keyCount);
+        return lockService.executeWithLock("bench:lock:" + key, () -> key);
+    }
+}
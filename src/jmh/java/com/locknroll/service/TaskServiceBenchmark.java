@@ -0,0 +1,72 @@
+package com.locknroll.service;
+
+import com.locknroll.benchmark.BenchmarkPayloads;
+import com.locknroll.dto.TaskDto;
+import com.locknroll.entity.Task;
+import com.locknroll.repository.TaskSummaryView;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task to DTO mapping from a loaded entity graph and from the flat projection row
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    private TaskService taskService;
+    private Task task;
+    private TaskSummaryView summary;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskService = new TaskService();
+        task = BenchmarkPayloads.task(1L);
+        summary = new SummaryRow(task);
+    }
+
+    @Benchmark
+    public TaskDto convertEntity() {
+        return taskService.convertToDto(task);
+    }
+
+    @Benchmark
+    public TaskDto convertSummary() {
+        return taskService.convertToDto(summary);
+    }
+
+    /**
+     * Plain projection row, standing in for the Hibernate-generated proxy
+     */
+    private static class SummaryRow implements TaskSummaryView {
+        private final Task task;
+
+        SummaryRow(Task task) {
+            this.task = task;
+        }
+
+        public Long getId() { return task.getId(); }
+        public String getTitle() { return task.getTitle(); }
+        public String getDescription() { return task.getDescription(); }
+        public String getStatus() { return task.getStatus(); }
+        public String getPriority() { return task.getPriority(); }
+        public String getCreatedBy() { return task.getCreatedBy(); }
+        public String getUpdatedBy() { return task.getUpdatedBy(); }
+        public LocalDateTime getCreatedAt() { return task.getCreatedAt(); }
+        public Long getWorkflowInstanceId() { return task.getWorkflowInstance().getId(); }
+        public Long getWorkflowStepId() { return task.getWorkflowStep().getId(); }
+        public String getWorkflowStepName() { return task.getWorkflowStep().getName(); }
+        public Long getAssignedRoleId() { return task.getWorkflowStep().getAssignedRole().getId(); }
+        public String getAssignedRoleName() { return task.getWorkflowStep().getAssignedRole().getName(); }
+        public Long getAssignedToId() { return task.getAssignedTo().getId(); }
+        public String getAssignedToUsername() { return task.getAssignedTo().getUsername(); }
+        public String getAssignedToFirstName() { return task.getAssignedTo().getFirstName(); }
+        public String getAssignedToLastName() { return task.getAssignedTo().getLastName(); }
+    }
+}
@@ -0,0 +1,108 @@
+package com.locknroll.config;
+
+import com.locknroll.logging.MdcTaskDecorator;
+import com.locknroll.service.MetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Named, bounded executors for background work, one per workload so a burst in one
+ * (e.g. an overdue-timeout storm) cannot starve the others.
+ * 
+ * Queues are bounded; when a queue is full the submitting thread runs the task itself,
+ * which slows the producer down instead of growing the heap. Sizes are configurable under
+ * app.async.{timeout,notification,audit}.*; queue depth is exported by MetricsConfig.
+ * 
+ * @Scheduled jobs get their own pool as well (app.async.scheduler.pool-size).
+ */
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+    
+    public static final String TIMEOUT_EXECUTOR = "timeoutExecutor";
+    public static final String NOTIFICATION_EXECUTOR = "notificationExecutor";
+    public static final String AUDIT_EXECUTOR = "auditExecutor";
+    public static final String TASK_SCHEDULER = "taskScheduler";
+    
+    @Autowired
+    private Environment environment;
+    
+    @Autowired
+    private MdcTaskDecorator mdcTaskDecorator;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    /**
+     * Workflow step timeout handling (auto-approve, reject, escalate)
+     */
+    @Bean(name = TIMEOUT_EXECUTOR)
+    public ThreadPoolTaskExecutor timeoutExecutor() {
+        return boundedExecutor("timeout", 2, 4, 500);
+    }
+    
+    /**
+     * WebSocket notification fan-out
+     */
+    @Bean(name = NOTIFICATION_EXECUTOR)
+    public ThreadPoolTaskExecutor notificationExecutor() {
+        return boundedExecutor("notification", 4, 8, 1000);
+    }
+    
+    /**
+     * Audit and transaction log writes to MongoDB
+     */
+    @Bean(name = AUDIT_EXECUTOR)
+    public ThreadPoolTaskExecutor auditExecutor() {
+        return boundedExecutor("audit", 2, 4, 2000);
+    }
+    
+    /**
+     * Runs every @Scheduled method. Without it the only TaskScheduler in the context is the STOMP
+     * broker's heartbeat scheduler, which scheduling would then share; the name is what
+     * @EnableScheduling looks for when there is more than one.
+     */
+    @Bean(name = TASK_SCHEDULER)
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(environment.getProperty("app.async.scheduler.pool-size", Integer.class, 4));
+        scheduler.setThreadNamePrefix("scheduler-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+    
+    private ThreadPoolTaskExecutor boundedExecutor(String name, int coreSize, int maxSize, int queueCapacity) {
+        String prefix = "app.async." + name + ".";
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(environment.getProperty(prefix + "core-size", Integer.class, coreSize));
+        executor.setMaxPoolSize(environment.getProperty(prefix + "max-size", Integer.class, maxSize));
+        executor.setQueueCapacity(environment.getProperty(prefix + "queue-capacity", Integer.class, queueCapacity));
+        executor.setThreadNamePrefix(name + "-");
+        executor.setTaskDecorator(mdcTaskDecorator);
+        executor.setRejectedExecutionHandler(callerRuns(name));
+        // Let queued work finish on shutdown, but do not hold shutdown up indefinitely
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+    
+    /**
+     * Caller-runs backpressure, counted so saturation shows up in metrics
+     */
+    private RejectedExecutionHandler callerRuns(String name) {
+        RejectedExecutionHandler callerRuns = new ThreadPoolExecutor.CallerRunsPolicy();
+        return (task, executor) -> {
+            metricsService.recordExecutorCallerRuns(name);
+            callerRuns.rejectedExecution(task, executor);
+        };
+    }
+}
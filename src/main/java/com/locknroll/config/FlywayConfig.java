@@ -0,0 +1,43 @@
+package com.locknroll.config;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+/**
+ * Runs the Flyway migrations after Hibernate has created or updated the tables.
+ *
+ * The schema itself is still owned by ddl-auto; the migrations in db/migration only add what the
+ * entity mappings cannot express (composite, partial and covering indexes, columns needed before
+ * an entity change ships). They therefore have to run against tables that already exist.
+ */
+@Configuration
+public class FlywayConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlywayConfig.class);
+
+    /**
+     * Skip the migration Spring Boot would run before the EntityManagerFactory starts
+     */
+    @Bean
+    public FlywayMigrationStrategy deferredFlywayMigrationStrategy() {
+        return flyway -> logger.debug("Deferring Flyway migration until Hibernate schema update has run");
+    }
+
+    /**
+     * Migrate once the EntityManagerFactory (and with it the schema update) is ready
+     */
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public InitializingBean flywayMigrationAfterHibernate(Flyway flyway) {
+        return () -> {
+            int applied = flyway.migrate().migrationsExecuted;
+            logger.info("Applied {} Flyway migrations", applied);
+        };
+    }
+}
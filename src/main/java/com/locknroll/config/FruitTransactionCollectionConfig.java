@@ -0,0 +1,314 @@
+package com.locknroll.config;
+
+import com.locknroll.entity.FruitTransaction;
+import com.locknroll.entity.FruitTransactionRollup;
+import com.locknroll.service.FruitTransactionRollupService;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets up the fruit transaction audit stream in MongoDB before the application takes requests.
+ *
+ * fruit_transactions is a time-series collection (timeField timestamp, metaField fruit_id) with a
+ * secondary index on a measurement field (lock_duration_ms, 6.0+) and is read by analytics that use
+ * $percentile (7.0+), so startup fails on servers before 7.0. Raw events are kept unless
+ * raw-retention-days is set; the per-minute and per-hour rollups can outlive them.
+ *
+ * A plain fruit_transactions collection from before is renamed to fruit_transactions_legacy and
+ * copied into the new collection in the background, with rollups rebuilt from it. Progress is
+ * kept in a marker document in the migrations collection and the copy holds a Redisson lock, so
+ * only one node migrates and a restart resumes after the last copied _id.
+ */
+@Configuration
+public class FruitTransactionCollectionConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(FruitTransactionCollectionConfig.class);
+
+    private static final String LEGACY_COLLECTION = FruitTransaction.COLLECTION + "_legacy";
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+    private static final String MIGRATION_ID = "fruit_transactions_timeseries";
+    private static final String MIGRATION_LOCK = "locknroll:migrations:fruit-transactions";
+    // Set on rollup buckets once the legacy events after the rename have been added to them
+    private static final String LEGACY_TAIL_MARKER = "legacy_tail_added";
+    private static final long SETUP_LOCK_WAIT_SECONDS = 30;
+    private static final int MIN_MAJOR_VERSION = 7;
+    private static final int COPY_BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private FruitTransactionRollupService rollupService;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    @Qualifier(AsyncConfig.AUDIT_EXECUTOR)
+    private Executor auditExecutor;
+
+    // 0 keeps raw events forever
+    @Value("${app.fruit-transactions.raw-retention-days:0}")
+    private long rawRetentionDays;
+
+    @Value("${app.fruit-transactions.minute-rollup-retention-days:90}")
+    private long minuteRollupRetentionDays;
+
+    @Value("${app.fruit-transactions.migrate-legacy:true}")
+    private boolean migrateLegacy;
+
+    @PostConstruct
+    public void initCollections() {
+        int majorVersion;
+        try {
+            majorVersion = serverMajorVersion();
+        } catch (Exception e) {
+            logger.error("Could not reach MongoDB; fruit transaction collections not set up: {}", e.getMessage(), e);
+            return;
+        }
+        if (majorVersion < MIN_MAJOR_VERSION) {
+            throw new IllegalStateException("MongoDB " + majorVersion + " is too old for " + FruitTransaction.COLLECTION
+                    + "; " + MIN_MAJOR_VERSION + ".0 or later is required");
+        }
+
+        try {
+            // Rollup upserts and rebuilds rely on the unique bucket index, so it goes first
+            ensureRollupIndexes();
+            setUpTimeSeriesCollection();
+            ensureTransactionIndexes();
+
+            if (migrateLegacy && mongoTemplate.collectionExists(LEGACY_COLLECTION)) {
+                auditExecutor.execute(this::migrateLegacyTransactions);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to set up fruit transaction collections: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rename a plain collection out of the way and create the time-series one, under the migration
+     * lock so nodes starting together do not both rename
+     */
+    private void setUpTimeSeriesCollection() throws InterruptedException {
+        RLock lock = redissonClient.getLock(MIGRATION_LOCK);
+        if (!lock.tryLock(SETUP_LOCK_WAIT_SECONDS, TimeUnit.SECONDS)) {
+            logger.warn("Fruit transaction migration lock busy; another node is setting up {}", FruitTransaction.COLLECTION);
+            return;
+        }
+        try {
+            if (mongoTemplate.collectionExists(FruitTransaction.COLLECTION) && !isTimeSeries(FruitTransaction.COLLECTION)) {
+                // Recorded before renaming: the rename time bounds the legacy rollup rebuild
+                migrations().updateOne(new Document("_id", MIGRATION_ID),
+                        new Document("$setOnInsert", new Document("renamed_at", new Date())),
+                        new UpdateOptions().upsert(true));
+                mongoTemplate.getCollection(FruitTransaction.COLLECTION).renameCollection(
+                        new MongoNamespace(mongoTemplate.getDb().getName(), LEGACY_COLLECTION));
+                logger.info("Renamed plain {} collection to {}", FruitTransaction.COLLECTION, LEGACY_COLLECTION);
+            }
+            if (!mongoTemplate.collectionExists(FruitTransaction.COLLECTION)) {
+                createTimeSeriesCollection();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void createTimeSeriesCollection() {
+        TimeSeriesOptions timeSeries = new TimeSeriesOptions("timestamp")
+                .metaField("fruit_id")
+                .granularity(TimeSeriesGranularity.SECONDS);
+        CreateCollectionOptions options = new CreateCollectionOptions().timeSeriesOptions(timeSeries);
+        if (rawRetentionDays > 0) {
+            options.expireAfter(rawRetentionDays, TimeUnit.DAYS);
+        }
+        mongoTemplate.getDb().createCollection(FruitTransaction.COLLECTION, options);
+        logger.info("Created time-series collection {} (raw events kept {})", FruitTransaction.COLLECTION,
+                rawRetentionDays > 0 ? rawRetentionDays + " days" : "forever");
+    }
+
+    /**
+     * Secondary indexes for the repository finders; fruit plus time also backs the per-fruit
+     * recent-history queries
+     */
+    private void ensureTransactionIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(FruitTransaction.COLLECTION);
+        indexOps.ensureIndex(new Index().on("fruit_id", Sort.Direction.ASC).on("timestamp", Sort.Direction.DESC)
+                .named("fruit_timestamp"));
+        indexOps.ensureIndex(new Index().on("fruit_id", Sort.Direction.ASC).on("operation_type", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.DESC).named("fruit_operation_timestamp"));
+        indexOps.ensureIndex(new Index().on("operation_type", Sort.Direction.ASC).on("timestamp", Sort.Direction.DESC)
+                .named("operation_timestamp"));
+        indexOps.ensureIndex(new Index().on("lock_duration_ms", Sort.Direction.DESC).named("lock_duration"));
+    }
+
+    /**
+     * One document per fruit and bucket (also the $merge key of rollup rebuilds), plus bucket
+     * start for cross-fruit ranges; on minute rollups that index is also their TTL, hour rollups
+     * are kept
+     */
+    private void ensureRollupIndexes() {
+        for (String collection : List.of(FruitTransactionRollup.MINUTE_COLLECTION, FruitTransactionRollup.HOUR_COLLECTION)) {
+            mongoTemplate.indexOps(collection).ensureIndex(new Index().on("fruit_id", Sort.Direction.ASC)
+                    .on("bucket_start", Sort.Direction.ASC).unique().named("fruit_bucket"));
+        }
+        mongoTemplate.indexOps(FruitTransactionRollup.MINUTE_COLLECTION).ensureIndex(new Index()
+                .on("bucket_start", Sort.Direction.ASC).named("bucket_start")
+                .expire(minuteRollupRetentionDays, TimeUnit.DAYS));
+        mongoTemplate.indexOps(FruitTransactionRollup.HOUR_COLLECTION).ensureIndex(new Index()
+                .on("bucket_start", Sort.Direction.ASC).named("bucket_start"));
+    }
+
+    /**
+     * Build rollups from the legacy collection, copy it into the time-series collection and drop
+     * it. Rollups come first in case raw expiry is configured. Each step is recorded in the
+     * migration marker, so a failed or interrupted migration resumes on the next startup; the
+     * legacy collection is only dropped once everything is copied.
+     */
+    private void migrateLegacyTransactions() {
+        RLock lock = redissonClient.getLock(MIGRATION_LOCK);
+        if (!lock.tryLock()) {
+            logger.info("{} is being migrated by another node", LEGACY_COLLECTION);
+            return;
+        }
+        try {
+            Document marker = migrations().find(new Document("_id", MIGRATION_ID)).first();
+            if (marker == null || marker.getDate("renamed_at") == null) {
+                logger.warn("No migration marker for {}; leaving it for manual review", LEGACY_COLLECTION);
+                return;
+            }
+            if (!marker.getBoolean("rollups_rebuilt", false)) {
+                rebuildLegacyRollups(toLocalDateTime(marker.getDate("renamed_at")));
+                updateMarker(new Document("$set", new Document("rollups_rebuilt", true)));
+            }
+            long copied = copyLegacyTransactions(marker.get("last_copied_id"));
+            mongoTemplate.getCollection(LEGACY_COLLECTION).drop();
+            updateMarker(new Document("$set", new Document("completed_at", new Date())));
+            logger.info("Copied {} fruit transactions from {} into the time-series collection", copied, LEGACY_COLLECTION);
+        } catch (Exception e) {
+            logger.error("Failed to migrate {}; it is kept and the migration resumes on next startup: {}",
+                    LEGACY_COLLECTION, e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rebuild whole hours before the rename from the legacy events. Buckets from the rename hour
+     * on already hold live increments that a rebuild would replace, so the legacy events of that
+     * last partial hour are added to them instead, once per bucket, so a resumed migration does
+     * not add them again.
+     */
+    private void rebuildLegacyRollups(LocalDateTime renamedAt) {
+        LocalDateTime renameHour = renamedAt.truncatedTo(ChronoUnit.HOURS);
+        MongoCollection<Document> legacy = mongoTemplate.getCollection(LEGACY_COLLECTION);
+        Document first = legacy.find(new Document("timestamp", new Document("$ne", null)))
+                .sort(new Document("timestamp", 1)).first();
+        if (first != null && toLocalDateTime(first.getDate("timestamp")).isBefore(renameHour)) {
+            rollupService.rebuildRollups(LEGACY_COLLECTION, toLocalDateTime(first.getDate("timestamp")), renameHour);
+        }
+        rollupService.addRollupsOnce(LEGACY_COLLECTION, renameHour,
+                LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1), LEGACY_TAIL_MARKER);
+    }
+
+    /**
+     * Copy legacy events in _id order after lastCopiedId, recording progress after each batch.
+     * Time-series collections do not enforce unique _id, so the first batch skips events a run
+     * interrupted before recording its progress had already copied.
+     */
+    private long copyLegacyTransactions(Object lastCopiedId) {
+        MongoCollection<Document> legacy = mongoTemplate.getCollection(LEGACY_COLLECTION);
+        MongoCollection<Document> target = mongoTemplate.getCollection(FruitTransaction.COLLECTION);
+        Document filter = new Document("timestamp", new Document("$ne", null));
+        if (lastCopiedId != null) {
+            filter.append("_id", new Document("$gt", lastCopiedId));
+        }
+        long copied = 0;
+        boolean firstBatch = true;
+        try (MongoCursor<Document> cursor = legacy.find(filter).sort(new Document("_id", 1))
+                .batchSize(COPY_BATCH_SIZE).iterator()) {
+            List<Document> batch = new ArrayList<>(COPY_BATCH_SIZE);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() < COPY_BATCH_SIZE && cursor.hasNext()) {
+                    continue;
+                }
+                Object batchLastId = batch.get(batch.size() - 1).get("_id");
+                if (firstBatch) {
+                    Set<Object> copiedIds = copiedIds(target, batch);
+                    batch.removeIf(event -> copiedIds.contains(event.get("_id")));
+                    firstBatch = false;
+                }
+                if (!batch.isEmpty()) {
+                    target.insertMany(batch);
+                    copied += batch.size();
+                }
+                updateMarker(new Document("$set", new Document("last_copied_id", batchLastId))
+                        .append("$inc", new Document("copied", (long) batch.size())));
+                batch.clear();
+            }
+        }
+        return copied;
+    }
+
+    private static Set<Object> copiedIds(MongoCollection<Document> target, List<Document> batch) {
+        List<Object> ids = new ArrayList<>(batch.size());
+        batch.forEach(event -> ids.add(event.get("_id")));
+        Set<Object> copiedIds = new HashSet<>();
+        target.find(new Document("_id", new Document("$in", ids)))
+                .projection(new Document("_id", 1))
+                .forEach(event -> copiedIds.add(event.get("_id")));
+        return copiedIds;
+    }
+
+    private MongoCollection<Document> migrations() {
+        return mongoTemplate.getCollection(MIGRATIONS_COLLECTION);
+    }
+
+    private void updateMarker(Document update) {
+        migrations().updateOne(new Document("_id", MIGRATION_ID), update);
+    }
+
+    private int serverMajorVersion() {
+        Document buildInfo = mongoTemplate.getDb().runCommand(new Document("buildInfo", 1));
+        return buildInfo.getList("versionArray", Integer.class).get(0);
+    }
+
+    private boolean isTimeSeries(String collection) {
+        Document info = mongoTemplate.getDb().listCollections().filter(new Document("name", collection)).first();
+        return info != null && "timeseries".equals(info.getString("type"));
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,126 @@
+package com.locknroll.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.locknroll.entity.CacheRegions;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level and query cache for read-mostly reference data: workflow definitions,
+ * roles and permissions (see CacheRegions).
+ *
+ * Regions are bounded Caffeine caches behind JCache, created here with an explicit size and TTL
+ * (overridable under app.l2cache.regions.&lt;region&gt;.*); Hibernate refuses to start on a region
+ * that is not listed. The cache is local to each node: changes made elsewhere are picked up when
+ * the entry expires, or sooner for workflows, whose plan invalidations also evict their regions.
+ * Per-region hit/miss/put/eviction counts are exported as cache.* meters tagged with the region.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(HibernateCacheConfig.class);
+
+    // Definitions only change through the admin API; roles and permissions are kept shorter
+    // because a stale permission set on another node is a security concern
+    private static final List<Region> REGIONS = List.of(
+            new Region(CacheRegions.WORKFLOW, 500, 30),
+            new Region(CacheRegions.WORKFLOW_STEPS, 500, 30),
+            new Region(CacheRegions.WORKFLOW_STEP, 5000, 30),
+            new Region(CacheRegions.WORKFLOW_CONDITION, 5000, 30),
+            new Region(CacheRegions.WORKFLOW_TIMEOUT, 2000, 30),
+            new Region(CacheRegions.PARALLEL_GROUP, 2000, 30),
+            new Region(CacheRegions.PARALLEL_GROUP_STEPS, 2000, 30),
+            new Region(CacheRegions.ROLE, 200, 5),
+            new Region(CacheRegions.ROLE_PERMISSIONS, 200, 5),
+            new Region(CacheRegions.PERMISSION, 1000, 5),
+            new Region(CacheRegions.QUERY_RESULTS, 1000, 5),
+            // Must outlive every cached query result, so it never expires; one entry per table
+            new Region(CacheRegions.UPDATE_TIMESTAMPS, 1000, 0));
+
+    @Autowired
+    private Environment environment;
+
+    /**
+     * Caffeine JCache manager holding one bounded cache per region. The provider is named
+     * explicitly because Redisson puts a second JCache provider on the classpath.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        for (Region region : REGIONS) {
+            String prefix = "app.l2cache.regions." + region.name + ".";
+            long maxEntries = environment.getProperty(prefix + "max-entries", Long.class, region.maxEntries);
+            long ttlMinutes = environment.getProperty(prefix + "ttl-minutes", Long.class, region.ttlMinutes);
+
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+            if (ttlMinutes > 0) {
+                configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+            }
+            // Hibernate caches immutable disassembled state, so copying on every read is wasted work
+            configuration.setStoreByValue(false);
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region.name, configuration);
+            logger.debug("Second-level cache region {}: {} entries, ttl {} min", region.name, maxEntries, ttlMinutes);
+        }
+        return cacheManager;
+    }
+
+    /**
+     * Point Hibernate's JCache region factory at the preconfigured manager and enable the query cache
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Steps are added by setting WorkflowStep.workflow, which would otherwise leave the inverse
+            // Workflow.steps collection cached without them
+            properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+        };
+    }
+
+    /**
+     * Per-region cache statistics
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (Region region : REGIONS) {
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(region.name), Tags.of("layer", "hibernate"));
+            }
+        };
+    }
+
+    private static final class Region {
+        private final String name;
+        private final long maxEntries;
+        private final long ttlMinutes;
+
+        Region(String name, long maxEntries, long ttlMinutes) {
+            this.name = name;
+            this.maxEntries = maxEntries;
+            this.ttlMinutes = ttlMinutes;
+        }
+    }
+}
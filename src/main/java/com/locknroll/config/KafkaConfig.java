@@ -1,13 +1,18 @@
 package com.locknroll.config;
 
 import com.locknroll.event.WorkflowEvent;
+import com.locknroll.logging.TraceIdProducerInterceptor;
+import com.locknroll.logging.TraceIdRecordInterceptor;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
@@ -48,7 +53,10 @@ public class KafkaConfig {
 
     @Bean
     public KafkaTemplate<String, WorkflowEvent> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        KafkaTemplate<String, WorkflowEvent> template = new KafkaTemplate<>(producerFactory());
+        // Carry the request trace id to consumers as a record header
+        template.setProducerInterceptor(new TraceIdProducerInterceptor<>());
+        return template;
     }
 
     /**
@@ -70,10 +78,15 @@ public class KafkaConfig {
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, WorkflowEvent> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, WorkflowEvent> kafkaListenerContainerFactory(
+            @Qualifier("kafkaListenerTaskExecutor") ObjectProvider<AsyncTaskExecutor> listenerTaskExecutor) {
         ConcurrentKafkaListenerContainerFactory<String, WorkflowEvent> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setRecordInterceptor(new TraceIdRecordInterceptor<>());
+        // Only defined in virtual-thread mode (see VirtualThreadConfig)
+        listenerTaskExecutor.ifAvailable(executor ->
+            factory.getContainerProperties().setListenerTaskExecutor(executor));
         return factory;
     }
 }
@@ -0,0 +1,80 @@
+package com.locknroll.config;
+
+import com.locknroll.service.MetricsService;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Micrometer configuration: @Timed support and executor queue gauges
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Enable @Timed on Spring beans (used for workflow start latency)
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Queue depth of the STOMP channel executors; a growing outbound queue means
+     * clients are not keeping up with notifications
+     */
+    @Bean
+    public MeterBinder webSocketQueueMetrics(
+            @Qualifier("clientInboundChannelExecutor") ThreadPoolTaskExecutor inbound,
+            @Qualifier("clientOutboundChannelExecutor") ThreadPoolTaskExecutor outbound,
+            @Qualifier("brokerChannelExecutor") ThreadPoolTaskExecutor broker) {
+        return registry -> {
+            registerQueueDepth(registry, "inbound", inbound);
+            registerQueueDepth(registry, "outbound", outbound);
+            registerQueueDepth(registry, "broker", broker);
+        };
+    }
+
+    /**
+     * Queue depth of the background executors (see AsyncConfig)
+     */
+    @Bean
+    public MeterBinder asyncExecutorMetrics(
+            @Qualifier(AsyncConfig.TIMEOUT_EXECUTOR) ThreadPoolTaskExecutor timeouts,
+            @Qualifier(AsyncConfig.NOTIFICATION_EXECUTOR) ThreadPoolTaskExecutor notifications,
+            @Qualifier(AsyncConfig.AUDIT_EXECUTOR) ThreadPoolTaskExecutor audit) {
+        return registry -> {
+            registerExecutorQueueDepth(registry, "timeout", timeouts);
+            registerExecutorQueueDepth(registry, "notification", notifications);
+            registerExecutorQueueDepth(registry, "audit", audit);
+        };
+    }
+    
+    private static void registerExecutorQueueDepth(MeterRegistry registry, String name, ThreadPoolTaskExecutor executor) {
+        Gauge.builder(MetricsService.EXECUTOR_QUEUE_DEPTH, executor, MetricsConfig::queueDepth)
+                .tag("executor", name)
+                .description("Tasks waiting in the executor queue")
+                .register(registry);
+    }
+    
+    private static void registerQueueDepth(MeterRegistry registry, String channel, ThreadPoolTaskExecutor executor) {
+        Gauge.builder(MetricsService.WEBSOCKET_QUEUE_DEPTH, executor, MetricsConfig::queueDepth)
+                .tag("channel", channel)
+                .description("Messages waiting in the WebSocket channel executor queue")
+                .register(registry);
+    }
+
+    private static double queueDepth(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            // Executor not initialized yet
+            return 0;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSeriali
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Set;
 
 /**
  * Redis Configuration for caching and distributed locking
@@ -36,6 +37,12 @@ public class RedisConfig {
     @Value("${spring.data.redis.password:}")
     private String redisPassword;
     
+    @Value("${redisson.connection-pool-size:64}")
+    private int redissonPoolSize;
+    
+    @Value("${redisson.connection-minimum-idle-size:10}")
+    private int redissonMinimumIdle;
+    
     /**
      * RedisTemplate configuration for general Redis operations
      */
@@ -69,8 +76,12 @@ public class RedisConfig {
                 .serializeValuesWith(org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair
                         .fromSerializer(new GenericJackson2JsonRedisSerializer()));
         
+        // Statistics feed the cache.gets/puts meters; caches must exist at startup to be bound
         return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
+                .initialCacheNames(Set.of("fruits", "users", "activeUsers", "usersByRole",
+                        "roles", "activeRoles", "rolesByPermission"))
+                .enableStatistics()
                 .build();
     }
     
@@ -86,8 +97,8 @@ public class RedisConfig {
                 .setAddress(redisUrl)
                 .setPassword(redisPassword.isEmpty() ? null : redisPassword)
                 .setDatabase(0)
-                .setConnectionPoolSize(64)
-                .setConnectionMinimumIdleSize(10)
+                .setConnectionPoolSize(redissonPoolSize)
+                .setConnectionMinimumIdleSize(redissonMinimumIdle)
                 .setIdleConnectionTimeout(10000)
                 .setConnectTimeout(10000)
                 .setTimeout(3000)
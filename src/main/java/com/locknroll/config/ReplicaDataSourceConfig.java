@@ -0,0 +1,127 @@
+package com.locknroll.config;
+
+import com.locknroll.datasource.ReadYourWritesTracker;
+import com.locknroll.datasource.ReplicaLagMonitor;
+import com.locknroll.datasource.ReplicaRoutingDataSource;
+import com.locknroll.service.MetricsService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Read-replica routing, enabled with app.datasource.replica.enabled=true.
+ *
+ * The primary pool keeps using spring.datasource.*; the replica pool is configured under
+ * app.datasource.replica.*. Read-only transactions go to the replica unless it lags by more
+ * than max-lag-ms or the user wrote within sticky-ms (see ReplicaRoutingDataSource).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    private static final String PREFIX = "app.datasource.replica.";
+
+    @Autowired
+    private Environment environment;
+
+    /**
+     * Primary pool, bound to spring.datasource.hikari.* like the auto-configured one it replaces
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Replica pool; credentials default to the primary's
+     */
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(environment.getRequiredProperty(PREFIX + "url"));
+        dataSource.setUsername(environment.getProperty(PREFIX + "username", properties.determineUsername()));
+        dataSource.setPassword(environment.getProperty(PREFIX + "password", properties.determinePassword()));
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setMaximumPoolSize(environment.getProperty(PREFIX + "maximum-pool-size", Integer.class, 20));
+        dataSource.setMinimumIdle(environment.getProperty(PREFIX + "minimum-idle", Integer.class, 5));
+        // Fail fast so an unreachable replica is noticed by the lag check rather than by requests
+        dataSource.setConnectionTimeout(environment.getProperty(PREFIX + "connection-timeout", Long.class, 5000L));
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        return new ReplicaLagMonitor(replicaDataSource,
+                environment.getProperty(PREFIX + "max-lag-ms", Long.class, 2000L),
+                environment.getProperty(PREFIX + "lag-check-ms", Long.class, 1000L));
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker() {
+        return new ReadYourWritesTracker(environment.getProperty(PREFIX + "sticky-ms", Long.class, 5000L));
+    }
+
+    /**
+     * Data source used by JPA: routes per transaction, behind a lazy proxy so the route is
+     * decided on the first statement, once the transaction's read-only flag is set
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker,
+                                 ObjectProvider<MetricsService> metricsService) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaLagMonitor, readYourWritesTracker, metricsService);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.PRIMARY, primaryDataSource,
+                ReplicaRoutingDataSource.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Give each transaction its own connection. Hibernate otherwise holds one connection for the
+     * whole open-in-view session, so a write after a read in the same request would reuse a
+     * replica connection.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Last measured replica lag; -1 while unknown
+     */
+    @Bean
+    public MeterBinder replicaLagMetrics(ReplicaLagMonitor replicaLagMonitor) {
+        return registry -> Gauge.builder(MetricsService.REPLICA_LAG, replicaLagMonitor, ReplicaLagMonitor::getLagMillis)
+                .baseUnit("milliseconds")
+                .description("Replica replay lag behind the primary")
+                .register(registry);
+    }
+}
@@ -0,0 +1,61 @@
+package com.locknroll.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Virtual-thread mode, enabled with the "virtual" profile (spring.threads.virtual.enabled).
+ * 
+ * On Java 21+ Spring Boot moves Tomcat request handling onto virtual threads by itself. This
+ * adds the executor for our own Kafka listener containers, which Boot's auto-configuration does
+ * not reach because KafkaConfig builds the container factory itself.
+ * 
+ * @Async and @Scheduled work stays on platform threads: it runs on the named, bounded pools and
+ * the scheduler defined in AsyncConfig, which Boot's virtual-thread executors do not replace.
+ */
+@Configuration
+public class VirtualThreadConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+    
+    @Autowired
+    private Environment environment;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+    
+    /**
+     * Runs each Kafka consumer loop on its own virtual thread
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor kafkaListenerTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("kafka-listener-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+    
+    /**
+     * Boot silently falls back to platform threads before Java 21; make that visible
+     */
+    @PostConstruct
+    public void logThreadingMode() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            logger.info("Virtual threads enabled for Tomcat and Kafka listeners; "
+                    + "@Async and @Scheduled stay on the AsyncConfig pools");
+        } else if (virtualThreadsRequested) {
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; "
+                    + "running on platform threads", Runtime.version().feature());
+        }
+    }
+}
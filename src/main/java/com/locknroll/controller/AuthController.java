@@ -21,7 +21,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * REST controller for authentication operations
@@ -67,9 +66,7 @@ public class AuthController {
             CustomUserDetailsService.CustomUserPrincipal userPrincipal = 
                 (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
             
-            List<String> roles = userPrincipal.getAuthorities().stream()
-                .map(authority -> authority.getAuthority().replace("ROLE_", ""))
-                .collect(Collectors.toList());
+            List<String> roles = userPrincipal.getRoleNames();
 
             logger.debug("User roles: {}", roles);
 
@@ -149,11 +146,9 @@ public class AuthController {
                 (CustomUserDetailsService.CustomUserPrincipal) SecurityContextHolder.getContext()
                     .getAuthentication().getPrincipal();
             
-            String jwt = tokenProvider.generateTokenFromUsername(userPrincipal.getUsername());
+            String jwt = tokenProvider.generateToken(userPrincipal);
             
-            List<String> roles = userPrincipal.getAuthorities().stream()
-                .map(authority -> authority.getAuthority().replace("ROLE_", ""))
-                .collect(Collectors.toList());
+            List<String> roles = userPrincipal.getRoleNames();
 
             LoginResponse response = new LoginResponse();
             response.setAccessToken(jwt);
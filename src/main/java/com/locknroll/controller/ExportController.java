@@ -0,0 +1,59 @@
+package com.locknroll.controller;
+
+import com.locknroll.service.ExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * REST Controller for streaming NDJSON exports used by reporting jobs
+ */
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private ExportService exportService;
+
+    /**
+     * Export all fruits
+     *
+     * Example curl command:
+     * curl -H "Authorization: Bearer <token>" http://localhost:8080/api/export/fruits
+     */
+    @GetMapping("/fruits")
+    public ResponseEntity<StreamingResponseBody> exportFruits() {
+        logger.info("GET /api/export/fruits - Streaming fruit export");
+        StreamingResponseBody body = out -> exportService.exportFruits(out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * Export all tasks
+     */
+    @GetMapping("/tasks")
+    public ResponseEntity<StreamingResponseBody> exportTasks() {
+        logger.info("GET /api/export/tasks - Streaming task export");
+        StreamingResponseBody body = out -> exportService.exportTasks(out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * Export fruit transactions, optionally for a single fruit
+     */
+    @GetMapping("/fruit-transactions")
+    public ResponseEntity<StreamingResponseBody> exportFruitTransactions(@RequestParam(required = false) Long fruitId) {
+        logger.info("GET /api/export/fruit-transactions - Streaming transaction export (fruitId={})", fruitId);
+        StreamingResponseBody body = out -> exportService.exportFruitTransactions(fruitId, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
@@ -0,0 +1,110 @@
+package com.locknroll.controller;
+
+import com.locknroll.service.ExportService;
+import com.locknroll.service.FruitTransactionAnalyticsService;
+import com.mongodb.client.AggregateIterable;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+/**
+ * REST Controller for fruit transaction analytics, streamed as NDJSON (one result row per line)
+ */
+@RestController
+@RequestMapping("/api/analytics/fruit-transactions")
+@CrossOrigin(origins = "*")
+public class FruitAnalyticsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FruitAnalyticsController.class);
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private FruitTransactionAnalyticsService analyticsService;
+
+    @Autowired
+    private ExportService exportService;
+
+    /**
+     * Units sold and restocked per fruit, with hourly rates
+     *
+     * Example curl command:
+     * curl -H "Authorization: Bearer <token>" \
+     *   "http://localhost:8080/api/analytics/fruit-transactions/stock-velocity?from=2026-01-01T00:00:00&to=2026-01-08T00:00:00"
+     */
+    @GetMapping("/stock-velocity")
+    public ResponseEntity<StreamingResponseBody> getStockVelocity(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long fruitId) {
+        logger.info("GET /api/analytics/fruit-transactions/stock-velocity - {} to {} (fruitId={})", from, to, fruitId);
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return stream("stock velocity", analyticsService.stockVelocity(from, to, fruitId));
+    }
+
+    /**
+     * Lock hold time percentiles per fruit and hour of day
+     */
+    @GetMapping("/contention")
+    public ResponseEntity<StreamingResponseBody> getContentionHeatmap(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long fruitId) {
+        logger.info("GET /api/analytics/fruit-transactions/contention - {} to {} (fruitId={})", from, to, fruitId);
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return stream("contention", analyticsService.contentionHeatmap(from, to, fruitId));
+    }
+
+    /**
+     * Transactions per operation type per minute, hour or day
+     */
+    @GetMapping("/operation-mix")
+    public ResponseEntity<StreamingResponseBody> getOperationMix(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "hour") String interval,
+            @RequestParam(required = false) Long fruitId) {
+        logger.info("GET /api/analytics/fruit-transactions/operation-mix - {} to {} per {} (fruitId={})", from, to, interval, fruitId);
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return stream("operation mix", analyticsService.operationMix(from, to, interval, fruitId));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid operation mix request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Cache hit ratio per fruit
+     */
+    @GetMapping("/cache-hits")
+    public ResponseEntity<StreamingResponseBody> getCacheHitRatios(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long fruitId) {
+        logger.info("GET /api/analytics/fruit-transactions/cache-hits - {} to {} (fruitId={})", from, to, fruitId);
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return stream("cache hit ratio", analyticsService.cacheHitRatios(from, to, fruitId));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String report, AggregateIterable<Document> results) {
+        StreamingResponseBody body = out -> exportService.exportAggregation(report, results, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
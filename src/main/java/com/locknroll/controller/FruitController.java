@@ -1,14 +1,22 @@
 package com.locknroll.controller;
 
 import com.locknroll.entity.Fruit;
+import com.locknroll.entity.FruitTransactionRollup;
+import com.locknroll.exception.AdmissionRejectedException;
+import com.locknroll.service.AdmissionControlService;
 import com.locknroll.service.FruitService;
+import com.locknroll.service.FruitTransactionRollupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +33,12 @@ public class FruitController {
     @Autowired
     private FruitService fruitService;
     
+    @Autowired
+    private AdmissionControlService admissionControlService;
+    
+    @Autowired
+    private FruitTransactionRollupService rollupService;
+    
     /**
      * Get all fruits
      */
@@ -41,7 +55,7 @@ public class FruitController {
     @GetMapping("/{id}")
     public ResponseEntity<Fruit> getFruitById(@PathVariable Long id) {
         logger.info("GET /api/fruits/{} - Fetching fruit by ID", id);
-        Optional<Fruit> fruit = fruitService.findById(id);
+        Optional<Fruit> fruit = fruitService.getFruitById(id);
         return fruit.map(ResponseEntity::ok)
                    .orElse(ResponseEntity.notFound().build());
     }
@@ -97,8 +111,15 @@ public class FruitController {
                                              @RequestParam Integer quantity) {
         logger.info("POST /api/fruits/{}/purchase - Purchasing {} units", id, quantity);
         try {
-            Fruit fruit = fruitService.purchaseFruit(id, quantity);
+            // Admitted before the service call, so shed requests never open a transaction or touch the lock
+            Fruit fruit = admissionControlService.executeAdmitted("fruit:purchase:" + id,
+                    () -> fruitService.purchaseFruit(id, quantity));
             return ResponseEntity.ok(fruit);
+        } catch (AdmissionRejectedException e) {
+            logger.debug("Shed purchase of fruit {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
         } catch (Exception e) {
             logger.error("Error purchasing fruit: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
@@ -155,4 +176,25 @@ public class FruitController {
         List<Fruit> fruits = fruitService.getLowStockFruits(threshold);
         return ResponseEntity.ok(fruits);
     }
+    
+    /**
+     * Get per-minute or per-hour transaction rollups for a fruit, for buckets starting in [from, to)
+     * 
+     * Example curl command:
+     * curl "http://localhost:8080/api/fruits/1/transactions/rollups?granularity=hour&from=2026-01-01T00:00:00&to=2026-01-02T00:00:00"
+     */
+    @GetMapping("/{id}/transactions/rollups")
+    public ResponseEntity<List<FruitTransactionRollup>> getTransactionRollups(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "hour") String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        logger.info("GET /api/fruits/{}/transactions/rollups - Fetching {} rollups", id, granularity);
+        try {
+            return ResponseEntity.ok(rollupService.findRollups(id, granularity, from, to));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid rollup request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -1,9 +1,14 @@
 package com.locknroll.controller;
 
 import com.locknroll.dto.TaskDto;
+import com.locknroll.dto.TaskPageDto;
+import com.locknroll.security.CustomUserDetailsService.CustomUserPrincipal;
+import com.locknroll.security.RoleBasedAccessControl;
+import com.locknroll.service.TaskClaimService;
 import com.locknroll.service.TaskService;
 import com.locknroll.exception.ResourceNotFoundException;
 import com.locknroll.exception.InvalidTaskStateException;
+import com.locknroll.exception.TaskClaimException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +32,12 @@ public class TaskController {
     @Autowired
     private TaskService taskService;
     
+    @Autowired
+    private TaskClaimService taskClaimService;
+    
+    @Autowired
+    private RoleBasedAccessControl rbac;
+    
     /**
      * Create tasks for a workflow instance
      * 
@@ -79,6 +90,28 @@ public class TaskController {
         }
     }
     
+    /**
+     * Get a keyset page of tasks for a workflow instance
+     * 
+     * Example curl command:
+     * curl "http://localhost:8080/api/tasks/workflow-instance/1/page?limit=50&cursor=<nextCursor>"
+     */
+    @GetMapping("/workflow-instance/{workflowInstanceId}/page")
+    public ResponseEntity<TaskPageDto> getTaskPageByWorkflowInstanceId(@PathVariable Long workflowInstanceId,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(required = false) Integer limit) {
+        try {
+            TaskPageDto page = taskService.getTaskPageByWorkflowInstanceId(workflowInstanceId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid task cursor: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Error fetching task page by workflow instance: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * Get tasks assigned to a user
      */
@@ -93,6 +126,28 @@ public class TaskController {
         }
     }
     
+    /**
+     * Get a keyset page of tasks assigned to a user
+     * 
+     * Example curl command:
+     * curl "http://localhost:8080/api/tasks/user/1/page?limit=50&cursor=<nextCursor>"
+     */
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<TaskPageDto> getTaskPageByUserId(@PathVariable Long userId,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer limit) {
+        try {
+            TaskPageDto page = taskService.getTaskPageByUserId(userId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid task cursor: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Error fetching task page by user: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * Get pending tasks for a user
      */
@@ -135,6 +190,28 @@ public class TaskController {
         }
     }
     
+    /**
+     * Get a keyset page of pending tasks for a role
+     * 
+     * Example curl command:
+     * curl "http://localhost:8080/api/tasks/role/1/page?limit=50&cursor=<nextCursor>"
+     */
+    @GetMapping("/role/{roleId}/page")
+    public ResponseEntity<TaskPageDto> getTaskPageByRole(@PathVariable Long roleId,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer limit) {
+        try {
+            TaskPageDto page = taskService.getTaskPageByRole(roleId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid task cursor: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Error fetching task page by role: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * Update task status
      * 
@@ -194,4 +271,79 @@ public class TaskController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+    
+    /**
+     * Claim tasks from the work queues of the current user's roles
+     * 
+     * Example curl command:
+     * curl -X POST "http://localhost:8080/api/tasks/claim?limit=5"
+     */
+    @PostMapping("/claim")
+    public ResponseEntity<List<TaskDto>> claimTasks(@RequestParam(defaultValue = "1") int limit) {
+        try {
+            CustomUserPrincipal user = rbac.getCurrentUser();
+            if (user == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            List<TaskDto> tasks = taskClaimService.claimTasks(user.getUserId(), user.getRoleNames(), limit);
+            return ResponseEntity.ok(tasks);
+        } catch (Exception e) {
+            logger.error("Error claiming tasks: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Release a claimed task back to its role queue
+     * 
+     * Example curl command:
+     * curl -X POST http://localhost:8080/api/tasks/1/release
+     */
+    @PostMapping("/{taskId}/release")
+    public ResponseEntity<TaskDto> releaseTask(@PathVariable Long taskId) {
+        try {
+            CustomUserPrincipal user = rbac.getCurrentUser();
+            if (user == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            TaskDto task = taskClaimService.releaseTask(taskId, user.getUserId());
+            return ResponseEntity.ok(task);
+        } catch (ResourceNotFoundException e) {
+            logger.error("Task not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (TaskClaimException e) {
+            logger.warn("Task release refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            logger.error("Error releasing task: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Extend the current user's claim on a task; call periodically while working on it
+     * 
+     * Example curl command:
+     * curl -X POST http://localhost:8080/api/tasks/1/heartbeat
+     */
+    @PostMapping("/{taskId}/heartbeat")
+    public ResponseEntity<TaskDto> heartbeat(@PathVariable Long taskId) {
+        try {
+            CustomUserPrincipal user = rbac.getCurrentUser();
+            if (user == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            TaskDto task = taskClaimService.renewClaim(taskId, user.getUserId());
+            return ResponseEntity.ok(task);
+        } catch (ResourceNotFoundException e) {
+            logger.error("Task not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (TaskClaimException e) {
+            logger.warn("Task heartbeat refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            logger.error("Error renewing task claim: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
@@ -2,7 +2,9 @@ package com.locknroll.controller;
 
 import com.locknroll.dto.WorkflowInstanceDto;
 import com.locknroll.dto.WorkflowExecutionStatusDto;
+import com.locknroll.exception.ResourceNotFoundException;
 import com.locknroll.service.WorkflowExecutionEngine;
+import com.locknroll.service.WorkflowStatusService;
 import com.locknroll.security.SecurityAnnotations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +28,9 @@ public class WorkflowExecutionController {
     @Autowired
     private WorkflowExecutionEngine workflowExecutionEngine;
 
+    @Autowired
+    private WorkflowStatusService workflowStatusService;
+
     /**
      * Start a workflow for an entity
      */
@@ -61,9 +66,12 @@ public class WorkflowExecutionController {
     @SecurityAnnotations.Authenticated
     public ResponseEntity<WorkflowExecutionStatusDto> getWorkflowStatus(@PathVariable Long workflowInstanceId) {
         try {
-            WorkflowExecutionStatusDto status = workflowExecutionEngine.getWorkflowStatus(workflowInstanceId);
+            WorkflowExecutionStatusDto status = workflowStatusService.getStatus(workflowInstanceId);
             return ResponseEntity.ok(status);
 
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+
         } catch (Exception e) {
             logger.error("Failed to get workflow status", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
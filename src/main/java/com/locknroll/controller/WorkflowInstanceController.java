@@ -1,17 +1,20 @@
 package com.locknroll.controller;
 
 import com.locknroll.dto.WorkflowInstanceDto;
+import com.locknroll.service.WorkflowArchiveService;
 import com.locknroll.service.WorkflowInstanceService;
 import com.locknroll.exception.ResourceNotFoundException;
 import com.locknroll.exception.WorkflowInstanceAlreadyExistsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -28,6 +31,9 @@ public class WorkflowInstanceController {
     @Autowired
     private WorkflowInstanceService workflowInstanceService;
     
+    @Autowired
+    private WorkflowArchiveService workflowArchiveService;
+    
     /**
      * Create a new workflow instance
      * 
@@ -133,6 +139,40 @@ public class WorkflowInstanceController {
         }
     }
     
+    /**
+     * Get archived workflow instances created in [from, to)
+     * 
+     * Example curl command:
+     * curl "http://localhost:8080/api/workflow-instances/archived?from=2026-01-01T00:00:00&to=2026-02-01T00:00:00"
+     */
+    @GetMapping("/archived")
+    public ResponseEntity<List<Map<String, Object>>> getArchivedWorkflowInstances(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(workflowArchiveService.findArchivedWorkflowInstances(from, to, Math.min(limit, 1000)));
+        } catch (Exception e) {
+            logger.error("Error fetching archived workflow instances: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Get the tasks of an archived workflow instance; createdAt is the instance's created_at
+     */
+    @GetMapping("/archived/{id}/tasks")
+    public ResponseEntity<List<Map<String, Object>>> getArchivedTasks(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAt) {
+        try {
+            return ResponseEntity.ok(workflowArchiveService.findArchivedTasks(id, createdAt));
+        } catch (Exception e) {
+            logger.error("Error fetching archived tasks: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * Get workflow instances by entity type
      */
@@ -0,0 +1,69 @@
+package com.locknroll.datasource;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers when each user last committed a write, so their read-only transactions stay on the
+ * primary until the replica has had time to catch up.
+ *
+ * Keyed by the authenticated username; unauthenticated work (schedulers, listeners) is not
+ * tracked. Writes are remembered on the node that made them only.
+ */
+public class ReadYourWritesTracker {
+
+    private final long stickyMillis;
+    private final ConcurrentMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long stickyMillis) {
+        this.stickyMillis = stickyMillis;
+    }
+
+    /**
+     * Record a committed write by the current user
+     */
+    public void recordWrite() {
+        String user = currentUser();
+        if (user != null) {
+            lastWrites.put(user, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Whether the current user wrote recently enough that reads must see the primary
+     */
+    public boolean isSticky() {
+        if (lastWrites.isEmpty()) {
+            return false;
+        }
+        String user = currentUser();
+        if (user == null) {
+            return false;
+        }
+        Long writtenAt = lastWrites.get(user);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt <= stickyMillis;
+    }
+
+    /**
+     * Forget writes older than the stickiness window
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purge() {
+        long cutoff = System.currentTimeMillis() - stickyMillis;
+        lastWrites.values().removeIf(writtenAt -> writtenAt < cutoff);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,86 @@
+package com.locknroll.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Samples how far the replica is behind the primary, so the routing data source can fall back
+ * to the primary when it is too stale.
+ *
+ * Lag is the age of the last replayed transaction, or zero when the replica has replayed all WAL
+ * it received. A server that is not in recovery (e.g. a standalone database standing in for the
+ * replica locally) reports zero. A failed or outdated sample makes the replica unusable.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private final DataSource replica;
+    private final long maxLagMillis;
+    private final long maxSampleAgeMillis;
+
+    // -1 until the first successful sample and after a failed one
+    private volatile long lagMillis = -1;
+    private volatile long sampledAt;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replica, long maxLagMillis, long checkIntervalMillis) {
+        this.replica = replica;
+        this.maxLagMillis = maxLagMillis;
+        // Tolerate a couple of late samples before distrusting the last one
+        this.maxSampleAgeMillis = checkIntervalMillis * 3;
+    }
+
+    /**
+     * Measure replica lag
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-ms:1000}")
+    public void sample() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            double lag = resultSet.getDouble(1);
+            // NULL: nothing replayed yet, so the lag is unknown
+            lagMillis = resultSet.wasNull() ? -1 : (long) lag;
+        } catch (SQLException e) {
+            lagMillis = -1;
+            if (usable) {
+                logger.warn("Replica lag check failed, reading from the primary: {}", e.getMessage());
+            }
+        }
+        sampledAt = System.currentTimeMillis();
+
+        boolean nowUsable = lagMillis >= 0 && lagMillis <= maxLagMillis;
+        if (nowUsable != usable) {
+            logger.info("Replica {} (lag {} ms, limit {} ms)", nowUsable ? "in use" : "bypassed", lagMillis, maxLagMillis);
+        }
+        usable = nowUsable;
+    }
+
+    /**
+     * Whether the last sample is recent and within the staleness limit
+     */
+    public boolean isUsable() {
+        return usable && System.currentTimeMillis() - sampledAt <= maxSampleAgeMillis;
+    }
+
+    /**
+     * Last measured lag in milliseconds; -1 when unknown
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+}
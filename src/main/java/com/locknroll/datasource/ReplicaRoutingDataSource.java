@@ -0,0 +1,109 @@
+package com.locknroll.datasource;
+
+import com.locknroll.service.MetricsService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ *
+ * A read-only transaction still uses the primary when the current user committed a write within
+ * the stickiness window (read-your-writes), when the replica is too far behind, or when it fills
+ * a shared cache (usePrimary). Must sit behind
+ * a LazyConnectionDataSourceProxy: the transaction's read-only flag is only known once it has
+ * begun, after the transaction manager asked for a connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    // Bound to a read-write transaction once its commit hook is registered
+    private static final Object WRITE_MARKER = new Object();
+    // Bound to a read-only transaction that must read the primary
+    private static final Object PRIMARY_MARKER = new Object();
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    // Resolved lazily: the data source is built before the meter registry
+    private final ObjectProvider<MetricsService> metricsService;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, ReadYourWritesTracker readYourWritesTracker,
+                                    ObjectProvider<MetricsService> metricsService) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Startup metadata, lazy loads after a transaction, plain JDBC
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            return route(PRIMARY, "write");
+        }
+        if (TransactionSynchronizationManager.hasResource(PRIMARY_MARKER)) {
+            return route(PRIMARY, "cache-fill");
+        }
+        if (readYourWritesTracker.isSticky()) {
+            return route(PRIMARY, "read-your-writes");
+        }
+        if (!lagMonitor.isUsable()) {
+            return route(PRIMARY, "replica-lag");
+        }
+        return route(REPLICA, "read-only");
+    }
+
+    /**
+     * Keep the current read-only transaction on the primary. For reads that fill a cache shared
+     * by all users and nodes: loaded from a lagging replica right after a write evicted the entry,
+     * the old data would be cached again for everyone. Only takes effect before the transaction's
+     * first statement; a no-op outside a transaction or without replica routing.
+     */
+    public static void usePrimary() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(PRIMARY_MARKER)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(PRIMARY_MARKER, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PRIMARY_MARKER);
+            }
+        });
+    }
+
+    private String route(String target, String reason) {
+        MetricsService metrics = metricsService.getIfAvailable();
+        if (metrics != null) {
+            metrics.recordDataSourceRoute(target, reason);
+        }
+        return target;
+    }
+
+    /**
+     * Record the write for read-your-writes once this transaction commits
+     */
+    private void trackWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(WRITE_MARKER)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(WRITE_MARKER, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_MARKER);
+                if (status == STATUS_COMMITTED) {
+                    readYourWritesTracker.recordWrite();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.locknroll.dto;
+
+import java.util.List;
+
+/**
+ * DTO for one keyset-paginated page of tasks
+ */
+public class TaskPageDto {
+
+    private List<TaskDto> tasks;
+
+    // Opaque cursor for the next page, null when there are no more results
+    private String nextCursor;
+
+    private boolean hasMore;
+
+    // Constructors
+    public TaskPageDto() {}
+
+    public TaskPageDto(List<TaskDto> tasks, String nextCursor, boolean hasMore) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<TaskDto> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(List<TaskDto> tasks) {
+        this.tasks = tasks;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
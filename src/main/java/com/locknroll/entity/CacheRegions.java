@@ -0,0 +1,25 @@
+package com.locknroll.entity;
+
+/**
+ * Hibernate second-level cache region names. Every region must be sized in HibernateCacheConfig;
+ * an entity or collection annotated with an unknown region fails at startup.
+ */
+public final class CacheRegions {
+
+    public static final String WORKFLOW = "workflow";
+    public static final String WORKFLOW_STEPS = "workflow-steps";
+    public static final String WORKFLOW_STEP = "workflow-step";
+    public static final String WORKFLOW_CONDITION = "workflow-condition";
+    public static final String WORKFLOW_TIMEOUT = "workflow-timeout";
+    public static final String PARALLEL_GROUP = "parallel-group";
+    public static final String PARALLEL_GROUP_STEPS = "parallel-group-steps";
+    public static final String ROLE = "role";
+    public static final String ROLE_PERMISSIONS = "role-permissions";
+    public static final String PERMISSION = "permission";
+
+    // Hibernate's own query cache regions
+    public static final String QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    private CacheRegions() {}
+}
@@ -1,5 +1,6 @@
 package com.locknroll.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -55,6 +56,10 @@ public class Fruit extends BaseEntity {
     @Column(name = "rejection_reason", length = 1000)
     private String rejectionReason;
     
+    @JsonIgnore
+    @Column(name = "fence_token")
+    private Long fenceToken; // Highest lock fencing token applied to this row (see FruitRepository)
+    
     // Note: Workflow instances are managed separately through the WorkflowInstanceService
     // based on entity type "FRUIT" and this fruit's ID as a string
     
@@ -161,6 +166,14 @@ public class Fruit extends BaseEntity {
         this.rejectionReason = rejectionReason;
     }
     
+    public Long getFenceToken() {
+        return fenceToken;
+    }
+    
+    public void setFenceToken(Long fenceToken) {
+        this.fenceToken = fenceToken;
+    }
+    
     
     // Helper methods
     public boolean isDraft() {
@@ -3,6 +3,9 @@ package com.locknroll.entity;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -10,10 +13,16 @@ import java.time.LocalDateTime;
 /**
  * FruitTransaction Entity - Stored in MongoDB
  * Represents transaction logs for fruit operations
+ * 
+ * Stored in a time-series collection bucketed per fruit; the collection, its indexes and the
+ * rollups derived from it are set up by FruitTransactionCollectionConfig
  */
-@Document(collection = "fruit_transactions")
+@Document(collection = FruitTransaction.COLLECTION)
+@TimeSeries(timeField = "timestamp", metaField = "fruitId", granularity = Granularity.SECONDS)
 public class FruitTransaction {
     
+    public static final String COLLECTION = "fruit_transactions";
+    
     @Id
     private String id;
     
@@ -29,7 +38,7 @@ public class FruitTransaction {
     @Field("quantity_change")
     private Integer quantityChange;
     
-    @Field("price_change")
+    @Field(value = "price_change", targetType = FieldType.DECIMAL128)
     private BigDecimal priceChange;
     
     @Field("old_quantity")
@@ -38,10 +47,10 @@ public class FruitTransaction {
     @Field("new_quantity")
     private Integer newQuantity;
     
-    @Field("old_price")
+    @Field(value = "old_price", targetType = FieldType.DECIMAL128)
     private BigDecimal oldPrice;
     
-    @Field("new_price")
+    @Field(value = "new_price", targetType = FieldType.DECIMAL128)
     private BigDecimal newPrice;
     
     @Field("user_id")
@@ -0,0 +1,196 @@
+package com.locknroll.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pre-aggregated FruitTransaction totals for one fruit over one minute or one hour - Stored in MongoDB
+ *
+ * Minute and hour rollups share this shape and live in separate collections; one document per
+ * fruit and bucket, updated incrementally as transactions are logged (see FruitTransactionRollupService)
+ */
+@Document
+public class FruitTransactionRollup {
+
+    public static final String MINUTE_COLLECTION = "fruit_transaction_rollups_minute";
+    public static final String HOUR_COLLECTION = "fruit_transaction_rollups_hour";
+
+    @Id
+    private String id;
+
+    @Field("fruit_id")
+    private Long fruitId;
+
+    @Field("bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Field("count")
+    private Long count;
+
+    // Net stock change, and its inbound (restock) and outbound (purchase) parts
+    @Field("quantity_change")
+    private Long quantityChange;
+
+    @Field("quantity_in")
+    private Long quantityIn;
+
+    @Field("quantity_out")
+    private Long quantityOut;
+
+    @Field(value = "price_change", targetType = FieldType.DECIMAL128)
+    private BigDecimal priceChange;
+
+    @Field("price_changes")
+    private Long priceChanges;
+
+    @Field("lock_count")
+    private Long lockCount;
+
+    @Field("lock_duration_total_ms")
+    private Long lockDurationTotalMs;
+
+    @Field("lock_duration_max_ms")
+    private Long lockDurationMaxMs;
+
+    // Cache-aware reads served from the fruits cache, and those that went to the database
+    @Field("cache_hits")
+    private Long cacheHits;
+
+    @Field("cache_misses")
+    private Long cacheMisses;
+
+    // Transactions per operation type
+    @Field("operations")
+    private Map<String, Long> operations = new HashMap<>();
+
+    // Constructors
+    public FruitTransactionRollup() {}
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Long getFruitId() {
+        return fruitId;
+    }
+
+    public void setFruitId(Long fruitId) {
+        this.fruitId = fruitId;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public Long getQuantityChange() {
+        return quantityChange;
+    }
+
+    public void setQuantityChange(Long quantityChange) {
+        this.quantityChange = quantityChange;
+    }
+
+    public Long getQuantityIn() {
+        return quantityIn;
+    }
+
+    public void setQuantityIn(Long quantityIn) {
+        this.quantityIn = quantityIn;
+    }
+
+    public Long getQuantityOut() {
+        return quantityOut;
+    }
+
+    public void setQuantityOut(Long quantityOut) {
+        this.quantityOut = quantityOut;
+    }
+
+    public BigDecimal getPriceChange() {
+        return priceChange;
+    }
+
+    public void setPriceChange(BigDecimal priceChange) {
+        this.priceChange = priceChange;
+    }
+
+    public Long getPriceChanges() {
+        return priceChanges;
+    }
+
+    public void setPriceChanges(Long priceChanges) {
+        this.priceChanges = priceChanges;
+    }
+
+    public Long getLockCount() {
+        return lockCount;
+    }
+
+    public void setLockCount(Long lockCount) {
+        this.lockCount = lockCount;
+    }
+
+    public Long getLockDurationTotalMs() {
+        return lockDurationTotalMs;
+    }
+
+    public void setLockDurationTotalMs(Long lockDurationTotalMs) {
+        this.lockDurationTotalMs = lockDurationTotalMs;
+    }
+
+    public Long getLockDurationMaxMs() {
+        return lockDurationMaxMs;
+    }
+
+    public void setLockDurationMaxMs(Long lockDurationMaxMs) {
+        this.lockDurationMaxMs = lockDurationMaxMs;
+    }
+
+    public Long getCacheHits() {
+        return cacheHits;
+    }
+
+    public void setCacheHits(Long cacheHits) {
+        this.cacheHits = cacheHits;
+    }
+
+    public Long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public void setCacheMisses(Long cacheMisses) {
+        this.cacheMisses = cacheMisses;
+    }
+
+    public Map<String, Long> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(Map<String, Long> operations) {
+        this.operations = operations;
+    }
+}
@@ -1,6 +1,8 @@
 package com.locknroll.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -10,6 +12,8 @@ import java.util.List;
  * Entity representing parallel processing groups for workflow steps
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PARALLEL_GROUP)
 @Table(name = "parallel_processing_groups")
 public class ParallelProcessingGroup extends BaseEntity {
 
@@ -39,6 +43,7 @@ public class ParallelProcessingGroup extends BaseEntity {
 
     // One-to-many relationship with workflow steps
     @OneToMany(mappedBy = "parallelProcessingGroup", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PARALLEL_GROUP_STEPS)
     private List<WorkflowStep> workflowSteps;
 
     // Constructors
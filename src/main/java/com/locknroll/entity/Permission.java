@@ -1,6 +1,8 @@
 package com.locknroll.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
@@ -11,6 +13,8 @@ import java.util.Set;
  * Permission entity representing system permissions
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PERMISSION)
 @Table(name = "permissions", uniqueConstraints = @UniqueConstraint(columnNames = "name"))
 public class Permission extends BaseEntity {
     
@@ -12,9 +12,27 @@ import java.util.List;
  * Task entity representing individual tasks in a workflow
  */
 @Entity
+@EntityListeners(WorkflowStatusListener.class)
 @Table(name = "tasks")
+@NamedEntityGraph(name = Task.DTO_GRAPH, attributeNodes = {
+        @NamedAttributeNode(value = "workflowStep", subgraph = "step"),
+        @NamedAttributeNode("assignedTo")
+}, subgraphs = @NamedSubgraph(name = "step", attributeNodes = @NamedAttributeNode("assignedRole")))
+@NamedEntityGraph(name = Task.ACCESS_GRAPH, attributeNodes = @NamedAttributeNode(value = "assignedTo", subgraph = "assignee"),
+        subgraphs = @NamedSubgraph(name = "assignee", attributeNodes = @NamedAttributeNode("roles")))
 public class Task extends BaseEntity {
     
+    /**
+     * Fetch plan for TaskService.convertToDto: step, step role and assignee.
+     * workflowInstance is left out; only its id is read, which the proxy already holds.
+     */
+    public static final String DTO_GRAPH = "Task.dto";
+    
+    /**
+     * Fetch plan for RoleBasedAccessControl.canAccessTask: assignee and the assignee's roles
+     */
+    public static final String ACCESS_GRAPH = "Task.access";
+    
     @NotNull(message = "Workflow instance is required")
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "workflow_instance_id", nullable = false)
@@ -63,6 +81,14 @@ public class Task extends BaseEntity {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
     
+    // Set while a user holds the task through the claim queue; an expired claim can be taken by someone else
+    @Column(name = "claim_expires_at")
+    private LocalDateTime claimExpiresAt;
+    
+    // Role whose members may claim the task: the step's role, or the escalation role for escalated tasks
+    @Column(name = "claim_role_name", length = 50)
+    private String claimRoleName;
+    
     // One-to-many relationship with task dependencies
     @OneToMany(mappedBy = "parentTask", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<TaskDependency> dependencies = new ArrayList<>();
@@ -188,6 +214,22 @@ public class Task extends BaseEntity {
         this.isActive = isActive;
     }
     
+    public LocalDateTime getClaimExpiresAt() {
+        return claimExpiresAt;
+    }
+    
+    public void setClaimExpiresAt(LocalDateTime claimExpiresAt) {
+        this.claimExpiresAt = claimExpiresAt;
+    }
+    
+    public String getClaimRoleName() {
+        return claimRoleName;
+    }
+    
+    public void setClaimRoleName(String claimRoleName) {
+        this.claimRoleName = claimRoleName;
+    }
+    
     public List<TaskDependency> getDependencies() {
         return dependencies;
     }
@@ -1,6 +1,8 @@
 package com.locknroll.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
@@ -11,6 +13,8 @@ import java.util.List;
  * Workflow entity representing approval workflows
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.WORKFLOW)
 @Table(name = "workflows", uniqueConstraints = @UniqueConstraint(columnNames = "name"))
 public class Workflow extends BaseEntity {
     
@@ -39,6 +43,7 @@ public class Workflow extends BaseEntity {
     // One-to-many relationship with workflow steps
     @OneToMany(mappedBy = "workflow", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @OrderBy("stepOrder ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.WORKFLOW_STEPS)
     private List<WorkflowStep> steps = new ArrayList<>();
     
     // One-to-many relationship with workflow instances
@@ -1,6 +1,8 @@
 package com.locknroll.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -8,6 +10,8 @@ import jakarta.validation.constraints.NotNull;
  * Entity representing workflow conditions for conditional approvals
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.WORKFLOW_CONDITION)
 @Table(name = "workflow_conditions")
 public class WorkflowCondition extends BaseEntity {
 
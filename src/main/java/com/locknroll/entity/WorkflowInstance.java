@@ -12,6 +12,7 @@ import java.util.List;
  * WorkflowInstance entity representing an instance of a workflow execution
  */
 @Entity
+@EntityListeners(WorkflowStatusListener.class)
 @Table(name = "workflow_instances")
 public class WorkflowInstance extends BaseEntity {
     
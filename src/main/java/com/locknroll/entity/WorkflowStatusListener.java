@@ -0,0 +1,35 @@
+package com.locknroll.entity;
+
+import com.locknroll.service.WorkflowStatusService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Evicts the cached workflow status when a task or workflow instance changes, so every
+ * write path (services, timeout handling, event listeners) keeps the read model honest.
+ * Created by Spring through Hibernate's bean container; the service is resolved lazily
+ * because listeners are built while the EntityManagerFactory is starting.
+ */
+public class WorkflowStatusListener {
+
+    @Autowired
+    private ObjectProvider<WorkflowStatusService> workflowStatusService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void entityChanged(Object entity) {
+        Long workflowInstanceId = null;
+        if (entity instanceof Task task && task.getWorkflowInstance() != null) {
+            workflowInstanceId = task.getWorkflowInstance().getId();
+        } else if (entity instanceof WorkflowInstance workflowInstance) {
+            workflowInstanceId = workflowInstance.getId();
+        }
+        if (workflowInstanceId != null) {
+            workflowStatusService.getObject().evictAfterCommit(workflowInstanceId);
+        }
+    }
+}
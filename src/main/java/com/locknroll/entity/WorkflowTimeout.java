@@ -1,6 +1,8 @@
 package com.locknroll.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
@@ -10,6 +12,8 @@ import java.time.LocalDateTime;
  * Entity representing workflow timeouts
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.WORKFLOW_TIMEOUT)
 @Table(name = "workflow_timeouts")
 public class WorkflowTimeout extends BaseEntity {
 
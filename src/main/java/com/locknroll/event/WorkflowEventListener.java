@@ -7,6 +7,7 @@ import com.locknroll.repository.TaskRepository;
 import com.locknroll.repository.TaskDependencyRepository;
 import com.locknroll.repository.WorkflowInstanceRepository;
 import com.locknroll.service.CacheService;
+import com.locknroll.service.MetricsService;
 import com.locknroll.service.NotificationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,8 +42,12 @@ public class WorkflowEventListener {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private MetricsService metricsService;
+
     @KafkaListener(topics = "workflow-events", groupId = "workflow-listeners")
     public void handleWorkflowEvent(WorkflowEvent event) {
+        metricsService.recordKafkaConsume("workflow-events", event.getTimestamp());
         logger.info("Received workflow event: {} - {}", event.getEventType(), event.getMessage());
         
         switch (event.getEventType()) {
@@ -62,6 +67,7 @@ public class WorkflowEventListener {
 
     @KafkaListener(topics = "task-events", groupId = "task-listeners")
     public void handleTaskEvent(WorkflowEvent event) {
+        metricsService.recordKafkaConsume("task-events", event.getTimestamp());
         logger.info("Received task event: {} - {}", event.getEventType(), event.getMessage());
         
         switch (event.getEventType()) {
@@ -81,6 +87,7 @@ public class WorkflowEventListener {
 
     @KafkaListener(topics = "approval-events", groupId = "approval-listeners")
     public void handleApprovalEvent(WorkflowEvent event) {
+        metricsService.recordKafkaConsume("approval-events", event.getTimestamp());
         logger.info("Received approval event: {} - {}", event.getEventType(), event.getMessage());
         
         switch (event.getEventType()) {
@@ -208,13 +215,16 @@ public class WorkflowEventListener {
                 dependentTask.setUpdatedBy("event-system");
                 taskRepository.save(dependentTask);
                 
-                // Invalidate cache for the assigned user
-                cacheService.evict("user:tasks:" + dependentTask.getAssignedTo().getId());
-                
-                // Send notification to assigned user
-                String assignedUsername = dependentTask.getAssignedTo().getUsername();
-                String message = String.format("Task '%s' is now ready to start (dependencies satisfied)", dependentTask.getTitle());
-                notificationService.sendTaskUpdateNotification(assignedUsername, dependentTask.getTitle(), "READY", message);
+                // Claimable tasks have no assignee to invalidate or notify
+                if (dependentTask.getAssignedTo() != null) {
+                    // Invalidate cache for the assigned user
+                    cacheService.evict("user:tasks:" + dependentTask.getAssignedTo().getId());
+                    
+                    // Send notification to assigned user
+                    String assignedUsername = dependentTask.getAssignedTo().getUsername();
+                    String message = String.format("Task '%s' is now ready to start (dependencies satisfied)", dependentTask.getTitle());
+                    notificationService.sendTaskUpdateNotification(assignedUsername, dependentTask.getTitle(), "READY", message);
+                }
                 
                 logger.info("Event-driven: Activated dependent task: {} - {}", dependentTask.getId(), dependentTask.getTitle());
             } else {
@@ -223,8 +233,10 @@ public class WorkflowEventListener {
                 dependentTask.setUpdatedBy("event-system");
                 taskRepository.save(dependentTask);
                 
-                // Invalidate cache for the assigned user
-                cacheService.evict("user:tasks:" + dependentTask.getAssignedTo().getId());
+                // Invalidate cache for the assigned user (claimable tasks have none)
+                if (dependentTask.getAssignedTo() != null) {
+                    cacheService.evict("user:tasks:" + dependentTask.getAssignedTo().getId());
+                }
                 
                 logger.debug("Event-driven: Task {} is still blocked by other dependencies", dependentTask.getId());
             }
@@ -316,13 +328,16 @@ public class WorkflowEventListener {
             task.setUpdatedBy("event-system");
             taskRepository.save(task);
             
-            // Invalidate cache for the assigned user
-            cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
-            
-            // Send cancellation notification
-            String message = String.format("Task '%s' has been cancelled due to workflow cancellation", task.getTitle());
-            notificationService.sendTaskUpdateNotification(
-                task.getAssignedTo().getUsername(), task.getTitle(), "CANCELLED", message);
+            // Claimable tasks have no assignee to invalidate or notify
+            if (task.getAssignedTo() != null) {
+                // Invalidate cache for the assigned user
+                cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
+                
+                // Send cancellation notification
+                String message = String.format("Task '%s' has been cancelled due to workflow cancellation", task.getTitle());
+                notificationService.sendTaskUpdateNotification(
+                    task.getAssignedTo().getUsername(), task.getTitle(), "CANCELLED", message);
+            }
         }
         
         logger.info("Event-driven: Cancelled {} pending tasks for workflow instance {}", pendingTasks.size(), workflowInstanceId);
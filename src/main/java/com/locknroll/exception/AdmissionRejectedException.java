@@ -0,0 +1,19 @@
+package com.locknroll.exception;
+
+/**
+ * Exception thrown when admission control sheds a request; carries how long
+ * the client should wait before retrying
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
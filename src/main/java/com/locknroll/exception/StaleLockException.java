@@ -0,0 +1,17 @@
+package com.locknroll.exception;
+
+/**
+ * Exception thrown when a write carries a fencing token older than the last one
+ * applied to the resource, i.e. the caller's lock lease expired and another holder
+ * has since taken the lock
+ */
+public class StaleLockException extends RuntimeException {
+    
+    public StaleLockException(String message) {
+        super(message);
+    }
+    
+    public StaleLockException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
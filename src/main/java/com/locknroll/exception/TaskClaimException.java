@@ -0,0 +1,16 @@
+package com.locknroll.exception;
+
+/**
+ * Exception thrown when a user releases or heartbeats a task they do not hold a claim on,
+ * e.g. because their claim expired and another user has since taken the task
+ */
+public class TaskClaimException extends RuntimeException {
+    
+    public TaskClaimException(String message) {
+        super(message);
+    }
+    
+    public TaskClaimException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
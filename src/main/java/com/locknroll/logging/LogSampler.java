@@ -0,0 +1,32 @@
+package com.locknroll.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lets roughly one in every N calls through, for hot-path log lines that would
+ * otherwise dominate log volume. Uses a thread-local random rather than a shared
+ * counter so sampling adds no contention between request threads.
+ */
+public final class LogSampler {
+
+    private final int oneIn;
+
+    private LogSampler(int oneIn) {
+        this.oneIn = oneIn;
+    }
+
+    /**
+     * Sampler that passes about one call in {@code oneIn}; 1 or less passes every call
+     */
+    public static LogSampler oneIn(int oneIn) {
+        return new LogSampler(oneIn);
+    }
+
+    public boolean sample() {
+        return oneIn <= 1 || ThreadLocalRandom.current().nextInt(oneIn) == 0;
+    }
+
+    public int getRate() {
+        return oneIn;
+    }
+}
@@ -0,0 +1,59 @@
+package com.locknroll.logging;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Trace id held in the logging MDC under "traceId" (used by the %X{traceId} log pattern)
+ */
+public final class TraceContext {
+
+    public static final String TRACE_ID = "traceId";
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private static final int MAX_TRACE_ID_LENGTH = 64;
+
+    private TraceContext() {}
+
+    /**
+     * Current trace id, or null outside a traced request
+     */
+    public static String current() {
+        return MDC.get(TRACE_ID);
+    }
+
+    /**
+     * Bind a trace id to this thread, generating one if the given id is missing or malformed
+     */
+    public static String bind(String traceId) {
+        String id = isValid(traceId) ? traceId : newTraceId();
+        MDC.put(TRACE_ID, id);
+        return id;
+    }
+
+    public static void clear() {
+        MDC.remove(TRACE_ID);
+    }
+
+    /**
+     * 16 hex characters from a thread-local random; cheap enough to call per request
+     */
+    public static String newTraceId() {
+        String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    private static boolean isValid(String traceId) {
+        if (traceId == null || traceId.isEmpty() || traceId.length() > MAX_TRACE_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < traceId.length(); i++) {
+            char c = traceId.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package com.locknroll.logging;
+
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Copies the current trace id into an X-Trace-Id record header.
+ * onSend runs on the publishing thread, so the request's MDC is visible here.
+ */
+public class TraceIdProducerInterceptor<K, V> implements ProducerInterceptor<K, V> {
+
+    @Override
+    public ProducerRecord<K, V> onSend(ProducerRecord<K, V> record) {
+        String traceId = TraceContext.current();
+        if (traceId != null && record.headers().lastHeader(TraceContext.TRACE_ID_HEADER) == null) {
+            record.headers().add(TraceContext.TRACE_ID_HEADER, traceId.getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.locknroll.logging;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binds the X-Trace-Id header of each consumed record to the listener thread's MDC,
+ * so listener logs carry the trace id of the request that published the event
+ */
+public class TraceIdRecordInterceptor<K, V> implements RecordInterceptor<K, V> {
+
+    @Override
+    public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        Header header = record.headers().lastHeader(TraceContext.TRACE_ID_HEADER);
+        TraceContext.bind(header != null ? new String(header.value(), StandardCharsets.UTF_8) : null);
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        TraceContext.clear();
+    }
+}
@@ -1,13 +1,18 @@
 package com.locknroll.repository;
 
 import com.locknroll.entity.Fruit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Fruit entity operations
@@ -54,6 +59,11 @@ public interface FruitRepository extends JpaRepository<Fruit, Long> {
      */
     List<Fruit> findByStatus(String status);
     
+    /**
+     * Count fruits by status
+     */
+    long countByStatus(String status);
+    
     /**
      * Find fruits by created by user
      */
@@ -63,4 +73,45 @@ public interface FruitRepository extends JpaRepository<Fruit, Long> {
      * Find fruits by created by user and status
      */
     List<Fruit> findByCreatedByAndStatus(String createdBy, String status);
+    
+    /**
+     * Stream all fruits through a server-side cursor; must be consumed inside a transaction
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT f FROM Fruit f ORDER BY f.id")
+    Stream<Fruit> streamAll();
+    
+    /**
+     * Decrease stock as the holder of fencing token :token; matches no row if the stock is
+     * too low or a newer token has already been applied
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Fruit f SET f.quantity = f.quantity - :quantity, f.fenceToken = :token, " +
+           "f.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE f.id = :id AND f.quantity >= :quantity AND (f.fenceToken IS NULL OR f.fenceToken < :token)")
+    int decrementQuantityFenced(@Param("id") Long id, @Param("quantity") Integer quantity,
+                                @Param("token") Long token);
+    
+    /**
+     * Increase stock as the holder of fencing token :token; matches no row if a newer token has been applied
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Fruit f SET f.quantity = f.quantity + :quantity, f.fenceToken = :token, " +
+           "f.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE f.id = :id AND (f.fenceToken IS NULL OR f.fenceToken < :token)")
+    int incrementQuantityFenced(@Param("id") Long id, @Param("quantity") Integer quantity,
+                                @Param("token") Long token);
+    
+    /**
+     * Record fencing token :token on the row before a read-modify-write; the row stays locked
+     * until the transaction ends, so later writes in the same transaction are covered.
+     * Matches no row if a newer token has been applied
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Fruit f SET f.fenceToken = :token " +
+           "WHERE f.id = :id AND (f.fenceToken IS NULL OR f.fenceToken < :token)")
+    int claimFence(@Param("id") Long id, @Param("token") Long token);
 }
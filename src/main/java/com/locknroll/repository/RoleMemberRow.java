@@ -0,0 +1,13 @@
+package com.locknroll.repository;
+
+/**
+ * One active user holding one role, the minimum needed to assign and notify
+ */
+public interface RoleMemberRow {
+
+    String getRoleName();
+
+    Long getUserId();
+
+    String getUsername();
+}
@@ -2,13 +2,23 @@ package com.locknroll.repository;
 
 import com.locknroll.entity.Task;
 import com.locknroll.entity.TaskDependency;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Task entity
@@ -16,6 +26,69 @@ import java.util.Optional;
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
     
+    /**
+     * Shared select/join clause for TaskSummaryView projections
+     */
+    String TASK_SUMMARY_SELECT =
+            "SELECT t.id AS id, t.title AS title, t.description AS description, t.status AS status, " +
+            "t.priority AS priority, t.createdBy AS createdBy, t.updatedBy AS updatedBy, t.createdAt AS createdAt, " +
+            "t.workflowInstance.id AS workflowInstanceId, ws.id AS workflowStepId, ws.name AS workflowStepName, " +
+            "r.id AS assignedRoleId, r.name AS assignedRoleName, " +
+            "u.id AS assignedToId, u.username AS assignedToUsername, " +
+            "u.firstName AS assignedToFirstName, u.lastName AS assignedToLastName " +
+            "FROM Task t LEFT JOIN t.workflowStep ws LEFT JOIN ws.assignedRole r LEFT JOIN t.assignedTo u ";
+    
+    /**
+     * Keyset predicate and ordering on (created_at, id)
+     */
+    String TASK_KEYSET_ORDER =
+            "AND (t.createdAt > :afterCreatedAt OR (t.createdAt = :afterCreatedAt AND t.id > :afterId)) " +
+            "ORDER BY t.createdAt ASC, t.id ASC";
+    
+    /**
+     * Keyset page of task summaries assigned to a user
+     */
+    @Query(TASK_SUMMARY_SELECT + "WHERE u.id = :userId " + TASK_KEYSET_ORDER)
+    List<TaskSummaryView> findSummariesByAssignedToId(@Param("userId") Long userId,
+                                                      @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                      @Param("afterId") Long afterId,
+                                                      Pageable pageable);
+    
+    /**
+     * Keyset page of pending task summaries for a role
+     */
+    @Query(TASK_SUMMARY_SELECT + "WHERE r.id = :roleId AND t.status = 'PENDING' " + TASK_KEYSET_ORDER)
+    List<TaskSummaryView> findPendingSummariesByRole(@Param("roleId") Long roleId,
+                                                     @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable pageable);
+    
+    /**
+     * Keyset page of task summaries for a workflow instance
+     */
+    @Query(TASK_SUMMARY_SELECT + "WHERE t.workflowInstance.id = :workflowInstanceId " + TASK_KEYSET_ORDER)
+    List<TaskSummaryView> findSummariesByWorkflowInstanceId(@Param("workflowInstanceId") Long workflowInstanceId,
+                                                            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                            @Param("afterId") Long afterId,
+                                                            Pageable pageable);
+    
+    /**
+     * Task counts per status for a workflow instance
+     */
+    @Query("SELECT t.status AS status, COUNT(t) AS count FROM Task t " +
+           "WHERE t.workflowInstance.id = :workflowInstanceId GROUP BY t.status")
+    List<TaskStatusCount> countByStatusForWorkflowInstance(@Param("workflowInstanceId") Long workflowInstanceId);
+    
+    /**
+     * Stream all task summaries through a server-side cursor; must be consumed inside a transaction
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(TASK_SUMMARY_SELECT + "ORDER BY t.id")
+    Stream<TaskSummaryView> streamAllSummaries();
+    
     /**
      * Find tasks by workflow instance ID
      */
@@ -41,6 +114,65 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
      */
     List<Task> findByWorkflowStepIdOrderByCreatedAt(Long workflowStepId);
     
+    /**
+     * Lock up to limit claimable tasks for the given roles, oldest first: unassigned ready tasks and
+     * tasks whose claim expired. A task belongs to the queue of its claim role (escalated tasks to
+     * the escalation role). Rows locked by another claimer are skipped instead of waited on, so
+     * concurrent claimers each get a different batch.
+     */
+    @Query(value = "SELECT t.* FROM tasks t " +
+                   "WHERE t.claim_role_name IN (:roleNames) " +
+                   "AND t.is_active = true AND t.is_deleted = false " +
+                   "AND ((t.assigned_to_id IS NULL AND t.status = 'READY') " +
+                   "OR (t.claim_expires_at < :now AND t.status IN ('READY', 'IN_PROGRESS'))) " +
+                   "ORDER BY t.created_at " +
+                   "LIMIT :limit " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Task> lockClaimableTasks(@Param("roleNames") Collection<String> roleNames,
+                                  @Param("now") LocalDateTime now,
+                                  @Param("limit") int limit);
+    
+    /**
+     * Find a task and lock its row until the end of the transaction
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Task t WHERE t.id = :id")
+    Optional<Task> findByIdForUpdate(@Param("id") Long id);
+    
+    /**
+     * Find a task with the DTO fetch plan
+     */
+    @EntityGraph(Task.DTO_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.id = :id")
+    Optional<Task> findForDtoById(@Param("id") Long id);
+    
+    /**
+     * Find tasks by status with the DTO fetch plan, oldest first
+     */
+    @EntityGraph(Task.DTO_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.status = :status ORDER BY t.createdAt ASC")
+    List<Task> findForDtoByStatus(@Param("status") String status);
+    
+    /**
+     * Find tasks assigned to a user with the DTO fetch plan, oldest first
+     */
+    @EntityGraph(Task.DTO_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.assignedTo.id = :userId ORDER BY t.createdAt ASC")
+    List<Task> findForDtoByAssignedToId(@Param("userId") Long userId);
+    
+    /**
+     * Find the tasks of a workflow instance with the access-check fetch plan
+     */
+    @EntityGraph(Task.ACCESS_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.workflowInstance.id = :workflowInstanceId")
+    List<Task> findForAccessCheckByWorkflowInstanceId(@Param("workflowInstanceId") Long workflowInstanceId);
+    
+    /**
+     * Count tasks by status
+     */
+    long countByStatus(String status);
+    
     /**
      * Find tasks by status
      */
@@ -49,12 +181,14 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     /**
      * Find pending tasks for a user
      */
+    @EntityGraph(Task.DTO_GRAPH)
     @Query("SELECT t FROM Task t WHERE t.assignedTo.id = :userId AND t.status = 'PENDING' ORDER BY t.createdAt ASC")
     List<Task> findPendingTasksForUser(@Param("userId") Long userId);
     
     /**
      * Find completed tasks for a user
      */
+    @EntityGraph(Task.DTO_GRAPH)
     @Query("SELECT t FROM Task t WHERE t.assignedTo.id = :userId AND t.status = 'COMPLETED' ORDER BY t.completedAt DESC")
     List<Task> findCompletedTasksForUser(@Param("userId") Long userId);
     
@@ -70,6 +204,14 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     @Query("SELECT COUNT(t) FROM Task t WHERE t.assignedTo.id = :userId AND t.status = 'PENDING'")
     long countPendingTasksForUser(@Param("userId") Long userId);
     
+    /**
+     * Open (not yet finished) task counts for each of the given users; users without open tasks are omitted
+     */
+    @Query("SELECT t.assignedTo.id AS userId, COUNT(t) AS count FROM Task t " +
+           "WHERE t.assignedTo.id IN :userIds AND t.status IN ('PENDING', 'READY', 'BLOCKED', 'IN_PROGRESS') " +
+           "GROUP BY t.assignedTo.id")
+    List<UserTaskCount> countOpenTasksByUser(@Param("userIds") Collection<Long> userIds);
+    
     /**
      * Find tasks by status
      */
@@ -89,6 +231,7 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     /**
      * Find tasks that are ready to be started (all dependencies completed)
      */
+    @EntityGraph(Task.DTO_GRAPH)
     @Query("SELECT t FROM Task t WHERE t.workflowInstance.id = :workflowInstanceId AND t.status = 'PENDING' AND " +
            "NOT EXISTS (SELECT 1 FROM TaskDependency td WHERE td.dependentTask.id = t.id AND td.parentTask.status != 'COMPLETED')")
     List<Task> findReadyTasks(@Param("workflowInstanceId") Long workflowInstanceId);
@@ -96,6 +239,7 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     /**
      * Find tasks that are blocked by dependencies
      */
+    @EntityGraph(Task.DTO_GRAPH)
     @Query("SELECT t FROM Task t WHERE t.workflowInstance.id = :workflowInstanceId AND t.status = 'PENDING' AND " +
            "EXISTS (SELECT 1 FROM TaskDependency td WHERE td.dependentTask.id = t.id AND td.parentTask.status != 'COMPLETED')")
     List<Task> findBlockedTasks(@Param("workflowInstanceId") Long workflowInstanceId);
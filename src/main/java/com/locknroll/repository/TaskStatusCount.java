@@ -0,0 +1,11 @@
+package com.locknroll.repository;
+
+/**
+ * Number of tasks in one status, from a GROUP BY over tasks
+ */
+public interface TaskStatusCount {
+
+    String getStatus();
+
+    Long getCount();
+}
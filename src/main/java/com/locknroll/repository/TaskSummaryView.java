@@ -0,0 +1,44 @@
+package com.locknroll.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection of a task with the columns TaskDto needs,
+ * selected in a single joined query instead of lazy-loading associations
+ */
+public interface TaskSummaryView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getStatus();
+
+    String getPriority();
+
+    String getCreatedBy();
+
+    String getUpdatedBy();
+
+    LocalDateTime getCreatedAt();
+
+    Long getWorkflowInstanceId();
+
+    Long getWorkflowStepId();
+
+    String getWorkflowStepName();
+
+    Long getAssignedRoleId();
+
+    String getAssignedRoleName();
+
+    Long getAssignedToId();
+
+    String getAssignedToUsername();
+
+    String getAssignedToFirstName();
+
+    String getAssignedToLastName();
+}
@@ -17,15 +17,15 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     
     /**
-     * Find user by username with roles eagerly fetched
+     * Find user by username with roles and their permissions eagerly fetched
      */
-    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles WHERE u.username = :username")
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles r LEFT JOIN FETCH r.permissions WHERE u.username = :username")
     Optional<User> findByUsernameWithRoles(@Param("username") String username);
     
     /**
-     * Find user by email with roles eagerly fetched
+     * Find user by email with roles and their permissions eagerly fetched
      */
-    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles WHERE u.email = :email")
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles r LEFT JOIN FETCH r.permissions WHERE u.email = :email")
     Optional<User> findByEmailWithRoles(@Param("email") String email);
     
     /**
@@ -64,6 +64,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u JOIN u.roles r WHERE r.name = :roleName AND u.isActive = true")
     List<User> findByRoleName(@Param("roleName") String roleName);
     
+    /**
+     * Memberships of active users in active roles, as (role, user id, username) rows
+     */
+    @Query("SELECT r.name AS roleName, u.id AS userId, u.username AS username FROM User u JOIN u.roles r " +
+           "WHERE u.isActive = true AND r.isActive = true ORDER BY r.name, u.id")
+    List<RoleMemberRow> findActiveRoleMemberships();
+    
     /**
      * Find users by role
      */
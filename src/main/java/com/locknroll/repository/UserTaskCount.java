@@ -0,0 +1,11 @@
+package com.locknroll.repository;
+
+/**
+ * Number of tasks assigned to one user, from a GROUP BY over tasks
+ */
+public interface UserTaskCount {
+
+    Long getUserId();
+
+    Long getCount();
+}
@@ -47,6 +47,12 @@ public interface WorkflowInstanceRepository extends JpaRepository<WorkflowInstan
     @Query("SELECT wi FROM WorkflowInstance wi WHERE wi.status IN ('COMPLETED', 'REJECTED', 'CANCELLED') ORDER BY wi.completedAt DESC")
     List<WorkflowInstance> findCompletedWorkflowInstances();
     
+    /**
+     * Count completed workflow instances
+     */
+    @Query("SELECT COUNT(wi) FROM WorkflowInstance wi WHERE wi.status IN ('COMPLETED', 'REJECTED', 'CANCELLED')")
+    long countCompletedWorkflowInstances();
+    
     /**
      * Count active workflow instances
      */
@@ -1,8 +1,11 @@
 package com.locknroll.repository;
 
 import com.locknroll.entity.Workflow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -18,6 +21,7 @@ public interface WorkflowRepository extends JpaRepository<Workflow, Long> {
     /**
      * Find workflow by name
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Workflow> findByName(String name);
     
     /**
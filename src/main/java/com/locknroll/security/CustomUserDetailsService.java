@@ -1,5 +1,7 @@
 package com.locknroll.security;
 
+import com.locknroll.entity.Permission;
+import com.locknroll.entity.Role;
 import com.locknroll.entity.User;
 import com.locknroll.repository.UserRepository;
 import org.slf4j.Logger;
@@ -13,8 +15,10 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -33,7 +37,7 @@ public class CustomUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
         logger.debug("Loading user details for usernameOrEmail: {}", usernameOrEmail);
         
-        // Try to find by username first, then by email (with roles eagerly fetched)
+        // Try to find by username first, then by email (with roles and permissions eagerly fetched)
         User user = userRepository.findByUsernameWithRoles(usernameOrEmail)
                 .or(() -> userRepository.findByEmailWithRoles(usernameOrEmail))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username or email: " + usernameOrEmail));
@@ -46,37 +50,127 @@ public class CustomUserDetailsService implements UserDetailsService {
     }
 
     /**
-     * Custom UserDetails implementation
+     * Custom UserDetails implementation.
+     * Authorities, role bits and permission names are computed once here so that
+     * every later RBAC check is a constant-time lookup.
+     * A principal is either backed by a loaded {@link User} or rebuilt from the
+     * claims of a stateless JWT, in which case {@link #getUser()} returns null.
      */
     public static class CustomUserPrincipal implements UserDetails {
         private final User user;
+        private final Long userId;
+        private final String username;
+        private final String email;
+        private final String fullName;
+        private final boolean enabled;
+        private final int roleMask;
+        private final List<String> roleNames;
+        private final Set<String> permissions;
+        private final List<GrantedAuthority> authorities;
 
         public CustomUserPrincipal(User user) {
+            this(user, user.getId(), user.getUsername(), user.getEmail(),
+                 user.getFirstName() + " " + user.getLastName(), user.getIsActive(),
+                 user.getRoles().stream().map(Role::getName).collect(Collectors.toList()),
+                 user.getRoles().stream()
+                         .flatMap(role -> role.getPermissions().stream())
+                         .map(Permission::getName)
+                         .collect(Collectors.toSet()));
+        }
+
+        /**
+         * Build a principal from token claims without touching the database
+         */
+        public CustomUserPrincipal(Long userId, String username, String email, String fullName,
+                                   Collection<String> roleNames, Collection<String> permissions) {
+            this(null, userId, username, email, fullName, true, roleNames, permissions);
+        }
+
+        private CustomUserPrincipal(User user, Long userId, String username, String email, String fullName,
+                                    boolean enabled, Collection<String> roleNames, Collection<String> permissions) {
             this.user = user;
+            this.userId = userId;
+            this.username = username;
+            this.email = email;
+            this.fullName = fullName;
+            this.enabled = enabled;
+
+            int mask = 0;
+            List<String> names = new ArrayList<>();
+            for (String rawName : roleNames) {
+                // Role names may carry a "_ROLE" suffix; strip it to avoid ROLE_X_ROLE authorities
+                String roleName = SystemRole.normalize(rawName);
+                names.add(roleName);
+                SystemRole systemRole = SystemRole.fromName(roleName);
+                if (systemRole != null) {
+                    mask |= systemRole.bit();
+                }
+            }
+            this.roleMask = mask;
+            this.roleNames = List.copyOf(names);
+            this.permissions = permissions != null ? Set.copyOf(permissions) : Set.of();
+            this.authorities = names.stream()
+                    .map(roleName -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + roleName))
+                    .collect(Collectors.toUnmodifiableList());
         }
 
         @Override
         public Collection<? extends GrantedAuthority> getAuthorities() {
-            return user.getRoles().stream()
-                    .map(role -> {
-                        String roleName = role.getName();
-                        // If role name already ends with _ROLE, remove it to avoid duplication
-                        if (roleName.endsWith("_ROLE")) {
-                            roleName = roleName.substring(0, roleName.length() - 5);
-                        }
-                        return new SimpleGrantedAuthority("ROLE_" + roleName);
-                    })
-                    .collect(Collectors.toList());
+            return authorities;
+        }
+
+        /**
+         * Check a single system role with a bit test
+         */
+        public boolean hasRole(SystemRole role) {
+            return (roleMask & role.bit()) != 0;
+        }
+
+        /**
+         * Check whether any of the roles in the given mask is held
+         */
+        public boolean hasAnyRole(int mask) {
+            return (roleMask & mask) != 0;
+        }
+
+        /**
+         * Check a role by name, including roles outside {@link SystemRole}
+         */
+        public boolean hasRoleName(String roleName) {
+            SystemRole systemRole = SystemRole.fromName(roleName);
+            if (systemRole != null) {
+                return hasRole(systemRole);
+            }
+            return roleNames.contains(SystemRole.normalize(roleName));
+        }
+
+        public boolean hasPermission(String permissionName) {
+            return permissions.contains(permissionName);
+        }
+
+        public int getRoleMask() {
+            return roleMask;
+        }
+
+        /**
+         * Role names without "ROLE_" prefix or "_ROLE" suffix
+         */
+        public List<String> getRoleNames() {
+            return roleNames;
+        }
+
+        public Set<String> getPermissions() {
+            return permissions;
         }
 
         @Override
         public String getPassword() {
-            return user.getPassword();
+            return user != null ? user.getPassword() : null;
         }
 
         @Override
         public String getUsername() {
-            return user.getUsername();
+            return username;
         }
 
         @Override
@@ -96,7 +190,7 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         @Override
         public boolean isEnabled() {
-            return user.getIsActive();
+            return enabled;
         }
 
         public User getUser() {
@@ -104,19 +198,19 @@ public class CustomUserDetailsService implements UserDetailsService {
         }
 
         public Long getUserId() {
-            return user.getId();
+            return userId;
         }
 
         public Long getId() {
-            return user.getId();
+            return userId;
         }
 
         public String getEmail() {
-            return user.getEmail();
+            return email;
         }
 
         public String getFullName() {
-            return user.getFirstName() + " " + user.getLastName();
+            return fullName;
         }
     }
 }
@@ -1,6 +1,7 @@
 package com.locknroll.security;
 
 import com.locknroll.security.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -36,11 +37,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
-            // Skip JWT processing for authentication endpoints and actuator endpoints
+            // Skip JWT processing for authentication endpoints and the public actuator endpoints;
+            // the other actuator endpoints (metrics, redis) need an admin token
             String requestPath = request.getRequestURI();
             logger.debug("JWT Filter processing request: {}", requestPath);
             
-            if (requestPath.startsWith("/api/auth/") || requestPath.startsWith("/actuator/")) {
+            if (requestPath.startsWith("/api/auth/") || requestPath.equals("/actuator/health")
+                    || requestPath.equals("/actuator/info") || requestPath.equals("/actuator/prometheus")) {
                 logger.debug("Skipping JWT processing for path: {}", requestPath);
                 filterChain.doFilter(request, response);
                 return;
@@ -49,11 +52,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
             logger.debug("JWT token found: {}", jwt != null ? "Yes" : "No");
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseClaims(jwt) : null;
+            if (claims != null) {
+                String username = claims.getSubject();
                 logger.debug("JWT token valid for user: {}", username);
 
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+                // Stateless tokens rebuild the principal from claims; otherwise load it from the database
+                UserDetails userDetails = tokenProvider.getPrincipalFromClaims(claims);
+                if (userDetails == null) {
+                    userDetails = customUserDetailsService.loadUserByUsername(username);
+                }
                 logger.debug("User details loaded, authorities: {}", userDetails.getAuthorities());
                 
                 UsernamePasswordAuthenticationToken authentication = 
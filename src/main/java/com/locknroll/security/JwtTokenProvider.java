@@ -1,16 +1,22 @@
 package com.locknroll.security;
 
+import com.locknroll.security.CustomUserDetailsService.CustomUserPrincipal;
+import com.locknroll.service.UserVersionService;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 /**
  * JWT Token Provider for generating and validating JWT tokens
@@ -34,15 +40,49 @@ public class JwtTokenProvider {
     @Value("${app.jwt.expiration:86400000}") // 24 hours in milliseconds
     private int jwtExpirationInMs;
 
+    // When enabled, tokens carry roles/permissions so requests can be authenticated without a DB lookup
+    @Value("${app.jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
+
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_VERSION = "ver";
+    private static final String CLAIM_ROLES = "rol";
+    private static final String CLAIM_PERMISSIONS = "prm";
+    private static final String CLAIM_EMAIL = "eml";
+    private static final String CLAIM_FULL_NAME = "nam";
+
+    @Autowired
+    private UserVersionService userVersionService;
+
     /**
      * Generate JWT token from authentication
      */
     public String generateToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        if (userPrincipal instanceof CustomUserPrincipal) {
+            return generateToken((CustomUserPrincipal) userPrincipal);
+        }
+        return generateTokenFromUsername(userPrincipal.getUsername());
+    }
+
+    /**
+     * Generate JWT token for a principal, embedding role and permission claims in stateless mode
+     */
+    public String generateToken(CustomUserPrincipal userPrincipal) {
+        if (!statelessPrincipal) {
+            return generateTokenFromUsername(userPrincipal.getUsername());
+        }
+
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
 
         return Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
+                .claim(CLAIM_USER_ID, userPrincipal.getUserId())
+                .claim(CLAIM_VERSION, userVersionService.getVersion(userPrincipal.getUserId()))
+                .claim(CLAIM_ROLES, userPrincipal.getRoleNames())
+                .claim(CLAIM_PERMISSIONS, userPrincipal.getPermissions())
+                .claim(CLAIM_EMAIL, userPrincipal.getEmail())
+                .claim(CLAIM_FULL_NAME, userPrincipal.getFullName())
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
                 .signWith(getSigningKey(), SignatureAlgorithm.HS512)
@@ -80,12 +120,19 @@ public class JwtTokenProvider {
      * Validate JWT token
      */
     public boolean validateToken(String authToken) {
+        return parseClaims(authToken) != null;
+    }
+
+    /**
+     * Parse and validate a JWT token in one pass, returning null if it is invalid
+     */
+    public Claims parseClaims(String authToken) {
         try {
-            Jwts.parserBuilder()
+            return Jwts.parserBuilder()
                 .setSigningKey(getSigningKey())
                 .build()
-                .parseClaimsJws(authToken);
-            return true;
+                .parseClaimsJws(authToken)
+                .getBody();
         } catch (SecurityException ex) {
             logger.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -97,7 +144,46 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             logger.error("JWT claims string is empty");
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * Rebuild a principal from stateless token claims.
+     * Returns null when stateless mode is off, the token carries no principal
+     * claims, or the user's version has been bumped since the token was issued;
+     * callers then fall back to loading the user from the database.
+     */
+    public CustomUserPrincipal getPrincipalFromClaims(Claims claims) {
+        if (!statelessPrincipal || claims.get(CLAIM_USER_ID) == null) {
+            return null;
+        }
+
+        Long userId = claims.get(CLAIM_USER_ID, Number.class).longValue();
+        Number tokenVersion = claims.get(CLAIM_VERSION, Number.class);
+        if (tokenVersion == null || tokenVersion.longValue() != userVersionService.getVersion(userId)) {
+            logger.debug("Stale token version for user {}", userId);
+            return null;
+        }
+
+        return new CustomUserPrincipal(
+                userId,
+                claims.getSubject(),
+                claims.get(CLAIM_EMAIL, String.class),
+                claims.get(CLAIM_FULL_NAME, String.class),
+                getStringList(claims, CLAIM_ROLES),
+                getStringList(claims, CLAIM_PERMISSIONS));
+    }
+
+    private List<String> getStringList(Claims claims, String name) {
+        Object value = claims.get(name);
+        if (!(value instanceof Collection)) {
+            return List.of();
+        }
+        List<String> values = new ArrayList<>();
+        for (Object item : (Collection<?>) value) {
+            values.add(String.valueOf(item));
+        }
+        return values;
     }
 
     /**
@@ -108,6 +194,13 @@ public class JwtTokenProvider {
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
+    /**
+     * Whether tokens carry principal claims
+     */
+    public boolean isStatelessPrincipal() {
+        return statelessPrincipal;
+    }
+
     /**
      * Get expiration time in milliseconds
      */
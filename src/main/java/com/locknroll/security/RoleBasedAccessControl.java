@@ -5,15 +5,16 @@ import com.locknroll.entity.User;
 import com.locknroll.entity.Task;
 import com.locknroll.entity.WorkflowInstance;
 import com.locknroll.entity.Fruit;
+import com.locknroll.repository.TaskRepository;
 import com.locknroll.security.CustomUserDetailsService.CustomUserPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Role-based access control utility class
@@ -23,6 +24,9 @@ public class RoleBasedAccessControl {
 
     private static final Logger logger = LoggerFactory.getLogger(RoleBasedAccessControl.class);
 
+    @Autowired
+    private TaskRepository taskRepository;
+
     /**
      * Get current authenticated user
      */
@@ -34,6 +38,11 @@ public class RoleBasedAccessControl {
         return null;
     }
 
+    private static final int ADMIN_OR_BACKOFFICE = SystemRole.ADMIN.bit() | SystemRole.BACKOFFICE.bit();
+
+    private static final int APPROVER_ROLES =
+            SystemRole.MANAGER.bit() | SystemRole.FINANCE.bit() | SystemRole.QUALITY.bit();
+
     /**
      * Check if current user has specific role
      */
@@ -41,8 +50,7 @@ public class RoleBasedAccessControl {
         CustomUserPrincipal user = getCurrentUser();
         if (user == null) return false;
         
-        return user.getAuthorities().stream()
-                .anyMatch(authority -> authority.getAuthority().equals("ROLE_" + roleName));
+        return user.hasRoleName(roleName);
     }
 
     /**
@@ -52,44 +60,67 @@ public class RoleBasedAccessControl {
         CustomUserPrincipal user = getCurrentUser();
         if (user == null) return false;
         
-        List<String> userRoles = user.getAuthorities().stream()
-                .map(authority -> authority.getAuthority().replace("ROLE_", ""))
-                .collect(Collectors.toList());
-        
+        if (user.hasAnyRole(SystemRole.maskOf(roleNames))) {
+            return true;
+        }
+        // Fall back to name lookup only for roles outside the known set
         for (String roleName : roleNames) {
-            if (userRoles.contains(roleName)) {
+            if (SystemRole.fromName(roleName) == null && user.hasRoleName(roleName)) {
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Check if current user has a specific permission
+     */
+    public boolean hasPermission(String permissionName) {
+        CustomUserPrincipal user = getCurrentUser();
+        return user != null && user.hasPermission(permissionName);
+    }
+
     /**
      * Check if current user is admin
      */
     public boolean isAdmin() {
-        return hasRole("ADMIN");
+        return hasSystemRoles(SystemRole.ADMIN.bit());
     }
 
     /**
      * Check if current user is back office user
      */
     public boolean isBackOffice() {
-        return hasRole("BACKOFFICE");
+        return hasSystemRoles(SystemRole.BACKOFFICE.bit());
     }
 
     /**
      * Check if current user is seller
      */
     public boolean isSeller() {
-        return hasRole("SELLER");
+        return hasSystemRoles(SystemRole.SELLER.bit());
     }
 
     /**
      * Check if current user is approver (Manager, Finance, or Quality)
      */
     public boolean isApprover() {
-        return hasAnyRole("MANAGER", "FINANCE", "QUALITY");
+        return hasSystemRoles(APPROVER_ROLES);
+    }
+
+    /**
+     * Check if current user is admin or back office
+     */
+    public boolean isAdminOrBackOffice() {
+        return hasSystemRoles(ADMIN_OR_BACKOFFICE);
+    }
+
+    /**
+     * Bit test of the current principal against a role mask
+     */
+    private boolean hasSystemRoles(int mask) {
+        CustomUserPrincipal user = getCurrentUser();
+        return user != null && user.hasAnyRole(mask);
     }
 
     /**
@@ -100,7 +131,7 @@ public class RoleBasedAccessControl {
         if (user == null) return false;
         
         // Admin and BackOffice can access all tasks
-        if (isAdmin() || isBackOffice()) {
+        if (user.hasAnyRole(ADMIN_OR_BACKOFFICE)) {
             return true;
         }
         
@@ -110,18 +141,17 @@ public class RoleBasedAccessControl {
         }
         
         // Approvers can access tasks assigned to their role
-        if (isApprover() && task.getAssignedTo() != null) {
+        if (user.hasAnyRole(APPROVER_ROLES) && task.getAssignedTo() != null) {
             User assignedUser = task.getAssignedTo();
-            List<String> assignedUserRoles = assignedUser.getRoles().stream()
-                    .map(Role::getName)
-                    .collect(Collectors.toList());
             
             // Check if assigned user has same role as current user
-            List<String> currentUserRoles = user.getAuthorities().stream()
-                    .map(authority -> authority.getAuthority().replace("ROLE_", ""))
-                    .collect(Collectors.toList());
-            
-            return assignedUserRoles.stream().anyMatch(currentUserRoles::contains);
+            if (user.hasAnyRole(SystemRole.maskOfRoles(assignedUser.getRoles()))) {
+                return true;
+            }
+            return assignedUser.getRoles().stream()
+                    .map(Role::getName)
+                    .filter(roleName -> SystemRole.fromName(roleName) == null)
+                    .anyMatch(user::hasRoleName);
         }
         
         return false;
@@ -135,7 +165,7 @@ public class RoleBasedAccessControl {
         if (user == null) return false;
         
         // Admin and BackOffice can access all workflow instances
-        if (isAdmin() || isBackOffice()) {
+        if (user.hasAnyRole(ADMIN_OR_BACKOFFICE)) {
             return true;
         }
         
@@ -148,7 +178,8 @@ public class RoleBasedAccessControl {
         
         // Approvers can access workflow instances they're involved in
         if (isApprover()) {
-            return workflowInstance.getTasks().stream()
+            // Load assignees and their roles up front; canAccessTask walks both for every task
+            return taskRepository.findForAccessCheckByWorkflowInstanceId(workflowInstance.getId()).stream()
                     .anyMatch(task -> canAccessTask(task));
         }
         
@@ -163,7 +194,7 @@ public class RoleBasedAccessControl {
         if (user == null) return false;
         
         // Admin and BackOffice can access all fruits
-        if (isAdmin() || isBackOffice()) {
+        if (user.hasAnyRole(ADMIN_OR_BACKOFFICE)) {
             return true;
         }
         
@@ -190,7 +221,7 @@ public class RoleBasedAccessControl {
         if (user == null) return false;
         
         // Admin and BackOffice can modify all fruits
-        if (isAdmin() || isBackOffice()) {
+        if (user.hasAnyRole(ADMIN_OR_BACKOFFICE)) {
             return true;
         }
         
@@ -231,9 +262,7 @@ public class RoleBasedAccessControl {
         CustomUserPrincipal user = getCurrentUser();
         if (user == null) return List.of();
         
-        return user.getAuthorities().stream()
-                .map(authority -> authority.getAuthority().replace("ROLE_", ""))
-                .collect(Collectors.toList());
+        return user.getRoleNames();
     }
 
     /**
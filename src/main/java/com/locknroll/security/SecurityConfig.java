@@ -1,5 +1,6 @@
 package com.locknroll.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -59,9 +60,14 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .anonymous(anonymous -> anonymous.disable())
             .authorizeHttpRequests(authz -> authz
+                // Async re-dispatch of already-authorized streaming responses
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                
                 // Public endpoints - must come first
                 .requestMatchers("/api/auth/login", "/api/auth/register", "/api/auth/test").permitAll()
                 .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                // Scraped without a token; keep it off the public network (see management.server.port)
+                .requestMatchers("/actuator/prometheus").permitAll()
                 .requestMatchers("/error").permitAll()
                 
                 // Admin endpoints
@@ -71,6 +77,9 @@ public class SecurityConfig {
                 .requestMatchers("/api/workflows/**").hasAnyRole("ADMIN", "BACKOFFICE")
                 .requestMatchers("/api/workflow-instances/**").hasAnyRole("ADMIN", "BACKOFFICE")
                 .requestMatchers("/api/tasks/**").hasAnyRole("ADMIN", "BACKOFFICE", "MANAGER", "FINANCE", "QUALITY")
+                .requestMatchers("/api/export/**").hasAnyRole("ADMIN", "BACKOFFICE")
+                .requestMatchers("/api/analytics/**").hasAnyRole("ADMIN", "BACKOFFICE")
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 
                 // Seller endpoints
                 .requestMatchers("/api/fruits/**").hasAnyRole("ADMIN", "BACKOFFICE", "SELLER")
@@ -0,0 +1,83 @@
+package com.locknroll.security;
+
+import com.locknroll.entity.Role;
+
+import java.util.Collection;
+
+/**
+ * Well-known system roles, each mapped to a single bit so that role checks
+ * against a principal are plain mask tests instead of authority string scans
+ */
+public enum SystemRole {
+    ADMIN,
+    BACKOFFICE,
+    SELLER,
+    MANAGER,
+    FINANCE,
+    QUALITY;
+
+    private static final String ROLE_SUFFIX = "_ROLE";
+
+    private final int bit = 1 << ordinal();
+
+    public int bit() {
+        return bit;
+    }
+
+    /**
+     * Strip the optional "_ROLE" suffix used by some seeded role names
+     */
+    public static String normalize(String roleName) {
+        if (roleName != null && roleName.endsWith(ROLE_SUFFIX)) {
+            return roleName.substring(0, roleName.length() - ROLE_SUFFIX.length());
+        }
+        return roleName;
+    }
+
+    /**
+     * Resolve a role name (with or without "_ROLE" suffix), or null if it is not a system role
+     */
+    public static SystemRole fromName(String roleName) {
+        String normalized = normalize(roleName);
+        if (normalized == null) {
+            return null;
+        }
+        for (SystemRole role : values()) {
+            if (role.name().equals(normalized)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Bit mask for the given role names; unknown names contribute nothing
+     */
+    public static int maskOf(String... roleNames) {
+        int mask = 0;
+        for (String roleName : roleNames) {
+            SystemRole role = fromName(roleName);
+            if (role != null) {
+                mask |= role.bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Bit mask for a collection of role entities
+     */
+    public static int maskOfRoles(Collection<Role> roles) {
+        int mask = 0;
+        if (roles == null) {
+            return mask;
+        }
+        for (Role role : roles) {
+            SystemRole systemRole = fromName(role.getName());
+            if (systemRole != null) {
+                mask |= systemRole.bit;
+            }
+        }
+        return mask;
+    }
+}
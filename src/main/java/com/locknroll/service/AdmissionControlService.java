@@ -0,0 +1,105 @@
+package com.locknroll.service;
+
+import com.locknroll.exception.AdmissionRejectedException;
+import org.redisson.api.RPermitExpirableSemaphore;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Distributed admission control for hot endpoints.
+ * 
+ * Each resource (e.g. "fruit:purchase:42") gets a cluster-wide RPermitExpirableSemaphore that
+ * bounds how many requests may be inside, waiting on or holding its lock at once. Requests beyond
+ * that are rejected after a short wait with a retry-after hint instead of tying up a server thread
+ * for the full lock wait. Permits expire after lease-ms, so a node that dies mid-request does not
+ * leak capacity.
+ * 
+ * The permit count is set the first time a semaphore is used; changing max-concurrent only
+ * affects resources whose semaphore does not exist yet in Redis.
+ */
+@Service
+public class AdmissionControlService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlService.class);
+    
+    private static final String KEY_PREFIX = "admission:";
+    
+    @Autowired
+    private RedissonClient redissonClient;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Value("${app.admission.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.admission.max-concurrent:16}")
+    private int maxConcurrent;
+    
+    @Value("${app.admission.wait-ms:50}")
+    private long waitMs;
+    
+    @Value("${app.admission.lease-ms:30000}")
+    private long leaseMs;
+    
+    @Value("${app.admission.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+    
+    private final Set<String> initializedKeys = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * Run the task if a permit for the resource can be obtained within wait-ms,
+     * otherwise throw AdmissionRejectedException
+     */
+    public <T> T executeAdmitted(String resourceKey, Supplier<T> task) {
+        if (!enabled) {
+            return task.get();
+        }
+        
+        RPermitExpirableSemaphore semaphore = semaphore(resourceKey);
+        String permitId;
+        try {
+            permitId = semaphore.tryAcquire(waitMs, leaseMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for admission: " + resourceKey, e);
+        }
+        
+        metricsService.recordAdmission(resourceKey, permitId != null);
+        if (permitId == null) {
+            logger.debug("Rejected request for {}: {} requests already admitted", resourceKey, maxConcurrent);
+            throw new AdmissionRejectedException("Too many concurrent requests for " + resourceKey,
+                    retryAfterSeconds);
+        }
+        
+        try {
+            return task.get();
+        } finally {
+            // False if the permit already expired; nothing left to give back then
+            if (!semaphore.tryRelease(permitId)) {
+                logger.warn("Admission permit for {} expired before the request finished", resourceKey);
+            }
+        }
+    }
+    
+    /**
+     * Semaphore for a resource, setting its permit count on first use from this node
+     */
+    private RPermitExpirableSemaphore semaphore(String resourceKey) {
+        String key = KEY_PREFIX + resourceKey;
+        RPermitExpirableSemaphore semaphore = redissonClient.getPermitExpirableSemaphore(key);
+        if (initializedKeys.add(key)) {
+            semaphore.trySetPermits(maxConcurrent);
+        }
+        return semaphore;
+    }
+}
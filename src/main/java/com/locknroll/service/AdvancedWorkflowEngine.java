@@ -1,16 +1,20 @@
 package com.locknroll.service;
 
+import com.locknroll.config.AsyncConfig;
 import com.locknroll.dto.WorkflowInstanceDto;
 import com.locknroll.entity.*;
 import com.locknroll.exception.ResourceNotFoundException;
 import com.locknroll.exception.WorkflowException;
 import com.locknroll.repository.*;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -25,6 +29,8 @@ public class AdvancedWorkflowEngine {
 
     private static final Logger logger = LoggerFactory.getLogger(AdvancedWorkflowEngine.class);
 
+    private static final String TIMEOUT_CHECK_LOCK = "locknroll:workflow:timeout-check";
+
     @Autowired
     private WorkflowRepository workflowRepository;
 
@@ -38,16 +44,16 @@ public class AdvancedWorkflowEngine {
     private TaskRepository taskRepository;
 
     @Autowired
-    private WorkflowConditionRepository workflowConditionRepository;
+    private WorkflowTimeoutRepository workflowTimeoutRepository;
 
     @Autowired
-    private WorkflowTimeoutRepository workflowTimeoutRepository;
+    private UserRepository userRepository;
 
     @Autowired
-    private ParallelProcessingGroupRepository parallelProcessingGroupRepository;
+    private RoleMembershipService roleMembershipService;
 
     @Autowired
-    private UserRepository userRepository;
+    private TaskAssignmentService taskAssignmentService;
 
     @Autowired
     private NotificationService notificationService;
@@ -55,16 +61,30 @@ public class AdvancedWorkflowEngine {
     @Autowired
     private CacheService cacheService;
 
+    @Autowired
+    private MetricsService metricsService;
+
+    @Autowired
+    private WorkflowPlanService workflowPlanService;
+
+    @Autowired
+    private DistributedLockService lockService;
+
+    // Proxy to this bean, so calls from checkTimeouts go through @Async/@Transactional
+    @Lazy
+    @Autowired
+    private AdvancedWorkflowEngine self;
+
     /**
      * Start an advanced workflow with conditional logic and parallel processing
      */
     @Transactional
+    @Timed(value = MetricsService.WORKFLOW_START, extraTags = {"engine", "advanced"}, histogram = true)
     public WorkflowInstanceDto startAdvancedWorkflow(String entityType, String entityId, String workflowName, String startedBy, Map<String, Object> context) {
         logger.info("Starting advanced workflow '{}' for entityType: {}, entityId: {}", workflowName, entityType, entityId);
 
-        // Find the workflow definition
-        Workflow workflow = workflowRepository.findByName(workflowName)
-                .orElseThrow(() -> new ResourceNotFoundException("Workflow not found: " + workflowName));
+        // Find the compiled workflow definition
+        WorkflowPlan plan = workflowPlanService.getPlanByName(workflowName);
 
         // Check if workflow instance already exists
         Optional<WorkflowInstance> existingInstance = workflowInstanceRepository
@@ -76,7 +96,7 @@ public class AdvancedWorkflowEngine {
 
         // Create workflow instance
         WorkflowInstance workflowInstance = new WorkflowInstance();
-        workflowInstance.setWorkflow(workflow);
+        workflowInstance.setWorkflow(workflowRepository.getReferenceById(plan.getWorkflowId()));
         workflowInstance.setEntityType(entityType);
         workflowInstance.setEntityId(entityId);
         workflowInstance.setStatus("PENDING");
@@ -88,7 +108,7 @@ public class AdvancedWorkflowEngine {
         WorkflowInstance savedInstance = workflowInstanceRepository.save(workflowInstance);
 
         // Process workflow with advanced features
-        processAdvancedWorkflow(savedInstance, context);
+        processAdvancedWorkflow(savedInstance, plan, context);
 
         logger.info("Advanced workflow '{}' started successfully for entity {}:{}", workflowName, entityType, entityId);
         return convertToDto(savedInstance);
@@ -97,35 +117,25 @@ public class AdvancedWorkflowEngine {
     /**
      * Process workflow with advanced features
      */
-    private void processAdvancedWorkflow(WorkflowInstance workflowInstance, Map<String, Object> context) {
-        // Get parallel processing groups
-        List<ParallelProcessingGroup> groups = parallelProcessingGroupRepository
-                .findActiveGroupsByWorkflowIdOrderByGroupOrder(workflowInstance.getWorkflow().getId());
-
-        if (groups.isEmpty()) {
+    private void processAdvancedWorkflow(WorkflowInstance workflowInstance, WorkflowPlan plan, Map<String, Object> context) {
+        if (plan.getGroups().isEmpty()) {
             // No parallel processing groups, use sequential processing
-            processSequentialWorkflow(workflowInstance, context);
+            processSequentialWorkflow(workflowInstance, plan, context);
         } else {
             // Process parallel groups
-            processParallelGroups(workflowInstance, groups, context);
+            processParallelGroups(workflowInstance, plan, context);
         }
     }
 
     /**
      * Process workflow steps in parallel groups
      */
-    private void processParallelGroups(WorkflowInstance workflowInstance, List<ParallelProcessingGroup> groups, Map<String, Object> context) {
-        for (ParallelProcessingGroup group : groups) {
-            logger.info("Processing parallel group: {}", group.getGroupName());
-            
-            // Get steps in this group
-            List<WorkflowStep> steps = workflowStepRepository.findByWorkflowIdOrderByStepOrder(workflowInstance.getWorkflow().getId())
-                    .stream()
-                    .filter(step -> group.equals(step.getParallelProcessingGroup()))
-                    .collect(Collectors.toList());
+    private void processParallelGroups(WorkflowInstance workflowInstance, WorkflowPlan plan, Map<String, Object> context) {
+        for (WorkflowPlan.GroupPlan group : plan.getGroups()) {
+            logger.info("Processing parallel group: {}", group.getName());
 
-            // Evaluate conditions for each step
-            List<WorkflowStep> activeSteps = evaluateConditions(steps, context);
+            // Evaluate conditions for each step in this group
+            List<WorkflowPlan.StepPlan> activeSteps = evaluateConditions(group.getSteps(), context);
 
             // Create tasks for active steps
             createTasksForSteps(workflowInstance, activeSteps);
@@ -138,11 +148,9 @@ public class AdvancedWorkflowEngine {
     /**
      * Process workflow steps sequentially
      */
-    private void processSequentialWorkflow(WorkflowInstance workflowInstance, Map<String, Object> context) {
-        List<WorkflowStep> steps = workflowStepRepository.findByWorkflowIdOrderByStepOrder(workflowInstance.getWorkflow().getId());
-        
+    private void processSequentialWorkflow(WorkflowInstance workflowInstance, WorkflowPlan plan, Map<String, Object> context) {
         // Evaluate conditions for each step
-        List<WorkflowStep> activeSteps = evaluateConditions(steps, context);
+        List<WorkflowPlan.StepPlan> activeSteps = evaluateConditions(plan.getSteps(), context);
 
         // Create tasks for active steps
         createTasksForSteps(workflowInstance, activeSteps);
@@ -152,32 +160,18 @@ public class AdvancedWorkflowEngine {
     }
 
     /**
-     * Evaluate conditions for workflow steps
+     * Evaluate the compiled conditions of workflow steps
      */
-    private List<WorkflowStep> evaluateConditions(List<WorkflowStep> steps, Map<String, Object> context) {
-        List<WorkflowStep> activeSteps = new ArrayList<>();
-
-        for (WorkflowStep step : steps) {
-            // Get conditions for this step
-            List<WorkflowCondition> conditions = workflowConditionRepository
-                    .findActiveConditionsByStepIdOrderByPriority(step.getId());
-
-            boolean shouldExecute = true;
-
-            if (!conditions.isEmpty()) {
-                // Evaluate conditions
-                for (WorkflowCondition condition : conditions) {
-                    if (!evaluateCondition(condition, context)) {
-                        shouldExecute = false;
-                        logger.debug("Step {} skipped due to condition: {}", step.getName(), condition.getConditionName());
-                        break;
-                    }
-                }
-            }
+    private List<WorkflowPlan.StepPlan> evaluateConditions(List<WorkflowPlan.StepPlan> steps, Map<String, Object> context) {
+        List<WorkflowPlan.StepPlan> activeSteps = new ArrayList<>();
 
-            if (shouldExecute) {
+        for (WorkflowPlan.StepPlan step : steps) {
+            WorkflowPlan.ConditionPlan failed = step.firstFailingCondition(context);
+            if (failed == null) {
                 activeSteps.add(step);
                 logger.debug("Step {} will be executed", step.getName());
+            } else {
+                logger.debug("Step {} skipped due to condition: {}", step.getName(), failed.getName());
             }
         }
 
@@ -185,77 +179,51 @@ public class AdvancedWorkflowEngine {
     }
 
     /**
-     * Evaluate a single condition
-     */
-    private boolean evaluateCondition(WorkflowCondition condition, Map<String, Object> context) {
-        try {
-            // Simple condition evaluation - in a real implementation, you might use a rule engine
-            String expression = condition.getConditionExpression();
-            
-            // Example: Check if a field exists in context
-            if (expression.contains("entityType")) {
-                String expectedType = extractValue(expression, "entityType");
-                return expectedType.equals(context.get("entityType"));
-            }
-            
-            if (expression.contains("userRole")) {
-                String expectedRole = extractValue(expression, "userRole");
-                return expectedRole.equals(context.get("userRole"));
-            }
-
-            // Default to true if no specific conditions match
-            return true;
-        } catch (Exception e) {
-            logger.error("Error evaluating condition {}: {}", condition.getConditionName(), e.getMessage());
-            return false;
-        }
-    }
-
-    /**
-     * Extract value from condition expression
+     * Evaluate a single condition (package-private for benchmarks)
      */
-    private String extractValue(String expression, String key) {
-        // Simple extraction - in a real implementation, use a proper expression parser
-        if (expression.contains(key + "=")) {
-            String[] parts = expression.split(key + "=");
-            if (parts.length > 1) {
-                return parts[1].split("[,\\s]")[0];
-            }
-        }
-        return "";
+    boolean evaluateCondition(WorkflowCondition condition, Map<String, Object> context) {
+        return WorkflowPlan.ConditionPlan.compile(condition).test(context);
     }
 
     /**
      * Create tasks for workflow steps
      */
-    private void createTasksForSteps(WorkflowInstance workflowInstance, List<WorkflowStep> steps) {
-        for (WorkflowStep step : steps) {
+    private void createTasksForSteps(WorkflowInstance workflowInstance, List<WorkflowPlan.StepPlan> steps) {
+        for (WorkflowPlan.StepPlan step : steps) {
             // Find users assigned to this role
-            List<User> usersWithRole = userRepository.findByRoleName(step.getAssignedRoleName());
+            RoleMembershipService.RoleMembers usersWithRole = roleMembershipService.getMembers(step.getAssignedRoleName());
 
             if (usersWithRole.isEmpty()) {
                 logger.warn("No users found with role: {}", step.getAssignedRoleName());
                 continue;
             }
 
-            // Create tasks for each user
-            for (User user : usersWithRole) {
+            // Create tasks for the users the role's assignment strategy picks (none: one claimable task)
+            int[] assignees = taskAssignmentService.selectAssignees(step.getAssignedRoleName(), usersWithRole);
+            WorkflowStep stepReference = workflowStepRepository.getReferenceById(step.getId());
+            for (int n = 0; n < Math.max(assignees.length, 1); n++) {
+                Long userId = assignees.length > 0 ? usersWithRole.getUserId(assignees[n]) : null;
                 Task task = new Task();
                 task.setWorkflowInstance(workflowInstance);
-                task.setWorkflowStep(step);
+                task.setWorkflowStep(stepReference);
+                task.setClaimRoleName(step.getAssignedRoleName());
                 task.setTitle(step.getName());
                 task.setDescription(step.getDescription());
-                task.setAssignedTo(user);
+                task.setAssignedTo(userId != null ? userRepository.getReferenceById(userId) : null);
+                metricsService.recordTaskTransition(null, "PENDING");
                 task.setStatus("PENDING");
                 task.setPriority("MEDIUM");
                 task.setCreatedBy("system");
                 task.setDueDate(LocalDateTime.now().plusDays(7));
 
                 taskRepository.save(task);
-                logger.debug("Created task {} for user {}", task.getId(), user.getUsername());
+                logger.debug("Created task {} for user {}", task.getId(),
+                        assignees.length > 0 ? usersWithRole.getUsername(assignees[n]) : "(claimable)");
                 
                 // Invalidate cache for the assigned user
-                cacheService.evict("user:tasks:" + user.getId());
+                if (userId != null) {
+                    cacheService.evict("user:tasks:" + userId);
+                }
             }
         }
     }
@@ -263,11 +231,11 @@ public class AdvancedWorkflowEngine {
     /**
      * Set up parallel processing for a group
      */
-    private void setupParallelProcessing(WorkflowInstance workflowInstance, ParallelProcessingGroup group, List<WorkflowStep> steps) {
-        logger.info("Setting up parallel processing for group: {}", group.getGroupName());
+    private void setupParallelProcessing(WorkflowInstance workflowInstance, WorkflowPlan.GroupPlan group, List<WorkflowPlan.StepPlan> steps) {
+        logger.info("Setting up parallel processing for group: {}", group.getName());
         
         // All steps in the group can run in parallel
-        for (WorkflowStep step : steps) {
+        for (WorkflowPlan.StepPlan step : steps) {
             // Activate tasks for this step
             activateTasksForStep(workflowInstance, step);
         }
@@ -279,7 +247,7 @@ public class AdvancedWorkflowEngine {
     /**
      * Set up sequential processing
      */
-    private void setupSequentialProcessing(WorkflowInstance workflowInstance, List<WorkflowStep> steps) {
+    private void setupSequentialProcessing(WorkflowInstance workflowInstance, List<WorkflowPlan.StepPlan> steps) {
         if (!steps.isEmpty()) {
             // Activate first step
             activateTasksForStep(workflowInstance, steps.get(0));
@@ -292,33 +260,35 @@ public class AdvancedWorkflowEngine {
     /**
      * Activate tasks for a specific step
      */
-    private void activateTasksForStep(WorkflowInstance workflowInstance, WorkflowStep step) {
+    private void activateTasksForStep(WorkflowInstance workflowInstance, WorkflowPlan.StepPlan step) {
         List<Task> stepTasks = taskRepository.findByWorkflowInstanceIdAndStepName(
                 workflowInstance.getId(), step.getName());
 
         for (Task task : stepTasks) {
+            metricsService.recordTaskTransition(task.getStatus(), "READY");
             task.setStatus("READY");
             taskRepository.save(task);
             
-            // Invalidate cache for the assigned user
-            cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
-            
-            // Send notification to assigned user
-            String message = String.format("New task '%s' is ready for you", task.getTitle());
-            notificationService.sendTaskUpdateNotification(
-                    task.getAssignedTo().getUsername(), task.getTitle(), "READY", message);
+            // Claimable tasks have no assignee to notify; role members find them in the claim queue
+            if (task.getAssignedTo() != null) {
+                // Invalidate cache for the assigned user
+                cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
+                
+                // Send notification to assigned user
+                String message = String.format("New task '%s' is ready for you", task.getTitle());
+                notificationService.sendTaskUpdateNotification(
+                        task.getAssignedTo().getUsername(), task.getTitle(), "READY", message);
+            }
         }
     }
 
     /**
      * Set up timeout monitoring
      */
-    private void setupTimeoutMonitoring(WorkflowInstance workflowInstance, ParallelProcessingGroup group, List<WorkflowStep> steps) {
-        for (WorkflowStep step : steps) {
-            // Check if step has timeout configuration
-            List<WorkflowTimeout> timeouts = workflowTimeoutRepository.findByWorkflowStepAndIsActive(step, true);
-            
-            for (WorkflowTimeout timeout : timeouts) {
+    private void setupTimeoutMonitoring(WorkflowInstance workflowInstance, WorkflowPlan.GroupPlan group, List<WorkflowPlan.StepPlan> steps) {
+        for (WorkflowPlan.StepPlan step : steps) {
+            // Active timeout configuration comes with the compiled step
+            for (WorkflowPlan.TimeoutPlan timeout : step.getTimeouts()) {
                 logger.info("Setting up timeout monitoring for step: {} with {} hours timeout", 
                         step.getName(), timeout.getTimeoutDurationHours());
                 
@@ -329,10 +299,19 @@ public class AdvancedWorkflowEngine {
     }
 
     /**
-     * Handle timeout for a workflow step
+     * Handle timeout for a workflow step, on the bounded timeout executor in its own transaction.
+     * Takes ids because it runs after the caller's persistence context is gone
      */
-    @Async
-    public void handleTimeout(WorkflowInstance workflowInstance, WorkflowStep step, WorkflowTimeout timeout) {
+    @Async(AsyncConfig.TIMEOUT_EXECUTOR)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void handleTimeout(Long workflowInstanceId, Long timeoutId) {
+        WorkflowInstance workflowInstance = workflowInstanceRepository.findById(workflowInstanceId).orElse(null);
+        WorkflowTimeout timeout = workflowTimeoutRepository.findById(timeoutId).orElse(null);
+        if (workflowInstance == null || timeout == null) {
+            logger.debug("Skipping timeout {} for workflow instance {}: no longer exists", timeoutId, workflowInstanceId);
+            return;
+        }
+        WorkflowStep step = timeout.getWorkflowStep();
         logger.info("Handling timeout for step: {} in workflow instance: {}", step.getName(), workflowInstance.getId());
 
         try {
@@ -366,18 +345,21 @@ public class AdvancedWorkflowEngine {
 
         for (Task task : stepTasks) {
             if ("PENDING".equals(task.getStatus()) || "READY".equals(task.getStatus())) {
+                metricsService.recordTaskTransition(task.getStatus(), "COMPLETED");
                 task.setStatus("COMPLETED");
                 task.setCompletedAt(LocalDateTime.now());
                 task.setUpdatedBy("system-timeout");
                 taskRepository.save(task);
                 
-                // Invalidate cache for the assigned user
-                cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
-
-                // Send notification
-                String message = String.format("Task '%s' was auto-approved due to timeout", task.getTitle());
-                notificationService.sendTaskUpdateNotification(
-                        task.getAssignedTo().getUsername(), task.getTitle(), "AUTO_APPROVED", message);
+                if (task.getAssignedTo() != null) {
+                    // Invalidate cache for the assigned user
+                    cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
+
+                    // Send notification
+                    String message = String.format("Task '%s' was auto-approved due to timeout", task.getTitle());
+                    notificationService.sendTaskUpdateNotification(
+                            task.getAssignedTo().getUsername(), task.getTitle(), "AUTO_APPROVED", message);
+                }
             }
         }
 
@@ -393,18 +375,21 @@ public class AdvancedWorkflowEngine {
 
         for (Task task : stepTasks) {
             if ("PENDING".equals(task.getStatus()) || "READY".equals(task.getStatus())) {
+                metricsService.recordTaskTransition(task.getStatus(), "REJECTED");
                 task.setStatus("REJECTED");
                 task.setCompletedAt(LocalDateTime.now());
                 task.setUpdatedBy("system-timeout");
                 taskRepository.save(task);
                 
-                // Invalidate cache for the assigned user
-                cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
-
-                // Send notification
-                String message = String.format("Task '%s' was auto-rejected due to timeout", task.getTitle());
-                notificationService.sendTaskUpdateNotification(
-                        task.getAssignedTo().getUsername(), task.getTitle(), "AUTO_REJECTED", message);
+                if (task.getAssignedTo() != null) {
+                    // Invalidate cache for the assigned user
+                    cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
+
+                    // Send notification
+                    String message = String.format("Task '%s' was auto-rejected due to timeout", task.getTitle());
+                    notificationService.sendTaskUpdateNotification(
+                            task.getAssignedTo().getUsername(), task.getTitle(), "AUTO_REJECTED", message);
+                }
             }
         }
 
@@ -418,21 +403,26 @@ public class AdvancedWorkflowEngine {
         logger.info("Escalating step: {} to role: {}", step.getName(), escalationRole);
 
         // Find users with the escalation role
-        List<User> escalationUsers = userRepository.findByRoleName(escalationRole);
+        RoleMembershipService.RoleMembers escalationUsers = roleMembershipService.getMembers(escalationRole);
 
         if (escalationUsers.isEmpty()) {
             logger.warn("No users found with escalation role: {}", escalationRole);
             return;
         }
 
-        // Create new tasks for escalation users
-        for (User user : escalationUsers) {
+        // Create new tasks for the escalation users the role's assignment strategy picks
+        int[] assignees = taskAssignmentService.selectAssignees(escalationRole, escalationUsers);
+        for (int n = 0; n < Math.max(assignees.length, 1); n++) {
+            Long userId = assignees.length > 0 ? escalationUsers.getUserId(assignees[n]) : null;
             Task escalationTask = new Task();
             escalationTask.setWorkflowInstance(workflowInstance);
             escalationTask.setWorkflowStep(step);
+            // Claimable by the escalation role, not the step's original role
+            escalationTask.setClaimRoleName(escalationRole);
             escalationTask.setTitle("ESCALATED: " + step.getName());
             escalationTask.setDescription("This task was escalated due to timeout");
-            escalationTask.setAssignedTo(user);
+            escalationTask.setAssignedTo(userId != null ? userRepository.getReferenceById(userId) : null);
+            metricsService.recordTaskTransition(null, "READY");
             escalationTask.setStatus("READY");
             escalationTask.setPriority("HIGH");
             escalationTask.setCreatedBy("system-escalation");
@@ -440,13 +430,22 @@ public class AdvancedWorkflowEngine {
 
             taskRepository.save(escalationTask);
             
-            // Invalidate cache for the assigned user
-            cacheService.evict("user:tasks:" + escalationTask.getAssignedTo().getId());
-            
-            // Send notification
-            String message = String.format("Escalated task '%s' assigned to you", escalationTask.getTitle());
-            notificationService.sendTaskUpdateNotification(
-                    user.getUsername(), escalationTask.getTitle(), "ESCALATED", message);
+            if (userId != null) {
+                // Invalidate cache for the assigned user
+                cacheService.evict("user:tasks:" + userId);
+                
+                // Send notification
+                String message = String.format("Escalated task '%s' assigned to you", escalationTask.getTitle());
+                notificationService.sendTaskUpdateNotification(
+                        escalationUsers.getUsername(assignees[n]), escalationTask.getTitle(), "ESCALATED", message);
+            } else {
+                // Claimable: every member of the escalation role may pick it up
+                String message = String.format("Escalated task '%s' is waiting to be claimed", escalationTask.getTitle());
+                for (int i = 0; i < escalationUsers.size(); i++) {
+                    notificationService.sendTaskUpdateNotification(
+                            escalationUsers.getUsername(i), escalationTask.getTitle(), "ESCALATED", message);
+                }
+            }
         }
     }
 
@@ -461,6 +460,7 @@ public class AdvancedWorkflowEngine {
         // Send notification to all users involved in the workflow
         List<Task> allTasks = taskRepository.findByWorkflowInstanceId(workflowInstance.getId());
         Set<String> usernames = allTasks.stream()
+                .filter(task -> task.getAssignedTo() != null)
                 .map(task -> task.getAssignedTo().getUsername())
                 .collect(Collectors.toSet());
 
@@ -471,10 +471,20 @@ public class AdvancedWorkflowEngine {
     }
 
     /**
-     * Scheduled method to check for timeouts
+     * Scheduled method to check for timeouts. Runs on one node at a time; the others skip the
+     * round rather than handle the same overdue timeouts again.
      */
     @Scheduled(fixedRate = 300000) // Check every 5 minutes
     public void checkTimeouts() {
+        // Held until scanOverdueTimeouts has committed last_checked, so the next node sees it
+        lockService.runIfUnlocked(TIMEOUT_CHECK_LOCK, self::scanOverdueTimeouts);
+    }
+
+    /**
+     * One timeout check round; called through checkTimeouts
+     */
+    @Transactional
+    public void scanOverdueTimeouts() {
         logger.debug("Checking for workflow timeouts");
 
         try {
@@ -485,8 +495,9 @@ public class AdvancedWorkflowEngine {
                 List<WorkflowInstance> activeInstances = workflowInstanceRepository
                         .findByWorkflowIdAndStatus(timeout.getWorkflowStep().getWorkflow().getId(), "IN_PROGRESS");
 
+                // Queued on the timeout executor; when it is full this thread runs them (backpressure)
                 for (WorkflowInstance instance : activeInstances) {
-                    handleTimeout(instance, timeout.getWorkflowStep(), timeout);
+                    self.handleTimeout(instance.getId(), timeout.getId());
                 }
 
                 // Update last checked time
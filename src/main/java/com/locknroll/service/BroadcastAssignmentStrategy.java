@@ -0,0 +1,26 @@
+package com.locknroll.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * One task for every member of the role; the first to act decides for the step
+ */
+@Component
+public class BroadcastAssignmentStrategy implements TaskAssignmentStrategy {
+
+    public static final String NAME = "broadcast";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int[] selectAssignees(String roleName, RoleMembershipService.RoleMembers members) {
+        int[] all = new int[members.size()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        return all;
+    }
+}
@@ -25,6 +25,9 @@ public class CacheService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MetricsService metricsService;
+
     private static final String CACHE_PREFIX = "locknroll:";
     private static final Duration DEFAULT_TTL = Duration.ofMinutes(30);
 
@@ -59,11 +62,13 @@ public class CacheService {
             if (jsonValue != null) {
                 T value = objectMapper.readValue(jsonValue, type);
                 logger.debug("Retrieved cached value for key: {}", cacheKey);
+                metricsService.recordCacheGet(key, true);
                 return Optional.of(value);
             }
         } catch (JsonProcessingException e) {
             logger.error("Failed to deserialize cached value: {}", e.getMessage());
         }
+        metricsService.recordCacheGet(key, false);
         return Optional.empty();
     }
 
@@ -133,16 +138,20 @@ public class CacheService {
      * Get cached user tasks
      */
     public <T> Optional<T> getCachedUserTasks(Long userId, com.fasterxml.jackson.core.type.TypeReference<T> typeReference) {
+        String key = "user:tasks:" + userId;
         try {
-            String cacheKey = CACHE_PREFIX + "user:tasks:" + userId;
+            String cacheKey = CACHE_PREFIX + key;
             String jsonValue = redisTemplate.opsForValue().get(cacheKey);
             if (jsonValue != null) {
                 logger.debug("Retrieved cached user tasks for user: {}", userId);
-                return Optional.of(objectMapper.readValue(jsonValue, typeReference));
+                T value = objectMapper.readValue(jsonValue, typeReference);
+                metricsService.recordCacheGet(key, true);
+                return Optional.of(value);
             }
         } catch (JsonProcessingException e) {
             logger.error("Error deserializing cached user tasks for user {}: {}", userId, e.getMessage());
         }
+        metricsService.recordCacheGet(key, false);
         return Optional.empty();
     }
 
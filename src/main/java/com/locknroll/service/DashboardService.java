@@ -1,5 +1,6 @@
 package com.locknroll.service;
 
+import com.locknroll.datasource.ReplicaRoutingDataSource;
 import com.locknroll.dto.DashboardDto;
 import com.locknroll.dto.TaskDto;
 import com.locknroll.entity.Fruit;
@@ -47,6 +48,9 @@ public class DashboardService {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private MetricsService metricsService;
+
     /**
      * Get dashboard data for current user
      */
@@ -65,6 +69,9 @@ public class DashboardService {
             return cachedDashboard.get();
         }
 
+        // Cached across nodes; a lagging replica would re-cache data a write just evicted
+        ReplicaRoutingDataSource.usePrimary();
+        long loadStart = System.nanoTime();
         DashboardDto dashboard = new DashboardDto();
         Long userId = user.getUserId();
         logger.info("Setting dashboard ID to: {}", userId);
@@ -75,7 +82,7 @@ public class DashboardService {
         dashboard.setLastUpdated(LocalDateTime.now());
 
         // Determine user type and get appropriate dashboard data
-        if (rbac.isAdmin() || rbac.isBackOffice()) {
+        if (rbac.isAdminOrBackOffice()) {
             dashboard.setUserType("ADMIN");
             populateAdminDashboard(dashboard);
         } else if (rbac.isSeller()) {
@@ -89,6 +96,8 @@ public class DashboardService {
             populateUserDashboard(dashboard);
         }
 
+        metricsService.recordCacheLoad("dashboard", System.nanoTime() - loadStart);
+
         // Cache the dashboard data
         cacheService.cacheDashboardData(user.getUserId(), dashboard);
 
@@ -103,18 +112,18 @@ public class DashboardService {
         
         // System statistics
         long totalFruits = fruitRepository.count();
-        long draftFruits = fruitRepository.findByStatus("DRAFT").size();
-        long pendingFruits = fruitRepository.findByStatus("PENDING_APPROVAL").size();
-        long approvedFruits = fruitRepository.findByStatus("APPROVED").size();
-        long rejectedFruits = fruitRepository.findByStatus("REJECTED").size();
+        long draftFruits = fruitRepository.countByStatus("DRAFT");
+        long pendingFruits = fruitRepository.countByStatus("PENDING_APPROVAL");
+        long approvedFruits = fruitRepository.countByStatus("APPROVED");
+        long rejectedFruits = fruitRepository.countByStatus("REJECTED");
         
         long totalWorkflows = workflowInstanceRepository.count();
         long activeWorkflows = workflowInstanceRepository.countActiveWorkflowInstances();
-        long completedWorkflows = workflowInstanceRepository.findCompletedWorkflowInstances().size();
+        long completedWorkflows = workflowInstanceRepository.countCompletedWorkflowInstances();
         
         long totalTasks = taskRepository.count();
-        long pendingTasks = taskRepository.findByStatus("PENDING").size();
-        long completedTasks = taskRepository.findByStatus("COMPLETED").size();
+        long pendingTasks = taskRepository.countByStatus("PENDING");
+        long completedTasks = taskRepository.countByStatus("COMPLETED");
 
         stats.put("totalFruits", totalFruits);
         stats.put("draftFruits", draftFruits);
@@ -136,7 +145,7 @@ public class DashboardService {
         dashboard.setRecentActivities(activities);
 
         // All pending tasks
-        List<Task> allPendingTasks = taskRepository.findByStatus("PENDING");
+        List<Task> allPendingTasks = taskRepository.findForDtoByStatus("PENDING");
         List<TaskDto> pendingTaskDtos = allPendingTasks.stream()
                 .map(taskService::convertToDto)
                 .collect(Collectors.toList());
@@ -181,7 +190,7 @@ public class DashboardService {
         dashboard.setRecentActivities(activities);
 
         // Seller's pending tasks (if any)
-        List<Task> userTasks = taskRepository.findByAssignedToId(rbac.getCurrentUserId());
+        List<Task> userTasks = taskRepository.findForDtoByAssignedToId(rbac.getCurrentUserId());
         List<TaskDto> pendingTaskDtos = userTasks.stream()
                 .filter(task -> "PENDING".equals(task.getStatus()))
                 .map(taskService::convertToDto)
@@ -206,7 +215,7 @@ public class DashboardService {
         Map<String, Object> stats = new HashMap<>();
         
         // Approver-specific statistics
-        List<Task> userTasks = taskRepository.findByAssignedToId(userId);
+        List<Task> userTasks = taskRepository.findForDtoByAssignedToId(userId);
         long totalTasks = userTasks.size();
         long pendingTasks = userTasks.stream().filter(t -> "PENDING".equals(t.getStatus())).count();
         long completedTasks = userTasks.stream().filter(t -> "COMPLETED".equals(t.getStatus())).count();
@@ -259,7 +268,7 @@ public class DashboardService {
      * Get seller-specific dashboard data
      */
     public DashboardDto getSellerDashboard(String username) {
-        if (!rbac.isSeller() && !rbac.isAdmin() && !rbac.isBackOffice()) {
+        if (!rbac.isSeller() && !rbac.isAdminOrBackOffice()) {
             throw new RuntimeException("Access denied");
         }
 
@@ -276,7 +285,7 @@ public class DashboardService {
      * Get approver-specific dashboard data
      */
     public DashboardDto getApproverDashboard(Long userId) {
-        if (!rbac.isApprover() && !rbac.isAdmin() && !rbac.isBackOffice()) {
+        if (!rbac.isApprover() && !rbac.isAdminOrBackOffice()) {
             throw new RuntimeException("Access denied");
         }
 
@@ -1,13 +1,22 @@
 package com.locknroll.service;
 
+import com.locknroll.logging.LogSampler;
+import org.redisson.RedissonMultiLock;
+import org.redisson.api.RFencedLock;
 import org.redisson.api.RLock;
+import org.redisson.api.RReadWriteLock;
 import org.redisson.api.RedissonClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
 import java.util.function.Supplier;
 
 /**
@@ -18,9 +27,14 @@ public class DistributedLockService {
     
     private static final Logger logger = LoggerFactory.getLogger(DistributedLockService.class);
     
+    private static final LogSampler RELEASE_LOG_SAMPLER = LogSampler.oneIn(100);
+    
     @Autowired
     private RedissonClient redissonClient;
     
+    @Autowired
+    private MetricsService metricsService;
+    
     /**
      * Execute a task with distributed lock
      * 
@@ -33,49 +47,221 @@ public class DistributedLockService {
      */
     public <T> T executeWithLock(String lockKey, long waitTime, long leaseTime, 
                                 TimeUnit timeUnit, Supplier<T> task) {
+        return executeLocked(redissonClient.getLock(lockKey), lockKey, lockKey, waitTime, leaseTime, timeUnit, task);
+    }
+    
+    /**
+     * Execute a task with distributed lock (default timeout: 10 seconds wait, 30 seconds lease)
+     */
+    public <T> T executeWithLock(String lockKey, Supplier<T> task) {
+        return executeWithLock(lockKey, 10, 30, TimeUnit.SECONDS, task);
+    }
+    
+    /**
+     * Execute a task holding several locks at once (e.g. every fruit in an order).
+     * 
+     * Keys are de-duplicated and acquired in sorted order through a Redisson MultiLock, so
+     * two callers with overlapping key sets cannot deadlock. If any key cannot be acquired
+     * within waitTime, the ones already taken are released and the call fails.
+     * 
+     * @param lockKeys The keys to lock
+     * @param waitTime Maximum time to wait for all locks
+     * @param leaseTime Time to hold the locks
+     * @param timeUnit Time unit for wait and lease times
+     * @param task The task to execute
+     * @return Result of the task execution
+     */
+    public <T> T executeWithLocks(Collection<String> lockKeys, long waitTime, long leaseTime,
+                                  TimeUnit timeUnit, Supplier<T> task) {
+        List<String> orderedKeys = new ArrayList<>(new TreeSet<>(lockKeys));
+        if (orderedKeys.isEmpty()) {
+            throw new IllegalArgumentException("At least one lock key is required");
+        }
+        if (orderedKeys.size() == 1) {
+            return executeWithLock(orderedKeys.get(0), waitTime, leaseTime, timeUnit, task);
+        }
+        
+        RLock[] locks = new RLock[orderedKeys.size()];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = redissonClient.getLock(orderedKeys.get(i));
+        }
+        String lockName = String.join(",", orderedKeys);
+        // Tag metrics by the first key's prefix, e.g. "multi:fruit:quantity"
+        String metricKey = "multi:" + MetricsService.keyPrefix(orderedKeys.get(0)) + ":" + orderedKeys.size();
+        return executeLocked(redissonClient.getMultiLock(locks), lockName, metricKey,
+                waitTime, leaseTime, timeUnit, task);
+    }
+    
+    /**
+     * Execute a task holding several locks at once (default timeout: 10 seconds wait, 30 seconds lease)
+     */
+    public <T> T executeWithLocks(Collection<String> lockKeys, Supplier<T> task) {
+        return executeWithLocks(lockKeys, 10, 30, TimeUnit.SECONDS, task);
+    }
+    
+    /**
+     * Execute a task holding the shared side of a read/write lock; readers run concurrently
+     * with each other and only wait for a writer on the same key
+     */
+    public <T> T executeWithReadLock(String lockKey, long waitTime, long leaseTime,
+                                     TimeUnit timeUnit, Supplier<T> task) {
+        RReadWriteLock readWriteLock = redissonClient.getReadWriteLock(lockKey);
+        return executeLocked(readWriteLock.readLock(), lockKey + " (read)", lockKey,
+                waitTime, leaseTime, timeUnit, task);
+    }
+    
+    /**
+     * Execute a task holding the shared side of a read/write lock (default timeout: 10 seconds wait, 30 seconds lease)
+     */
+    public <T> T executeWithReadLock(String lockKey, Supplier<T> task) {
+        return executeWithReadLock(lockKey, 10, 30, TimeUnit.SECONDS, task);
+    }
+    
+    /**
+     * Execute a task holding the exclusive side of a read/write lock; waits for current
+     * readers to finish and blocks new ones until done
+     */
+    public <T> T executeWithWriteLock(String lockKey, long waitTime, long leaseTime,
+                                      TimeUnit timeUnit, Supplier<T> task) {
+        RReadWriteLock readWriteLock = redissonClient.getReadWriteLock(lockKey);
+        return executeLocked(readWriteLock.writeLock(), lockKey + " (write)", lockKey,
+                waitTime, leaseTime, timeUnit, task);
+    }
+    
+    /**
+     * Execute a task holding the exclusive side of a read/write lock (default timeout: 10 seconds wait, 30 seconds lease)
+     */
+    public <T> T executeWithWriteLock(String lockKey, Supplier<T> task) {
+        return executeWithWriteLock(lockKey, 10, 30, TimeUnit.SECONDS, task);
+    }
+    
+    /**
+     * Run a cluster-wide singleton job (e.g. a @Scheduled sweep) only if no other node is running it.
+     * 
+     * Does not wait: when the lock is held elsewhere the task is skipped, which is the normal
+     * outcome on all but one node and is not counted as a lock failure. The lock has no fixed
+     * lease; Redisson's watchdog keeps renewing it while the task runs and lets it expire if
+     * this node dies.
+     * 
+     * @return whether the task ran
+     */
+    public boolean runIfUnlocked(String lockKey, Runnable task) {
         RLock lock = redissonClient.getLock(lockKey);
-        long startTime = System.currentTimeMillis();
+        long waitStart = System.nanoTime();
+        if (!lock.tryLock()) {
+            logger.debug("Skipping {}: held by another node", lockKey);
+            return false;
+        }
+        long acquiredAt = System.nanoTime();
+        metricsService.recordLockWait(lockKey, true, acquiredAt - waitStart);
+        try {
+            task.run();
+            return true;
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+                releaseRecorded(lockKey, lockKey, waitStart, acquiredAt);
+            }
+        }
+    }
+    
+    /**
+     * Acquire, run and release; shared by the plain, multi and read/write variants.
+     * lockName is used in logs and errors, metricKey for meter tags
+     */
+    private <T> T executeLocked(RLock lock, String lockName, String metricKey, long waitTime, long leaseTime,
+                                TimeUnit timeUnit, Supplier<T> task) {
+        long waitStart = System.nanoTime();
+        long acquiredAt = 0;
         boolean lockAcquired = false;
         
         try {
-            logger.debug("Thread {} attempting to acquire lock: {}", 
-                        Thread.currentThread().getName(), lockKey);
+            logger.debug("Attempting to acquire lock: {}", lockName);
             
             lockAcquired = lock.tryLock(waitTime, leaseTime, timeUnit);
+            acquiredAt = System.nanoTime();
+            metricsService.recordLockWait(metricKey, lockAcquired, acquiredAt - waitStart);
             
             if (lockAcquired) {
-                long lockDuration = System.currentTimeMillis() - startTime;
-                logger.info("Thread {} acquired lock: {} in {}ms", 
-                           Thread.currentThread().getName(), lockKey, lockDuration);
-                
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Acquired lock: {} in {}ms", lockName, toMillis(acquiredAt - waitStart));
+                }
                 return task.get();
             } else {
-                logger.warn("Thread {} failed to acquire lock: {} within {}ms", 
-                           Thread.currentThread().getName(), lockKey, 
-                           timeUnit.toMillis(waitTime));
-                throw new RuntimeException("Failed to acquire lock: " + lockKey);
+                metricsService.recordLockFailure(metricKey, "timeout");
+                logger.warn("Failed to acquire lock: {} within {}ms", lockName, timeUnit.toMillis(waitTime));
+                throw new RuntimeException("Failed to acquire lock: " + lockName);
             }
             
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            logger.error("Thread {} was interrupted while waiting for lock: {}", 
-                        Thread.currentThread().getName(), lockKey);
-            throw new RuntimeException("Interrupted while waiting for lock: " + lockKey, e);
+            metricsService.recordLockFailure(metricKey, "interrupted");
+            logger.error("Interrupted while waiting for lock: {}", lockName);
+            throw new RuntimeException("Interrupted while waiting for lock: " + lockName, e);
         } finally {
-            if (lockAcquired && lock.isHeldByCurrentThread()) {
-                long totalDuration = System.currentTimeMillis() - startTime;
-                logger.info("Thread {} releasing lock: {} after {}ms", 
-                           Thread.currentThread().getName(), lockKey, totalDuration);
+            // RedissonMultiLock does not implement isHeldByCurrentThread; its unlock releases each key
+            if (lockAcquired && (lock instanceof RedissonMultiLock || lock.isHeldByCurrentThread())) {
                 lock.unlock();
+                releaseRecorded(metricKey, lockName, waitStart, acquiredAt);
             }
         }
     }
     
     /**
-     * Execute a task with distributed lock (default timeout: 10 seconds wait, 30 seconds lease)
+     * Execute a task under a fenced lease.
+     * 
+     * The lease is fixed (no watchdog renewal), so it can be kept short. Each acquisition
+     * gets a token that is strictly greater than any token previously issued for the key;
+     * the task must pass it to its write (e.g. {@code WHERE fence_token < :token}) so that a
+     * holder whose lease ran out while it was paused is rejected by the store instead of
+     * overwriting a newer holder's changes.
+     * 
+     * @param lockKey The key for the lock
+     * @param waitTime Maximum time to wait for the lock
+     * @param leaseTime Time after which the lock expires, whether or not the task finished
+     * @param timeUnit Time unit for wait and lease times
+     * @param task The task to execute, given the fencing token
+     * @return Result of the task execution
      */
-    public <T> T executeWithLock(String lockKey, Supplier<T> task) {
-        return executeWithLock(lockKey, 10, 30, TimeUnit.SECONDS, task);
+    public <T> T executeWithFencedLock(String lockKey, long waitTime, long leaseTime,
+                                       TimeUnit timeUnit, LongFunction<T> task) {
+        RFencedLock lock = redissonClient.getFencedLock(lockKey);
+        long waitStart = System.nanoTime();
+        long acquiredAt = 0;
+        Long token = null;
+        
+        try {
+            logger.debug("Attempting to acquire fenced lock: {}", lockKey);
+            
+            token = lock.tryLockAndGetToken(waitTime, leaseTime, timeUnit);
+            acquiredAt = System.nanoTime();
+            metricsService.recordLockWait(lockKey, token != null, acquiredAt - waitStart);
+            
+            if (token != null) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Acquired fenced lock: {} with token {} in {}ms", lockKey, token,
+                            toMillis(acquiredAt - waitStart));
+                }
+                return task.apply(token);
+            } else {
+                metricsService.recordLockFailure(lockKey, "timeout");
+                logger.warn("Failed to acquire lock: {} within {}ms", lockKey, timeUnit.toMillis(waitTime));
+                throw new RuntimeException("Failed to acquire lock: " + lockKey);
+            }
+            
+        } finally {
+            if (token != null) {
+                if (lock.isHeldByCurrentThread()) {
+                    lock.unlock();
+                    releaseRecorded(lockKey, lockKey, waitStart, acquiredAt);
+                } else {
+                    // Lease ran out first; writes guarded by the token are safe, anything else is not
+                    metricsService.recordLockFailure(lockKey, "lease-expired");
+                    logger.warn("Lease on lock {} (token {}) expired after {}ms before the task finished",
+                            lockKey, token, toMillis(System.nanoTime() - acquiredAt));
+                }
+            }
+        }
     }
     
     /**
@@ -84,52 +270,67 @@ public class DistributedLockService {
     public <T> LockResult<T> executeWithLockInfo(String lockKey, long waitTime, long leaseTime, 
                                                 TimeUnit timeUnit, Supplier<T> task) {
         RLock lock = redissonClient.getLock(lockKey);
-        long startTime = System.currentTimeMillis();
+        long waitStart = System.nanoTime();
+        long acquiredAt = 0;
         boolean lockAcquired = false;
         
         try {
-            logger.debug("Thread {} attempting to acquire lock: {}", 
-                        Thread.currentThread().getName(), lockKey);
+            logger.debug("Attempting to acquire lock: {}", lockKey);
             
             lockAcquired = lock.tryLock(waitTime, leaseTime, timeUnit);
-            long lockDuration = System.currentTimeMillis() - startTime;
+            acquiredAt = System.nanoTime();
+            metricsService.recordLockWait(lockKey, lockAcquired, acquiredAt - waitStart);
+            long lockDuration = toMillis(acquiredAt - waitStart);
             
             if (lockAcquired) {
-                logger.info("Thread {} acquired lock: {} in {}ms", 
-                           Thread.currentThread().getName(), lockKey, lockDuration);
-                
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Acquired lock: {} in {}ms", lockKey, lockDuration);
+                }
                 T result = task.get();
                 return new LockResult<>(result, true, lockDuration, null);
             } else {
-                logger.warn("Thread {} failed to acquire lock: {} within {}ms", 
-                           Thread.currentThread().getName(), lockKey, 
-                           timeUnit.toMillis(waitTime));
+                metricsService.recordLockFailure(lockKey, "timeout");
+                logger.warn("Failed to acquire lock: {} within {}ms", lockKey, timeUnit.toMillis(waitTime));
                 return new LockResult<>(null, false, lockDuration, 
                                       "Failed to acquire lock within timeout");
             }
             
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            long lockDuration = System.currentTimeMillis() - startTime;
-            logger.error("Thread {} was interrupted while waiting for lock: {}", 
-                        Thread.currentThread().getName(), lockKey);
-            return new LockResult<>(null, false, lockDuration, 
+            metricsService.recordLockFailure(lockKey, "interrupted");
+            logger.error("Interrupted while waiting for lock: {}", lockKey);
+            return new LockResult<>(null, false, toMillis(System.nanoTime() - waitStart), 
                                   "Interrupted while waiting for lock: " + e.getMessage());
         } catch (Exception e) {
-            long lockDuration = System.currentTimeMillis() - startTime;
-            logger.error("Thread {} error while executing with lock: {}", 
-                        Thread.currentThread().getName(), lockKey, e);
-            return new LockResult<>(null, lockAcquired, lockDuration, e.getMessage());
+            logger.error("Error while executing with lock: {}", lockKey, e);
+            return new LockResult<>(null, lockAcquired, toMillis(System.nanoTime() - waitStart), e.getMessage());
         } finally {
             if (lockAcquired && lock.isHeldByCurrentThread()) {
-                long totalDuration = System.currentTimeMillis() - startTime;
-                logger.info("Thread {} releasing lock: {} after {}ms", 
-                           Thread.currentThread().getName(), lockKey, totalDuration);
                 lock.unlock();
+                releaseRecorded(lockKey, lockKey, waitStart, acquiredAt);
             }
         }
     }
     
+    /**
+     * Record hold time after unlock; per-operation detail goes to metrics,
+     * with only a sampled INFO line so hot locks do not flood the log
+     */
+    private void releaseRecorded(String metricKey, String lockName, long waitStart, long acquiredAt) {
+        long releasedAt = System.nanoTime();
+        metricsService.recordLockHold(metricKey, releasedAt - acquiredAt);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Released lock: {} after {}ms", lockName, toMillis(releasedAt - acquiredAt));
+        } else if (logger.isInfoEnabled() && RELEASE_LOG_SAMPLER.sample()) {
+            logger.info("Lock {} waited {}ms, held {}ms (sampled 1 in {})", lockName,
+                    toMillis(acquiredAt - waitStart), toMillis(releasedAt - acquiredAt), RELEASE_LOG_SAMPLER.getRate());
+        }
+    }
+    
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+    
     /**
      * Check if a lock is currently held
      */
@@ -23,6 +23,9 @@ public class EventPublisher {
     @Autowired
     private KafkaTemplate<String, WorkflowEvent> kafkaTemplate;
 
+    @Autowired
+    private MetricsService metricsService;
+
     private static final String WORKFLOW_EVENTS_TOPIC = "workflow-events";
     private static final String TASK_EVENTS_TOPIC = "task-events";
     private static final String APPROVAL_EVENTS_TOPIC = "approval-events";
@@ -81,7 +84,9 @@ public class EventPublisher {
         event.setStatus("CREATED");
         event.setUserId(assignedUserId);
         event.setUsername(assignedUsername);
-        event.setMessage(String.format("Task '%s' created and assigned to %s", taskTitle, assignedUsername));
+        event.setMessage(assignedUsername != null
+                ? String.format("Task '%s' created and assigned to %s", taskTitle, assignedUsername)
+                : String.format("Task '%s' created, waiting to be claimed", taskTitle));
         event.setTimestamp(LocalDateTime.now());
         
         Map<String, Object> metadata = new HashMap<>();
@@ -187,10 +192,14 @@ public class EventPublisher {
      * Publish event to Kafka
      */
     private void publishEvent(String topic, WorkflowEvent event) {
+        long start = System.nanoTime();
         try {
-            kafkaTemplate.send(topic, event.getEventId(), event);
-            logger.info("Published event {} to topic {}: {}", event.getEventType(), topic, event.getMessage());
+            kafkaTemplate.send(topic, event.getEventId(), event)
+                    .whenComplete((result, ex) ->
+                            metricsService.recordKafkaPublish(topic, ex == null, System.nanoTime() - start));
+            logger.debug("Published event {} to topic {}: {}", event.getEventType(), topic, event.getMessage());
         } catch (Exception e) {
+            metricsService.recordKafkaPublish(topic, false, System.nanoTime() - start);
             logger.error("Failed to publish event to Kafka: {}", e.getMessage(), e);
         }
     }
@@ -0,0 +1,161 @@
+package com.locknroll.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.locknroll.entity.Fruit;
+import com.locknroll.entity.FruitTransaction;
+import com.locknroll.repository.FruitRepository;
+import com.locknroll.repository.TaskRepository;
+import com.locknroll.repository.TaskSummaryView;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoIterable;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service for streaming bulk exports as NDJSON (one JSON document per line).
+ * Rows are read through database cursors and written as they arrive, so memory
+ * use stays constant regardless of how many rows are exported.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    private static final int MONGO_BATCH_SIZE = 500;
+
+    @Autowired
+    private FruitRepository fruitRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private ObjectWriter lineWriter;
+
+    @PostConstruct
+    void init() {
+        // Let the generator buffer across rows instead of flushing the response after every line
+        lineWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Write all fruits as NDJSON, detaching each entity once written
+     */
+    @Transactional(readOnly = true)
+    public long exportFruits(OutputStream out) throws IOException {
+        try (Stream<Fruit> fruits = fruitRepository.streamAll();
+             JsonGenerator generator = createGenerator(out)) {
+            long count = 0;
+            Iterator<Fruit> iterator = fruits.iterator();
+            while (iterator.hasNext()) {
+                Fruit fruit = iterator.next();
+                writeLine(generator, fruit);
+                entityManager.detach(fruit);
+                count++;
+            }
+            logger.info("Exported {} fruits", count);
+            return count;
+        }
+    }
+
+    /**
+     * Write all tasks as NDJSON using the flat task projection
+     */
+    @Transactional(readOnly = true)
+    public long exportTasks(OutputStream out) throws IOException {
+        try (Stream<TaskSummaryView> tasks = taskRepository.streamAllSummaries();
+             JsonGenerator generator = createGenerator(out)) {
+            long count = 0;
+            Iterator<TaskSummaryView> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                writeLine(generator, taskService.convertToDto(iterator.next()));
+                count++;
+            }
+            logger.info("Exported {} tasks", count);
+            return count;
+        }
+    }
+
+    /**
+     * Write fruit transactions as NDJSON through a Mongo cursor, optionally for a single fruit
+     */
+    public long exportFruitTransactions(Long fruitId, OutputStream out) throws IOException {
+        Query query = fruitId != null
+                ? Query.query(Criteria.where("fruitId").is(fruitId))
+                : new Query();
+        query.with(Sort.by(Sort.Direction.ASC, "timestamp"));
+        query.cursorBatchSize(MONGO_BATCH_SIZE);
+
+        try (Stream<FruitTransaction> transactions = mongoTemplate.stream(query, FruitTransaction.class);
+             JsonGenerator generator = createGenerator(out)) {
+            long count = 0;
+            Iterator<FruitTransaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                writeLine(generator, iterator.next());
+                count++;
+            }
+            logger.info("Exported {} fruit transactions", count);
+            return count;
+        }
+    }
+
+    /**
+     * Write aggregation results as NDJSON, reading them batch by batch from the aggregation cursor
+     */
+    public long exportAggregation(String report, MongoIterable<Document> results, OutputStream out) throws IOException {
+        try (MongoCursor<Document> cursor = results.cursor();
+             JsonGenerator generator = createGenerator(out)) {
+            long count = 0;
+            while (cursor.hasNext()) {
+                writeLine(generator, cursor.next());
+                count++;
+            }
+            logger.info("Exported {} {} rows", count, report);
+            return count;
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // The servlet container owns the response stream
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are delimited explicitly instead of Jackson's default space between root values
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    private void writeLine(JsonGenerator generator, Object value) throws IOException {
+        lineWriter.writeValue(generator, value);
+        generator.writeRaw('\n');
+    }
+}
@@ -1,12 +1,18 @@
 package com.locknroll.service;
 
+import com.locknroll.config.AsyncConfig;
 import com.locknroll.entity.Fruit;
 import com.locknroll.entity.FruitTransaction;
+import com.locknroll.exception.StaleLockException;
 import com.locknroll.repository.FruitRepository;
 import com.locknroll.repository.FruitTransactionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
@@ -18,6 +24,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for Fruit operations with Redis caching and distributed locking
@@ -28,15 +36,31 @@ public class FruitService {
     
     private static final Logger logger = LoggerFactory.getLogger(FruitService.class);
     
+    private static final long LOCK_WAIT_MS = 10_000;
+    private static final String FRUIT_CACHE = "fruits";
+    
     @Autowired
     private FruitRepository fruitRepository;
     
     @Autowired
     private FruitTransactionRepository transactionRepository;
     
+    @Autowired
+    private FruitTransactionRollupService rollupService;
+    
     @Autowired
     private DistributedLockService lockService;
     
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    @Qualifier(AsyncConfig.AUDIT_EXECUTOR)
+    private Executor auditExecutor;
+    
+    @Value("${app.lock.fruit-lease-ms:5000}")
+    private long lockLeaseMs;
+    
     /**
      * Get fruit by ID with caching
      */
@@ -46,6 +70,30 @@ public class FruitService {
         return fruitRepository.findById(id);
     }
     
+    /**
+     * Get fruit by ID through the same cache entry as findById, logging the read with whether it
+     * was served from the cache (feeds the cache hit ratio report)
+     */
+    public Optional<Fruit> getFruitById(Long id) {
+        Cache cache = cacheManager.getCache(FRUIT_CACHE);
+        Cache.ValueWrapper cached = cache != null ? cache.get(id) : null;
+        boolean cacheHit = cached != null;
+        Optional<Fruit> fruit;
+        if (cacheHit) {
+            fruit = Optional.ofNullable((Fruit) cached.get());
+        } else {
+            logger.debug("Fetching fruit from database: {}", id);
+            fruit = fruitRepository.findById(id);
+            if (cache != null) {
+                // Same entry @Cacheable would store for findById
+                cache.put(id, fruit.orElse(null));
+            }
+        }
+        fruit.ifPresent(f -> logTransaction(id, f.getName(), "READ", null, f.getQuantity(),
+                null, f.getPrice(), null, cacheHit));
+        return fruit;
+    }
+    
     /**
      * Get fruit by name with caching
      */
@@ -86,7 +134,7 @@ public class FruitService {
         
         // Log transaction
         logTransaction(savedFruit.getId(), savedFruit.getName(), "CREATE", 
-                      null, savedFruit.getQuantity(), null, savedFruit.getPrice());
+                      null, savedFruit.getQuantity(), null, savedFruit.getPrice(), null, null);
         
         logger.info("Created fruit: {}", savedFruit);
         return savedFruit;
@@ -103,17 +151,22 @@ public class FruitService {
      * - This approach prevents stale cache data while letting @Cacheable handle caching
      */
     public Fruit updateFruit(Long id, Fruit updatedFruit) {
-        String lockKey = "fruit:update:" + id; //fruit:update:2
-        
-        return lockService.executeWithLock(lockKey, () -> updateFruitInternal(id, updatedFruit));
+        return lockService.executeWithFencedLock(getFruitQuantityLockKey(id), LOCK_WAIT_MS, lockLeaseMs,
+                TimeUnit.MILLISECONDS, token -> updateFruitInternal(id, updatedFruit, token, System.nanoTime()));
     }
     
     /**
      * Internal method to update fruit without locking
-     * This method contains the actual update logic and is called within the distributed lock
+     * This method contains the actual update logic and is called within the distributed lock;
+     * the fencing token is claimed on the row first, so a holder whose lease expired cannot
+     * overwrite a newer holder's changes
      */
-    private Fruit updateFruitInternal(Long id, Fruit updatedFruit) {
-        logger.info("Thread {} updating fruit: {}", Thread.currentThread().getName(), id);
+    private Fruit updateFruitInternal(Long id, Fruit updatedFruit, long token, long lockedAt) {
+        logger.debug("Thread {} updating fruit: {}", Thread.currentThread().getName(), id);
+        
+        if (fruitRepository.claimFence(id, token) == 0) {
+            throw fencedWriteRejected(id, token);
+        }
         
         Fruit existingFruit = fruitRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Fruit not found with id: " + id));
@@ -137,9 +190,9 @@ public class FruitService {
         // Log transaction
         logTransaction(id, savedFruit.getName(), "UPDATE", 
                       oldQuantity, savedFruit.getQuantity(), 
-                      oldPrice, savedFruit.getPrice());
+                      oldPrice, savedFruit.getPrice(), heldMs(lockedAt), null);
         
-        logger.info("Thread {} updated fruit: {}", Thread.currentThread().getName(), savedFruit);
+        logger.debug("Thread {} updated fruit: {}", Thread.currentThread().getName(), savedFruit);
         return savedFruit;
     }
     
@@ -147,24 +200,26 @@ public class FruitService {
      * Purchase fruit (decrease quantity) with distributed locking
      */
     public Fruit purchaseFruit(Long id, Integer quantity) {
-        String lockKey = "fruit:purchase:" + id;
-        
-        return lockService.executeWithLock(lockKey, () -> {
-            logger.info("Thread {} purchasing {} units of fruit: {}", 
+        return lockService.executeWithFencedLock(getFruitQuantityLockKey(id), LOCK_WAIT_MS, lockLeaseMs,
+                TimeUnit.MILLISECONDS, token -> {
+            long lockedAt = System.nanoTime();
+            logger.debug("Thread {} purchasing {} units of fruit: {}", 
                        Thread.currentThread().getName(), quantity, id);
             
-            Fruit fruit = fruitRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Fruit not found with id: " + id));
-            
-            if (fruit.getQuantity() < quantity) {
+            // Stock check and fencing check happen in the same conditional update
+            if (fruitRepository.decrementQuantityFenced(id, quantity, token) == 0) {
+                Fruit fruit = fruitRepository.findById(id)
+                        .orElseThrow(() -> new RuntimeException("Fruit not found with id: " + id));
+                if (isFencedOut(fruit, token)) {
+                    throw staleLock(id, token, fruit);
+                }
                 throw new RuntimeException("Insufficient stock. Available: " + fruit.getQuantity() + 
                                          ", Requested: " + quantity);
             }
             
-            Integer oldQuantity = fruit.getQuantity();
-            fruit.setQuantity(fruit.getQuantity() - quantity);
-            
-            Fruit savedFruit = fruitRepository.save(fruit);
+            Fruit savedFruit = fruitRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Fruit not found with id: " + id));
+            Integer oldQuantity = savedFruit.getQuantity() + quantity;
             
             // Evict cache
             evictFruitCache(id, savedFruit.getName());
@@ -172,9 +227,9 @@ public class FruitService {
             // Log transaction
             logTransaction(id, savedFruit.getName(), "PURCHASE", 
                           oldQuantity, savedFruit.getQuantity(), 
-                          savedFruit.getPrice(), savedFruit.getPrice());
+                          savedFruit.getPrice(), savedFruit.getPrice(), heldMs(lockedAt), null);
             
-            logger.info("Thread {} purchased {} units of fruit: {}. Remaining: {}", 
+            logger.debug("Thread {} purchased {} units of fruit: {}. Remaining: {}", 
                        Thread.currentThread().getName(), quantity, savedFruit.getName(), 
                        savedFruit.getQuantity());
             
@@ -231,19 +286,19 @@ public class FruitService {
      * Restock fruit (increase quantity) with distributed locking
      */
     public Fruit restockFruit(Long id, Integer quantity) {
-        String lockKey = "fruit:restock:" + id;
-        
-        return lockService.executeWithLock(lockKey, () -> {
-            logger.info("Thread {} restocking {} units of fruit: {}", 
+        return lockService.executeWithFencedLock(getFruitQuantityLockKey(id), LOCK_WAIT_MS, lockLeaseMs,
+                TimeUnit.MILLISECONDS, token -> {
+            long lockedAt = System.nanoTime();
+            logger.debug("Thread {} restocking {} units of fruit: {}", 
                        Thread.currentThread().getName(), quantity, id);
             
-            Fruit fruit = fruitRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Fruit not found with id: " + id));
-            
-            Integer oldQuantity = fruit.getQuantity();
-            fruit.setQuantity(fruit.getQuantity() + quantity);
+            if (fruitRepository.incrementQuantityFenced(id, quantity, token) == 0) {
+                throw fencedWriteRejected(id, token);
+            }
             
-            Fruit savedFruit = fruitRepository.save(fruit);
+            Fruit savedFruit = fruitRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Fruit not found with id: " + id));
+            Integer oldQuantity = savedFruit.getQuantity() - quantity;
             
             // Evict cache
             evictFruitCache(id, savedFruit.getName());
@@ -251,9 +306,9 @@ public class FruitService {
             // Log transaction
             logTransaction(id, savedFruit.getName(), "RESTOCK", 
                           oldQuantity, savedFruit.getQuantity(), 
-                          savedFruit.getPrice(), savedFruit.getPrice());
+                          savedFruit.getPrice(), savedFruit.getPrice(), heldMs(lockedAt), null);
             
-            logger.info("Thread {} restocked {} units of fruit: {}. New total: {}", 
+            logger.debug("Thread {} restocked {} units of fruit: {}. New total: {}", 
                        Thread.currentThread().getName(), quantity, savedFruit.getName(), 
                        savedFruit.getQuantity());
             
@@ -261,6 +316,26 @@ public class FruitService {
         });
     }
     
+    /**
+     * Exception for a fenced write that matched no row: the fruit is gone, or a newer
+     * lock holder has already written it
+     */
+    private RuntimeException fencedWriteRejected(Long id, long token) {
+        Fruit fruit = fruitRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Fruit not found with id: " + id));
+        return staleLock(id, token, fruit);
+    }
+    
+    private boolean isFencedOut(Fruit fruit, long token) {
+        return fruit.getFenceToken() != null && fruit.getFenceToken() >= token;
+    }
+    
+    private StaleLockException staleLock(Long id, long token, Fruit fruit) {
+        logger.warn("Rejected write to fruit {} with stale fencing token {} (current {})",
+                id, token, fruit.getFenceToken());
+        return new StaleLockException("Lock lease on fruit " + id + " expired; a newer holder has written it");
+    }
+    
     /**
      * Delete fruit
      */
@@ -275,7 +350,7 @@ public class FruitService {
         
         // Log transaction
         logTransaction(id, fruit.getName(), "DELETE", 
-                      fruit.getQuantity(), 0, fruit.getPrice(), null);
+                      fruit.getQuantity(), 0, fruit.getPrice(), null, null, null);
         
         logger.info("Deleted fruit: {}", fruit.getName());
     }
@@ -314,12 +389,26 @@ public class FruitService {
         evictFruitCacheByName(name);
     }
     
+    /**
+     * Time the fruit lock has been held so far, for the transaction log
+     */
+    private static long heldMs(long lockedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lockedAt);
+    }
+    
     /**
      * Log transaction to MongoDB
+     * 
+     * The record is built on the calling thread and written on the audit executor,
+     * so the Mongo round trip is not part of the lock hold time
+     * 
+     * @param lockDurationMs how long the fruit lock was held, null outside a lock
+     * @param cacheHit whether a read was served from the fruits cache, null for writes
      */
     private void logTransaction(Long fruitId, String fruitName, String operationType,
                                Integer oldQuantity, Integer newQuantity,
-                               BigDecimal oldPrice, BigDecimal newPrice) {
+                               BigDecimal oldPrice, BigDecimal newPrice,
+                               Long lockDurationMs, Boolean cacheHit) {
         try {
             FruitTransaction transaction = new FruitTransaction(fruitId, fruitName, operationType);
             transaction.setOldQuantity(oldQuantity);
@@ -334,11 +423,23 @@ public class FruitService {
             transaction.setSessionId(UUID.randomUUID().toString());
             transaction.setThreadName(Thread.currentThread().getName());
             transaction.setTimestamp(LocalDateTime.now());
+            transaction.setLockAcquired(lockDurationMs != null ? Boolean.TRUE : null);
+            transaction.setLockDurationMs(lockDurationMs);
+            transaction.setCacheHit(cacheHit);
             
+            auditExecutor.execute(() -> saveTransaction(transaction));
+        } catch (Exception e) {
+            logger.error("Failed to log transaction for fruit: {}", fruitId, e);
+        }
+    }
+    
+    private void saveTransaction(FruitTransaction transaction) {
+        try {
             transactionRepository.save(transaction);
+            rollupService.record(transaction);
             logger.debug("Logged transaction: {}", transaction);
         } catch (Exception e) {
-            logger.error("Failed to log transaction for fruit: {}", fruitId, e);
+            logger.error("Failed to log transaction for fruit: {}", transaction.getFruitId(), e);
         }
     }
 }
@@ -0,0 +1,190 @@
+package com.locknroll.service;
+
+import com.locknroll.entity.FruitTransaction;
+import com.locknroll.entity.FruitTransactionRollup;
+import com.mongodb.client.AggregateIterable;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fruit transaction analytics computed inside MongoDB.
+ *
+ * Each report is an aggregation pipeline run with allowDiskUse and returned as a lazy cursor, so
+ * large ranges spill to disk in Mongo rather than into the JVM and rows are streamed out batch by
+ * batch (see ExportService.exportAggregation). Reports over counts and totals read the hourly or
+ * per-minute rollups; only the lock duration percentiles need raw events, so the contention
+ * report is limited to the raw retention window. $dateTrunc needs MongoDB 5.0 and $percentile 7.0.
+ */
+@Service
+public class FruitTransactionAnalyticsService {
+
+    private static final int CURSOR_BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.analytics.max-time-seconds:120}")
+    private long maxTimeSeconds;
+
+    /**
+     * Units sold and restocked per fruit over [from, to), with hourly rates over the whole range;
+     * fastest-selling first
+     */
+    public AggregateIterable<Document> stockVelocity(LocalDateTime from, LocalDateTime to, Long fruitId) {
+        double hours = Math.max(1.0, Duration.between(from, to).toMinutes() / 60.0);
+        List<Document> pipeline = List.of(
+                matchRollups(from, to, fruitId, true),
+                new Document("$group", new Document("_id", "$fruit_id")
+                        .append("units_out", new Document("$sum", "$quantity_out"))
+                        .append("units_in", new Document("$sum", "$quantity_in"))
+                        .append("net_change", new Document("$sum", "$quantity_change"))
+                        .append("transactions", new Document("$sum", "$count"))
+                        .append("active_hours", new Document("$sum", 1))
+                        .append("last_activity", new Document("$max", "$bucket_start"))),
+                new Document("$project", new Document("_id", 0)
+                        .append("fruit_id", "$_id")
+                        .append("units_out", 1)
+                        .append("units_in", 1)
+                        .append("net_change", 1)
+                        .append("transactions", 1)
+                        .append("active_hours", 1)
+                        .append("last_activity", 1)
+                        .append("units_out_per_hour", new Document("$divide", List.of("$units_out", hours)))
+                        .append("units_in_per_hour", new Document("$divide", List.of("$units_in", hours)))),
+                new Document("$sort", new Document("units_out_per_hour", -1).append("fruit_id", 1)));
+        return aggregate(FruitTransactionRollup.HOUR_COLLECTION, pipeline);
+    }
+
+    /**
+     * Lock hold time percentiles (p50, p95, p99) and maximum per fruit and hour of day, from raw
+     * events that recorded a lock duration. $percentile needs MongoDB 7.0.
+     */
+    public AggregateIterable<Document> contentionHeatmap(LocalDateTime from, LocalDateTime to, Long fruitId) {
+        Document filter = new Document("timestamp", new Document("$gte", toDate(from)).append("$lt", toDate(to)))
+                .append("lock_duration_ms", new Document("$ne", null));
+        if (fruitId != null) {
+            filter.append("fruit_id", fruitId);
+        }
+        List<Document> pipeline = List.of(
+                new Document("$match", filter),
+                new Document("$group", new Document("_id", new Document("fruit_id", "$fruit_id")
+                                .append("hour_of_day", new Document("$hour", new Document("date", "$timestamp")
+                                        .append("timezone", zone()))))
+                        .append("samples", new Document("$sum", 1))
+                        .append("percentiles", new Document("$percentile", new Document("input", "$lock_duration_ms")
+                                .append("p", List.of(0.5, 0.95, 0.99))
+                                .append("method", "approximate")))
+                        .append("max_ms", new Document("$max", "$lock_duration_ms"))),
+                new Document("$project", new Document("_id", 0)
+                        .append("fruit_id", "$_id.fruit_id")
+                        .append("hour_of_day", "$_id.hour_of_day")
+                        .append("samples", 1)
+                        .append("p50_ms", new Document("$arrayElemAt", List.of("$percentiles", 0)))
+                        .append("p95_ms", new Document("$arrayElemAt", List.of("$percentiles", 1)))
+                        .append("p99_ms", new Document("$arrayElemAt", List.of("$percentiles", 2)))
+                        .append("max_ms", 1)),
+                new Document("$sort", new Document("fruit_id", 1).append("hour_of_day", 1)));
+        return aggregate(FruitTransaction.COLLECTION, pipeline);
+    }
+
+    /**
+     * Transactions per operation type per interval, oldest first
+     *
+     * @param interval "minute" (per-minute rollups, within their retention), "hour" or "day"
+     */
+    public AggregateIterable<Document> operationMix(LocalDateTime from, LocalDateTime to, String interval, Long fruitId) {
+        String collection = "minute".equalsIgnoreCase(interval)
+                ? FruitTransactionRollup.MINUTE_COLLECTION
+                : FruitTransactionRollup.HOUR_COLLECTION;
+        String unit = truncationUnit(interval);
+        List<Document> pipeline = List.of(
+                matchRollups(from, to, fruitId, FruitTransactionRollup.HOUR_COLLECTION.equals(collection)),
+                new Document("$project", new Document("bucket", new Document("$dateTrunc", new Document("date", "$bucket_start")
+                                .append("unit", unit)
+                                .append("timezone", zone())))
+                        .append("operations", new Document("$objectToArray", new Document("$ifNull", List.of("$operations", new Document()))))),
+                new Document("$unwind", "$operations"),
+                new Document("$group", new Document("_id", new Document("bucket", "$bucket").append("operation", "$operations.k"))
+                        .append("count", new Document("$sum", "$operations.v"))),
+                new Document("$group", new Document("_id", "$_id.bucket")
+                        .append("total", new Document("$sum", "$count"))
+                        .append("operations", new Document("$push", new Document("k", "$_id.operation").append("v", "$count")))),
+                new Document("$project", new Document("_id", 0)
+                        .append("bucket_start", "$_id")
+                        .append("total", 1)
+                        .append("operations", new Document("$arrayToObject", "$operations"))),
+                new Document("$sort", new Document("bucket_start", 1)));
+        return aggregate(collection, pipeline);
+    }
+
+    /**
+     * Share of fruit lookups served from cache per fruit, lowest ratio first; fruits without
+     * lookups in the range are left out
+     */
+    public AggregateIterable<Document> cacheHitRatios(LocalDateTime from, LocalDateTime to, Long fruitId) {
+        List<Document> pipeline = List.of(
+                matchRollups(from, to, fruitId, true),
+                new Document("$group", new Document("_id", "$fruit_id")
+                        .append("cache_hits", new Document("$sum", "$cache_hits"))
+                        .append("cache_misses", new Document("$sum", "$cache_misses"))),
+                new Document("$project", new Document("_id", 0)
+                        .append("fruit_id", "$_id")
+                        .append("lookups", new Document("$add", List.of("$cache_hits", "$cache_misses")))
+                        .append("cache_hits", 1)
+                        .append("cache_misses", 1)),
+                new Document("$match", new Document("lookups", new Document("$gt", 0))),
+                new Document("$addFields", new Document("hit_ratio", new Document("$divide", List.of("$cache_hits", "$lookups")))),
+                new Document("$sort", new Document("hit_ratio", 1).append("fruit_id", 1)));
+        return aggregate(FruitTransactionRollup.HOUR_COLLECTION, pipeline);
+    }
+
+    private AggregateIterable<Document> aggregate(String collection, List<Document> pipeline) {
+        return mongoTemplate.getCollection(collection)
+                .aggregate(new ArrayList<>(pipeline))
+                .allowDiskUse(true)
+                .batchSize(CURSOR_BATCH_SIZE)
+                .maxTime(maxTimeSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Rollup buckets starting in [from, to); for hour rollups from is rounded down to the hour so
+     * the first partial hour is included, minute rollups are matched exactly
+     */
+    private static Document matchRollups(LocalDateTime from, LocalDateTime to, Long fruitId, boolean hourBuckets) {
+        LocalDateTime start = hourBuckets ? from.truncatedTo(ChronoUnit.HOURS) : from.truncatedTo(ChronoUnit.MINUTES);
+        Document filter = new Document("bucket_start", new Document("$gte", toDate(start))
+                .append("$lt", toDate(to)));
+        if (fruitId != null) {
+            filter.append("fruit_id", fruitId);
+        }
+        return new Document("$match", filter);
+    }
+
+    private static String truncationUnit(String interval) {
+        if ("minute".equalsIgnoreCase(interval) || "hour".equalsIgnoreCase(interval) || "day".equalsIgnoreCase(interval)) {
+            return interval.toLowerCase();
+        }
+        throw new IllegalArgumentException("Unknown interval: " + interval);
+    }
+
+    // Buckets are truncated in the JVM's zone (see FruitTransactionRollupService)
+    private static String zone() {
+        return ZoneId.systemDefault().getId();
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
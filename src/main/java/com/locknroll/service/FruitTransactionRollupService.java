@@ -0,0 +1,289 @@
+package com.locknroll.service;
+
+import com.locknroll.entity.FruitTransaction;
+import com.locknroll.entity.FruitTransactionRollup;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-minute and per-hour rollups of fruit transactions.
+ *
+ * Every logged transaction is added to its fruit's minute and hour bucket with an upsert of $inc
+ * and $max operators, so rollups stay current without rereading raw events. rebuildRollups
+ * recomputes buckets from the raw time-series collection with an aggregation pipeline, for
+ * backfills; it only sees events still within the raw retention. addRollupsOnce adds events from
+ * another collection on top of buckets that already hold live increments.
+ */
+@Service
+public class FruitTransactionRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FruitTransactionRollupService.class);
+
+    private static final Map<String, ChronoUnit> BUCKETS = Map.of(
+            FruitTransactionRollup.MINUTE_COLLECTION, ChronoUnit.MINUTES,
+            FruitTransactionRollup.HOUR_COLLECTION, ChronoUnit.HOURS);
+
+    private static final String UNKNOWN_OPERATION = "UNKNOWN";
+
+    // Totals added together when events are added to an existing bucket
+    private static final List<String> SUM_FIELDS = List.of("count", "quantity_change", "quantity_in", "quantity_out",
+            "price_change", "price_changes", "lock_count", "lock_duration_total_ms", "cache_hits", "cache_misses");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Add a logged transaction to its minute and hour buckets
+     */
+    public void record(FruitTransaction transaction) {
+        if (transaction.getFruitId() == null || transaction.getTimestamp() == null) {
+            return;
+        }
+        Update update = increments(transaction);
+        for (Map.Entry<String, ChronoUnit> bucket : BUCKETS.entrySet()) {
+            LocalDateTime bucketStart = transaction.getTimestamp().truncatedTo(bucket.getValue());
+            mongoTemplate.upsert(bucketQuery(transaction.getFruitId(), bucketStart), update,
+                    FruitTransactionRollup.class, bucket.getKey());
+        }
+    }
+
+    /**
+     * Rollups of one fruit for buckets starting in [from, to), oldest first
+     *
+     * @param granularity "minute" or "hour"
+     */
+    public List<FruitTransactionRollup> findRollups(Long fruitId, String granularity, LocalDateTime from, LocalDateTime to) {
+        Query query = Query.query(Criteria.where("fruitId").is(fruitId).and("bucketStart").gte(from).lt(to))
+                .with(Sort.by(Sort.Direction.ASC, "bucketStart"));
+        return mongoTemplate.find(query, FruitTransactionRollup.class, collectionFor(granularity));
+    }
+
+    /**
+     * Recompute the minute and hour buckets covering [from, to) from raw events, replacing the
+     * stored buckets. Bounds are widened to whole hours so no bucket is rebuilt from part of its data.
+     */
+    public void rebuildRollups(LocalDateTime from, LocalDateTime to) {
+        rebuildRollups(FruitTransaction.COLLECTION, from, to);
+    }
+
+    /**
+     * Same as rebuildRollups(from, to), reading raw events from another collection with the
+     * fruit_transactions layout
+     */
+    public void rebuildRollups(String sourceCollection, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.HOURS).equals(to) ? to : to.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        for (Map.Entry<String, ChronoUnit> bucket : BUCKETS.entrySet()) {
+            mongoTemplate.getCollection(sourceCollection)
+                    .aggregate(rebuildPipeline(bucket.getKey(), bucket.getValue(), start, end))
+                    .allowDiskUse(true)
+                    .toCollection();
+        }
+        logger.info("Rebuilt fruit transaction rollups from {} for {} to {}", sourceCollection, start, end);
+    }
+
+    /**
+     * Add raw events in [from, to) from sourceCollection to the minute and hour buckets, keeping
+     * what they already hold (e.g. live increments). Each bucket is flagged with marker in the same
+     * update that adds to it and flagged buckets are left alone, so a run that failed part way can
+     * be repeated without counting anything twice. Bounds are used as given.
+     */
+    public void addRollupsOnce(String sourceCollection, LocalDateTime from, LocalDateTime to, String marker) {
+        for (Map.Entry<String, ChronoUnit> bucket : BUCKETS.entrySet()) {
+            List<Document> pipeline = new ArrayList<>(bucketStages(bucket.getValue(), from, to));
+            pipeline.add(new Document("$set", new Document(marker, true)));
+            pipeline.add(new Document("$merge", new Document("into", bucket.getKey())
+                    .append("on", List.of("fruit_id", "bucket_start"))
+                    .append("whenMatched", List.of(addOnceStage(marker)))
+                    .append("whenNotMatched", "insert")));
+            mongoTemplate.getCollection(sourceCollection).aggregate(pipeline).allowDiskUse(true).toCollection();
+        }
+        logger.info("Added fruit transactions from {} for {} to {} to the rollups", sourceCollection, from, to);
+    }
+
+    /**
+     * Collection holding rollups of the given granularity
+     */
+    static String collectionFor(String granularity) {
+        if ("minute".equalsIgnoreCase(granularity)) {
+            return FruitTransactionRollup.MINUTE_COLLECTION;
+        }
+        if ("hour".equalsIgnoreCase(granularity)) {
+            return FruitTransactionRollup.HOUR_COLLECTION;
+        }
+        throw new IllegalArgumentException("Unknown rollup granularity: " + granularity);
+    }
+
+    private static Query bucketQuery(Long fruitId, LocalDateTime bucketStart) {
+        return Query.query(Criteria.where("fruitId").is(fruitId).and("bucketStart").is(bucketStart));
+    }
+
+    private static Update increments(FruitTransaction transaction) {
+        String operation = transaction.getOperationType() != null ? transaction.getOperationType() : UNKNOWN_OPERATION;
+        Update update = new Update()
+                .inc("count", 1L)
+                .inc("operations." + operation, 1L);
+
+        Integer quantityChange = transaction.getQuantityChange();
+        if (quantityChange != null && quantityChange != 0) {
+            update.inc("quantity_change", (long) quantityChange);
+            update.inc(quantityChange > 0 ? "quantity_in" : "quantity_out", (long) Math.abs(quantityChange));
+        }
+
+        BigDecimal priceChange = transaction.getPriceChange();
+        if (priceChange != null && priceChange.signum() != 0) {
+            update.inc("price_change", new Decimal128(priceChange));
+            update.inc("price_changes", 1L);
+        }
+
+        Long lockDurationMs = transaction.getLockDurationMs();
+        if (lockDurationMs != null) {
+            update.inc("lock_count", 1L);
+            update.inc("lock_duration_total_ms", lockDurationMs);
+            update.max("lock_duration_max_ms", lockDurationMs);
+        }
+
+        // Only cache-aware reads set cacheHit; writes count as neither
+        if (transaction.getCacheHit() != null) {
+            update.inc(transaction.getCacheHit() ? "cache_hits" : "cache_misses", 1L);
+        }
+        return update;
+    }
+
+    /**
+     * Raw events in [start, end) merged into the rollup collection on its unique
+     * (fruit_id, bucket_start) index, replacing what the buckets held
+     */
+    private static List<Document> rebuildPipeline(String collection, ChronoUnit unit, LocalDateTime start, LocalDateTime end) {
+        List<Document> pipeline = new ArrayList<>(bucketStages(unit, start, end));
+        pipeline.add(new Document("$merge", new Document("into", collection)
+                .append("on", List.of("fruit_id", "bucket_start"))
+                .append("whenMatched", "replace")
+                .append("whenNotMatched", "insert")));
+        return pipeline;
+    }
+
+    /**
+     * $merge update for addRollupsOnce: a bucket without the marker gets the new totals added,
+     * the larger max and per-operation counts summed by key; one with the marker is kept as is
+     */
+    private static Document addOnceStage(String marker) {
+        Document added = new Document();
+        for (String field : SUM_FIELDS) {
+            added.append(field, new Document("$add", List.of(
+                    new Document("$ifNull", List.of("$" + field, 0)),
+                    new Document("$ifNull", List.of("$$new." + field, 0)))));
+        }
+        added.append("lock_duration_max_ms", new Document("$max", List.of("$lock_duration_max_ms", "$$new.lock_duration_max_ms")));
+
+        Document operations = new Document("$concatArrays", List.of(
+                new Document("$objectToArray", new Document("$ifNull", List.of("$operations", new Document()))),
+                new Document("$objectToArray", new Document("$ifNull", List.of("$$new.operations", new Document())))));
+        Document operationCount = new Document("$sum", new Document("$map", new Document("input",
+                new Document("$filter", new Document("input", operations)
+                        .append("cond", new Document("$eq", List.of("$$this.k", "$$op")))))
+                .append("in", "$$this.v")));
+        added.append("operations", new Document("$arrayToObject", new Document("$map", new Document("input",
+                new Document("$setUnion", List.of(new Document("$map", new Document("input", operations).append("in", "$$this.k")))))
+                .append("as", "op")
+                .append("in", new Document("k", "$$op").append("v", operationCount)))));
+        added.append(marker, true);
+
+        return new Document("$replaceWith", new Document("$cond", List.of(
+                new Document("$eq", List.of("$" + marker, true)),
+                "$$ROOT",
+                new Document("$mergeObjects", List.of("$$ROOT", added)))));
+    }
+
+    /**
+     * Raw events in [start, end) grouped per fruit, bucket and operation, then per fruit and
+     * bucket, shaped like a rollup document. Buckets are truncated in the JVM's zone, matching record().
+     */
+    private static List<Document> bucketStages(ChronoUnit unit, LocalDateTime start, LocalDateTime end) {
+        String zone = ZoneId.systemDefault().getId();
+        Document match = new Document("$match", new Document("timestamp",
+                new Document("$gte", toDate(start)).append("$lt", toDate(end))));
+
+        Document project = new Document("$project", new Document("fruit_id", 1)
+                .append("bucket_start", new Document("$dateTrunc", new Document("date", "$timestamp")
+                        .append("unit", unit == ChronoUnit.MINUTES ? "minute" : "hour")
+                        .append("timezone", zone)))
+                .append("op", new Document("$ifNull", List.of("$operation_type", UNKNOWN_OPERATION)))
+                .append("q", new Document("$ifNull", List.of("$quantity_change", 0)))
+                .append("p", new Document("$toDecimal", new Document("$ifNull", List.of("$price_change", 0))))
+                .append("lock", "$lock_duration_ms")
+                .append("hit", new Document("$cond", List.of(new Document("$eq", List.of("$cache_hit", true)), 1, 0)))
+                .append("miss", new Document("$cond", List.of(new Document("$eq", List.of("$cache_hit", false)), 1, 0))));
+
+        Document byOperation = new Document("$group", new Document("_id", new Document("fruit_id", "$fruit_id")
+                        .append("bucket_start", "$bucket_start")
+                        .append("op", "$op"))
+                .append("count", new Document("$sum", 1L))
+                .append("quantity_change", new Document("$sum", "$q"))
+                .append("quantity_in", new Document("$sum", new Document("$max", List.of("$q", 0))))
+                .append("quantity_out", new Document("$sum", new Document("$max", List.of(new Document("$multiply", List.of("$q", -1)), 0))))
+                .append("price_change", new Document("$sum", "$p"))
+                .append("price_changes", new Document("$sum", new Document("$cond", List.of(new Document("$eq", List.of("$p", 0)), 0, 1))))
+                .append("lock_count", new Document("$sum", new Document("$cond", List.of(new Document("$gt", Arrays.asList("$lock", null)), 1, 0))))
+                .append("lock_duration_total_ms", new Document("$sum", "$lock"))
+                .append("lock_duration_max_ms", new Document("$max", "$lock"))
+                .append("cache_hits", new Document("$sum", "$hit"))
+                .append("cache_misses", new Document("$sum", "$miss")));
+
+        Document byBucket = new Document("$group", new Document("_id", new Document("fruit_id", "$_id.fruit_id")
+                        .append("bucket_start", "$_id.bucket_start"))
+                .append("count", new Document("$sum", "$count"))
+                .append("quantity_change", new Document("$sum", "$quantity_change"))
+                .append("quantity_in", new Document("$sum", "$quantity_in"))
+                .append("quantity_out", new Document("$sum", "$quantity_out"))
+                .append("price_change", new Document("$sum", "$price_change"))
+                .append("price_changes", new Document("$sum", "$price_changes"))
+                .append("lock_count", new Document("$sum", "$lock_count"))
+                .append("lock_duration_total_ms", new Document("$sum", "$lock_duration_total_ms"))
+                .append("lock_duration_max_ms", new Document("$max", "$lock_duration_max_ms"))
+                .append("cache_hits", new Document("$sum", "$cache_hits"))
+                .append("cache_misses", new Document("$sum", "$cache_misses"))
+                .append("operations", new Document("$push", new Document("k", "$_id.op").append("v", "$count"))));
+
+        Document shape = new Document("$project", new Document("_id", 0)
+                .append("fruit_id", "$_id.fruit_id")
+                .append("bucket_start", "$_id.bucket_start")
+                .append("count", 1)
+                .append("quantity_change", 1)
+                .append("quantity_in", 1)
+                .append("quantity_out", 1)
+                .append("price_change", 1)
+                .append("price_changes", 1)
+                .append("lock_count", 1)
+                .append("lock_duration_total_ms", 1)
+                .append("lock_duration_max_ms", 1)
+                .append("cache_hits", 1)
+                .append("cache_misses", 1)
+                .append("operations", new Document("$arrayToObject", "$operations")));
+
+        return List.of(match, project, byOperation, byBucket, shape);
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
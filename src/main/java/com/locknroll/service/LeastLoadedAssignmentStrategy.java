@@ -0,0 +1,55 @@
+package com.locknroll.service;
+
+import com.locknroll.repository.TaskRepository;
+import com.locknroll.repository.UserTaskCount;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One task per step, for the member with the fewest open tasks (ties go to the lowest user id).
+ * Counts come from one grouped query over the role's members, so tasks created by transactions
+ * that have not committed yet are not seen.
+ */
+@Component
+public class LeastLoadedAssignmentStrategy implements TaskAssignmentStrategy {
+
+    public static final String NAME = "least-loaded";
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int[] selectAssignees(String roleName, RoleMembershipService.RoleMembers members) {
+        List<Long> userIds = new ArrayList<>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            userIds.add(members.getUserId(i));
+        }
+
+        Map<Long, Long> openTasks = new HashMap<>();
+        for (UserTaskCount count : taskRepository.countOpenTasksByUser(userIds)) {
+            openTasks.put(count.getUserId(), count.getCount());
+        }
+
+        // Members are ordered by user id, so the first minimum is the lowest id
+        int selected = 0;
+        long fewest = Long.MAX_VALUE;
+        for (int i = 0; i < members.size(); i++) {
+            long count = openTasks.getOrDefault(members.getUserId(i), 0L);
+            if (count < fewest) {
+                fewest = count;
+                selected = i;
+            }
+        }
+        return new int[] {selected};
+    }
+}
@@ -0,0 +1,176 @@
+package com.locknroll.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application meters for locks, caches, tasks and Kafka events.
+ *
+ * Lock keys and cache keys are tagged by prefix (the key without its last segment,
+ * e.g. "fruit:purchase:42" -> "fruit:purchase") to keep tag cardinality bounded.
+ * Meters are cached per name and tag values so hot paths skip the registry lookup.
+ */
+@Service
+public class MetricsService {
+
+    public static final String LOCK_WAIT = "locknroll.lock.wait";
+    public static final String LOCK_HOLD = "locknroll.lock.hold";
+    public static final String LOCK_FAILURES = "locknroll.lock.failures";
+    public static final String CACHE_GETS = "locknroll.cache.gets";
+    public static final String CACHE_LOAD = "locknroll.cache.load";
+    public static final String WORKFLOW_START = "locknroll.workflow.start";
+    public static final String TASK_TRANSITIONS = "locknroll.task.transitions";
+    public static final String TASK_CLAIMS = "locknroll.task.claims";
+    public static final String DATASOURCE_ROUTING = "locknroll.datasource.routing";
+    public static final String REPLICA_LAG = "locknroll.datasource.replica.lag";
+    public static final String WORKFLOW_ARCHIVE = "locknroll.workflow.archive";
+    public static final String KAFKA_PUBLISH = "locknroll.kafka.publish";
+    public static final String KAFKA_CONSUME_LAG = "locknroll.kafka.consume.lag";
+    public static final String WEBSOCKET_QUEUE_DEPTH = "locknroll.websocket.queue.depth";
+    public static final String ADMISSION = "locknroll.admission";
+    public static final String EXECUTOR_QUEUE_DEPTH = "locknroll.executor.queue.depth";
+    public static final String EXECUTOR_CALLER_RUNS = "locknroll.executor.caller.runs";
+
+    private static final String NO_PREFIX = "none";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Time spent waiting in tryLock, tagged by whether the lock was obtained
+     */
+    public void recordLockWait(String lockKey, boolean acquired, long nanos) {
+        timer(LOCK_WAIT, "prefix", keyPrefix(lockKey), "acquired", String.valueOf(acquired))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time the lock was held while the critical section ran
+     */
+    public void recordLockHold(String lockKey, long nanos) {
+        timer(LOCK_HOLD, "prefix", keyPrefix(lockKey)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Lock not obtained (reason "timeout" or "interrupted"), or a fenced lease
+     * expired before the task finished ("lease-expired")
+     */
+    public void recordLockFailure(String lockKey, String reason) {
+        counter(LOCK_FAILURES, "prefix", keyPrefix(lockKey), "reason", reason).increment();
+    }
+
+    /**
+     * Admission control decision for a resource
+     */
+    public void recordAdmission(String resourceKey, boolean admitted) {
+        counter(ADMISSION, "prefix", keyPrefix(resourceKey), "outcome", admitted ? "admitted" : "rejected").increment();
+    }
+    
+    /**
+     * Cache lookup through CacheService
+     */
+    public void recordCacheGet(String cacheKey, boolean hit) {
+        counter(CACHE_GETS, "cache", keyPrefix(cacheKey), "result", hit ? "hit" : "miss").increment();
+    }
+
+    /**
+     * Time to build a value after a cache miss
+     */
+    public void recordCacheLoad(String cacheName, long nanos) {
+        timer(CACHE_LOAD, "cache", cacheName).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Task status change; newly created tasks are counted from "NEW"
+     */
+    public void recordTaskTransition(String fromStatus, String toStatus) {
+        counter(TASK_TRANSITIONS,
+                "from", fromStatus != null ? fromStatus : "NEW",
+                "to", toStatus != null ? toStatus : "NONE").increment();
+    }
+
+    /**
+     * Claim queue operation on tasks (action "claim", "takeover", "release" or "heartbeat")
+     */
+    public void recordTaskClaims(String action, int count) {
+        counter(TASK_CLAIMS, "action", action).increment(count);
+    }
+
+    /**
+     * Transaction routed to the primary or the replica, with the reason ("write", "read-only",
+     * "read-your-writes" or "replica-lag")
+     */
+    public void recordDataSourceRoute(String target, String reason) {
+        counter(DATASOURCE_ROUTING, "target", target, "reason", reason).increment();
+    }
+
+    /**
+     * Time from send until the broker acknowledged (or rejected) the record
+     */
+    public void recordKafkaPublish(String topic, boolean success, long nanos) {
+        timer(KAFKA_PUBLISH, "topic", topic, "outcome", success ? "success" : "error")
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * End-to-end delay between an event being created and a listener receiving it
+     */
+    public void recordKafkaConsume(String topic, LocalDateTime eventTimestamp) {
+        if (eventTimestamp == null) {
+            return;
+        }
+        Duration lag = Duration.between(eventTimestamp, LocalDateTime.now());
+        timer(KAFKA_CONSUME_LAG, "topic", topic).record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+
+    /**
+     * A bounded executor was full and the submitting thread ran the task itself
+     */
+    public void recordExecutorCallerRuns(String executor) {
+        counter(EXECUTOR_CALLER_RUNS, "executor", executor).increment();
+    }
+    
+    /**
+     * Rows moved from a hot table into its archive
+     */
+    public void recordArchivedRows(String table, int count) {
+        counter(WORKFLOW_ARCHIVE, "table", table).increment(count);
+    }
+    
+    /**
+     * Key without its last ':'-separated segment, used as a low-cardinality tag
+     */
+    static String keyPrefix(String key) {
+        if (key == null) {
+            return NO_PREFIX;
+        }
+        int separator = key.lastIndexOf(':');
+        return separator > 0 ? key.substring(0, separator) : NO_PREFIX;
+    }
+
+    private Timer timer(String name, String... tags) {
+        return timers.computeIfAbsent(meterKey(name, tags),
+                key -> Timer.builder(name).tags(tags).register(meterRegistry));
+    }
+
+    private Counter counter(String name, String... tags) {
+        return counters.computeIfAbsent(meterKey(name, tags),
+                key -> Counter.builder(name).tags(tags).register(meterRegistry));
+    }
+
+    private static String meterKey(String name, String... tags) {
+        return name + '|' + String.join("|", tags);
+    }
+}
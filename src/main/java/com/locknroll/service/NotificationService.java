@@ -1,10 +1,12 @@
 package com.locknroll.service;
 
+import com.locknroll.config.AsyncConfig;
 import com.locknroll.dto.NotificationDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -14,6 +16,9 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for sending real-time notifications via WebSocket
+ * 
+ * Send methods run on the notification executor, so callers (request threads, timeout
+ * handling) do not wait on fan-out to many users
  */
 @Service
 public class NotificationService {
@@ -29,6 +34,7 @@ public class NotificationService {
     /**
      * Send notification to a specific user
      */
+    @Async(AsyncConfig.NOTIFICATION_EXECUTOR)
     public void sendNotificationToUser(String username, NotificationDto notification) {
         try {
             String destination = "/queue/notifications/" + username;
@@ -42,6 +48,7 @@ public class NotificationService {
     /**
      * Send notification to all users with a specific role
      */
+    @Async(AsyncConfig.NOTIFICATION_EXECUTOR)
     public void sendNotificationToRole(String role, NotificationDto notification) {
         try {
             String destination = "/topic/notifications/role/" + role;
@@ -55,6 +62,7 @@ public class NotificationService {
     /**
      * Send notification to all users
      */
+    @Async(AsyncConfig.NOTIFICATION_EXECUTOR)
     public void sendBroadcastNotification(NotificationDto notification) {
         try {
             String destination = "/topic/notifications/broadcast";
@@ -68,6 +76,7 @@ public class NotificationService {
     /**
      * Send task update notification
      */
+    @Async(AsyncConfig.NOTIFICATION_EXECUTOR)
     public void sendTaskUpdateNotification(String username, String taskTitle, String status, String message) {
         NotificationDto notification = new NotificationDto();
         notification.setTitle("Task Update: " + taskTitle);
@@ -87,6 +96,7 @@ public class NotificationService {
     /**
      * Send workflow status notification
      */
+    @Async(AsyncConfig.NOTIFICATION_EXECUTOR)
     public void sendWorkflowStatusNotification(String username, String workflowName, String status, String message) {
         NotificationDto notification = new NotificationDto();
         notification.setTitle("Workflow Update: " + workflowName);
@@ -106,6 +116,7 @@ public class NotificationService {
     /**
      * Send fruit approval notification
      */
+    @Async(AsyncConfig.NOTIFICATION_EXECUTOR)
     public void sendFruitApprovalNotification(String username, String fruitName, String status, String message) {
         NotificationDto notification = new NotificationDto();
         notification.setTitle("Fruit Approval: " + fruitName);
@@ -125,6 +136,7 @@ public class NotificationService {
     /**
      * Send system notification
      */
+    @Async(AsyncConfig.NOTIFICATION_EXECUTOR)
     public void sendSystemNotification(String title, String message, String priority) {
         NotificationDto notification = new NotificationDto();
         notification.setTitle(title);
@@ -0,0 +1,190 @@
+package com.locknroll.service;
+
+import com.locknroll.datasource.ReplicaRoutingDataSource;
+import com.locknroll.repository.RoleMemberRow;
+import com.locknroll.repository.UserRepository;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of role name -> active members (user id and username), used to fan tasks
+ * and notifications out to everyone holding a step's role.
+ *
+ * The whole index is loaded with one query on first use and kept as parallel primitive arrays per
+ * role. UserService invalidates it whenever a user's roles or active flag change, RoleService when
+ * a role is renamed or (de)activated; the invalidation is published on a Redis topic after commit
+ * so every node reloads on its next lookup.
+ */
+@Service
+public class RoleMembershipService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleMembershipService.class);
+
+    private static final String INVALIDATION_TOPIC = "locknroll:role:membership:invalidations";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    private volatile Map<String, RoleMembers> index;
+    // Bumped on every invalidation so a load that raced with one is not kept
+    private final AtomicLong generation = new AtomicLong();
+    // Single-flight for loads; a lock rather than synchronized so waiting virtual threads do not pin their carrier
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private RTopic invalidations;
+
+    @PostConstruct
+    void init() {
+        invalidations = redissonClient.getTopic(INVALIDATION_TOPIC, LongCodec.INSTANCE);
+        // The message is the changed user's or role's id, only used for logging
+        invalidations.addListener(Long.class, (channel, id) -> drop("published change " + id));
+    }
+
+    /**
+     * Active members of a role; empty when nobody holds it
+     */
+    @Transactional(readOnly = true)
+    public RoleMembers getMembers(String roleName) {
+        Map<String, RoleMembers> current = index;
+        if (current == null) {
+            // Shared by every lookup on this node until the next invalidation
+            ReplicaRoutingDataSource.usePrimary();
+            current = load();
+        }
+        return current.getOrDefault(roleName, RoleMembers.EMPTY);
+    }
+
+    /**
+     * Reload the index on every node once the current transaction commits (immediately outside one)
+     */
+    public void invalidate(Long userId) {
+        invalidate("user " + userId, userId);
+    }
+
+    /**
+     * Same as invalidate, after a change to the role itself rather than to one of its members
+     */
+    public void invalidateRole(Long roleId) {
+        invalidate("role " + roleId, roleId);
+    }
+
+    private void invalidate(String change, Long id) {
+        // Drop locally right away, so the rest of this transaction sees its own change
+        drop(change);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishInvalidation(change, id);
+                }
+            });
+        } else {
+            publishInvalidation(change, id);
+        }
+    }
+
+    private Map<String, RoleMembers> load() {
+        loadLock.lock();
+        try {
+            // Another thread may have loaded it while this one waited
+            Map<String, RoleMembers> current = index;
+            if (current != null) {
+                return current;
+            }
+
+            long loadGeneration = generation.get();
+            long loadStart = System.nanoTime();
+            Map<String, List<RoleMemberRow>> rowsByRole = new HashMap<>();
+            for (RoleMemberRow row : userRepository.findActiveRoleMemberships()) {
+                rowsByRole.computeIfAbsent(row.getRoleName(), name -> new ArrayList<>()).add(row);
+            }
+            Map<String, RoleMembers> members = new HashMap<>();
+            rowsByRole.forEach((roleName, rows) -> members.put(roleName, new RoleMembers(rows)));
+            Map<String, RoleMembers> loaded = Collections.unmodifiableMap(members);
+            metricsService.recordCacheLoad("roleMembership", System.nanoTime() - loadStart);
+
+            if (generation.get() == loadGeneration) {
+                index = loaded;
+                logger.debug("Loaded role membership index for {} roles", loaded.size());
+            }
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void drop(String change) {
+        generation.incrementAndGet();
+        index = null;
+        logger.debug("Dropped role membership index after {}", change);
+    }
+
+    private void publishInvalidation(String change, Long id) {
+        try {
+            // Delivered to this node too, which drops again after commit
+            invalidations.publish(id);
+        } catch (Exception e) {
+            // Other nodes keep assigning to the old members until the next membership change
+            logger.error("Failed to publish role membership invalidation for {}: {}", change, e.getMessage());
+        }
+    }
+
+    /**
+     * Members of one role as parallel arrays, ordered by user id
+     */
+    public static final class RoleMembers {
+
+        static final RoleMembers EMPTY = new RoleMembers(List.of());
+
+        private final long[] userIds;
+        private final String[] usernames;
+
+        private RoleMembers(List<RoleMemberRow> rows) {
+            userIds = new long[rows.size()];
+            usernames = new String[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                userIds[i] = rows.get(i).getUserId();
+                usernames[i] = rows.get(i).getUsername();
+            }
+        }
+
+        public int size() {
+            return userIds.length;
+        }
+
+        public boolean isEmpty() {
+            return userIds.length == 0;
+        }
+
+        public long getUserId(int index) {
+            return userIds[index];
+        }
+
+        public String getUsername(int index) {
+            return usernames[index];
+        }
+    }
+}
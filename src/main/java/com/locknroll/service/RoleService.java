@@ -36,6 +36,9 @@ public class RoleService {
     @Autowired
     private PermissionRepository permissionRepository;
     
+    @Autowired
+    private RoleMembershipService roleMembershipService;
+    
     /**
      * Create a new role
      */
@@ -151,6 +154,8 @@ public class RoleService {
         }
         
         Role savedRole = roleRepository.save(role);
+        // Members are indexed by role name and active roles only
+        roleMembershipService.invalidateRole(id);
         logger.info("Role updated successfully: {}", savedRole.getName());
         
         return convertToDto(savedRole);
@@ -169,6 +174,7 @@ public class RoleService {
         role.setIsActive(false);
         role.setUpdatedBy(updatedBy);
         roleRepository.save(role);
+        roleMembershipService.invalidateRole(id);
         
         logger.info("Role deactivated successfully: {}", role.getName());
     }
@@ -186,6 +192,7 @@ public class RoleService {
         role.setIsActive(true);
         role.setUpdatedBy(updatedBy);
         roleRepository.save(role);
+        roleMembershipService.invalidateRole(id);
         
         logger.info("Role activated successfully: {}", role.getName());
     }
@@ -0,0 +1,31 @@
+package com.locknroll.service;
+
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * One task per step, rotating through the role's members. The position is a Redis counter per
+ * role so all nodes share one rotation.
+ */
+@Component
+public class RoundRobinAssignmentStrategy implements TaskAssignmentStrategy {
+
+    public static final String NAME = "round-robin";
+
+    private static final String COUNTER_PREFIX = "locknroll:assignment:round-robin:";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int[] selectAssignees(String roleName, RoleMembershipService.RoleMembers members) {
+        long position = redissonClient.getAtomicLong(COUNTER_PREFIX + roleName).getAndIncrement();
+        return new int[] {(int) Math.floorMod(position, (long) members.size())};
+    }
+}
@@ -0,0 +1,24 @@
+package com.locknroll.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * One unassigned task per step, claimed by whichever member of the role takes it first
+ */
+@Component
+public class SharedQueueAssignmentStrategy implements TaskAssignmentStrategy {
+
+    public static final String NAME = "shared-queue";
+
+    private static final int[] UNASSIGNED = new int[0];
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int[] selectAssignees(String roleName, RoleMembershipService.RoleMembers members) {
+        return UNASSIGNED;
+    }
+}
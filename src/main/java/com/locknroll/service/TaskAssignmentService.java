@@ -0,0 +1,85 @@
+package com.locknroll.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Picks the assignment strategy for a role and applies it.
+ *
+ * The default comes from app.assignment.default-strategy and can be overridden per role with
+ * app.assignment.roles.&lt;ROLE&gt; (e.g. app.assignment.roles.FINANCE=least-loaded).
+ */
+@Service
+public class TaskAssignmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskAssignmentService.class);
+
+    private static final String ROLE_PROPERTY_PREFIX = "app.assignment.roles.";
+
+    @Autowired
+    private List<TaskAssignmentStrategy> strategies;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${app.assignment.default-strategy:" + BroadcastAssignmentStrategy.NAME + "}")
+    private String defaultStrategyName;
+
+    private final Map<String, TaskAssignmentStrategy> strategiesByName = new HashMap<>();
+    private final ConcurrentMap<String, TaskAssignmentStrategy> strategiesByRole = new ConcurrentHashMap<>();
+    private TaskAssignmentStrategy defaultStrategy;
+
+    @PostConstruct
+    void init() {
+        for (TaskAssignmentStrategy strategy : strategies) {
+            strategiesByName.put(strategy.getName(), strategy);
+        }
+        defaultStrategy = strategiesByName.get(defaultStrategyName);
+        if (defaultStrategy == null) {
+            throw new IllegalStateException("Unknown task assignment strategy '" + defaultStrategyName +
+                    "', expected one of " + strategiesByName.keySet());
+        }
+        logger.info("Default task assignment strategy: {}", defaultStrategyName);
+    }
+
+    /**
+     * Indexes into members of the users to create a task for; empty for one unassigned, claimable task
+     */
+    public int[] selectAssignees(String roleName, RoleMembershipService.RoleMembers members) {
+        return strategyFor(roleName).selectAssignees(roleName, members);
+    }
+
+    /**
+     * Strategy configured for a role, falling back to the default
+     */
+    public TaskAssignmentStrategy strategyFor(String roleName) {
+        if (roleName == null) {
+            return defaultStrategy;
+        }
+        return strategiesByRole.computeIfAbsent(roleName, this::resolveStrategy);
+    }
+
+    private TaskAssignmentStrategy resolveStrategy(String roleName) {
+        String name = environment.getProperty(ROLE_PROPERTY_PREFIX + roleName);
+        if (name == null) {
+            return defaultStrategy;
+        }
+        TaskAssignmentStrategy strategy = strategiesByName.get(name);
+        if (strategy == null) {
+            logger.warn("Unknown task assignment strategy '{}' for role {}, using {}", name, roleName, defaultStrategyName);
+            return defaultStrategy;
+        }
+        return strategy;
+    }
+}
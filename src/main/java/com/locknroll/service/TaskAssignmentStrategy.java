@@ -0,0 +1,21 @@
+package com.locknroll.service;
+
+/**
+ * Chooses which members of a step's role get a task when a workflow creates the step's tasks.
+ *
+ * Implementations are Spring beans picked up by TaskAssignmentService and selected by name
+ * through app.assignment.default-strategy or app.assignment.roles.&lt;ROLE&gt;.
+ */
+public interface TaskAssignmentStrategy {
+
+    /**
+     * Name used in configuration
+     */
+    String getName();
+
+    /**
+     * Indexes into members of the users that each get their own task. An empty result creates a
+     * single unassigned task that any member of the role can claim. Members is never empty.
+     */
+    int[] selectAssignees(String roleName, RoleMembershipService.RoleMembers members);
+}
@@ -0,0 +1,148 @@
+package com.locknroll.service;
+
+import com.locknroll.dto.TaskDto;
+import com.locknroll.entity.Task;
+import com.locknroll.exception.ResourceNotFoundException;
+import com.locknroll.exception.TaskClaimException;
+import com.locknroll.repository.TaskRepository;
+import com.locknroll.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Role work queue for tasks created without an assignee (see SharedQueueAssignmentStrategy).
+ *
+ * Approvers pull tasks for their roles with SELECT ... FOR UPDATE SKIP LOCKED, so concurrent
+ * claimers never block on or receive the same row. A claim is a lease: the holder heartbeats it
+ * while working, and once it expires the task is handed to the next claimer.
+ */
+@Service
+@Transactional
+public class TaskClaimService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskClaimService.class);
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${app.claim.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${app.claim.max-batch:20}")
+    private int maxBatch;
+
+    /**
+     * Claim up to limit tasks for the user from the queues of the given roles, oldest first
+     */
+    public List<TaskDto> claimTasks(Long userId, Collection<String> roleNames, int limit) {
+        if (roleNames == null || roleNames.isEmpty()) {
+            return List.of();
+        }
+        int batch = Math.max(1, Math.min(limit, maxBatch));
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Task> tasks = taskRepository.lockClaimableTasks(roleNames, now, batch);
+        if (tasks.isEmpty()) {
+            return List.of();
+        }
+
+        int takeovers = 0;
+        for (Task task : tasks) {
+            if (task.getAssignedTo() != null) {
+                // Expired claim: the previous holder loses the task and any progress marker
+                takeovers++;
+                cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
+                if ("IN_PROGRESS".equals(task.getStatus())) {
+                    metricsService.recordTaskTransition(task.getStatus(), "READY");
+                    task.setStatus("READY");
+                }
+                logger.info("Claim on task {} by user {} expired, handing it to user {}",
+                        task.getId(), task.getAssignedTo().getId(), userId);
+            }
+            task.setAssignedTo(userRepository.getReferenceById(userId));
+            task.setClaimExpiresAt(now.plusSeconds(leaseSeconds));
+        }
+        List<Task> claimed = taskRepository.saveAll(tasks);
+        cacheService.evict("user:tasks:" + userId);
+        metricsService.recordTaskClaims("claim", claimed.size() - takeovers);
+        if (takeovers > 0) {
+            metricsService.recordTaskClaims("takeover", takeovers);
+        }
+
+        logger.info("User {} claimed {} tasks for roles {}", userId, claimed.size(), roleNames);
+        List<TaskDto> result = new ArrayList<>(claimed.size());
+        for (Task task : claimed) {
+            result.add(taskService.convertToDto(task));
+        }
+        return result;
+    }
+
+    /**
+     * Give a claimed task back to its role queue
+     */
+    public TaskDto releaseTask(Long taskId, Long userId) {
+        Task task = lockClaimedTask(taskId, userId);
+
+        if ("IN_PROGRESS".equals(task.getStatus())) {
+            metricsService.recordTaskTransition(task.getStatus(), "READY");
+            task.setStatus("READY");
+        }
+        task.setAssignedTo(null);
+        task.setClaimExpiresAt(null);
+        Task savedTask = taskRepository.save(task);
+        cacheService.evict("user:tasks:" + userId);
+        metricsService.recordTaskClaims("release", 1);
+
+        logger.info("User {} released task {}", userId, taskId);
+        return taskService.convertToDto(savedTask);
+    }
+
+    /**
+     * Extend the user's claim on a task by another lease period
+     */
+    public TaskDto renewClaim(Long taskId, Long userId) {
+        Task task = lockClaimedTask(taskId, userId);
+
+        task.setClaimExpiresAt(LocalDateTime.now().plusSeconds(leaseSeconds));
+        Task savedTask = taskRepository.save(task);
+        metricsService.recordTaskClaims("heartbeat", 1);
+
+        logger.debug("User {} renewed claim on task {}", userId, taskId);
+        return taskService.convertToDto(savedTask);
+    }
+
+    /**
+     * Lock the task row and check the user still holds a claim on it. A claim that expired but
+     * was not yet taken over is still held, so a late heartbeat revives it.
+     */
+    private Task lockClaimedTask(Long taskId, Long userId) {
+        Task task = taskRepository.findByIdForUpdate(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + taskId));
+        if (task.getClaimExpiresAt() == null || task.getAssignedTo() == null
+                || !task.getAssignedTo().getId().equals(userId)) {
+            throw new TaskClaimException("User " + userId + " does not hold a claim on task " + taskId);
+        }
+        return task;
+    }
+}
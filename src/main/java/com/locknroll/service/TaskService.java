@@ -1,6 +1,8 @@
 package com.locknroll.service;
 
+import com.locknroll.datasource.ReplicaRoutingDataSource;
 import com.locknroll.dto.TaskDto;
+import com.locknroll.dto.TaskPageDto;
 import com.locknroll.entity.Task;
 import com.locknroll.entity.TaskDependency;
 import com.locknroll.entity.WorkflowInstance;
@@ -13,16 +15,22 @@ import com.locknroll.repository.WorkflowStepRepository;
 import com.locknroll.repository.UserRepository;
 import com.locknroll.repository.RoleRepository;
 import com.locknroll.repository.TaskDependencyRepository;
+import com.locknroll.repository.TaskSummaryView;
 import com.locknroll.service.EventPublisher;
 import com.locknroll.exception.ResourceNotFoundException;
 import com.locknroll.exception.InvalidTaskStateException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -63,6 +71,14 @@ public class TaskService {
     @Autowired
     private EventPublisher eventPublisher;
     
+    @Autowired
+    private MetricsService metricsService;
+    
+    // Keyset start position; every task is created after this instant
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    
     /**
      * Create tasks for a workflow instance
      * This method creates tasks based on the workflow steps and assigns them to appropriate users
@@ -105,9 +121,11 @@ public class TaskService {
         Task task = new Task();
         task.setTitle(workflowStep.getName());
         task.setDescription(workflowStep.getDescription());
+        metricsService.recordTaskTransition(null, "PENDING");
         task.setStatus("PENDING");
         task.setWorkflowInstance(workflowInstance);
         task.setWorkflowStep(workflowStep);
+        task.setClaimRoleName(workflowStep.getAssignedRoleName());
         task.setAssignedTo(assignedUser);
         task.setPriority("MEDIUM"); // Default priority
         // task.setTaskType(workflowStep.getStepType()); // Task entity doesn't have taskType field
@@ -165,7 +183,7 @@ public class TaskService {
      */
     @Transactional(readOnly = true)
     public TaskDto getTaskById(Long id) {
-        Task task = taskRepository.findById(id)
+        Task task = taskRepository.findForDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + id));
         
         return convertToDto(task);
@@ -176,10 +194,19 @@ public class TaskService {
      */
     @Transactional(readOnly = true)
     public List<TaskDto> getTasksByWorkflowInstanceId(Long workflowInstanceId) {
-        List<Task> tasks = taskRepository.findByWorkflowInstanceIdOrderByCreatedAt(workflowInstanceId);
-        return tasks.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertSummaries(taskRepository.findSummariesByWorkflowInstanceId(
+                workflowInstanceId, KEYSET_START, 0L, Pageable.unpaged()));
+    }
+    
+    /**
+     * Get one keyset page of tasks for a workflow instance
+     */
+    @Transactional(readOnly = true)
+    public TaskPageDto getTaskPageByWorkflowInstanceId(Long workflowInstanceId, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        return toPage(taskRepository.findSummariesByWorkflowInstanceId(
+                workflowInstanceId, position.createdAt, position.id, PageRequest.of(0, pageSize + 1)), pageSize);
     }
     
     /**
@@ -198,11 +225,13 @@ public class TaskService {
             return cachedTasks.get();
         }
         
-        // If not in cache, fetch from database
-        List<Task> tasks = taskRepository.findByAssignedToIdOrderByCreatedAt(userId);
-        List<TaskDto> taskDtos = tasks.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        // If not in cache, fetch from database in a single projection query, from the primary
+        // so a lagging replica does not re-cache tasks a write just evicted
+        ReplicaRoutingDataSource.usePrimary();
+        long loadStart = System.nanoTime();
+        List<TaskDto> taskDtos = convertSummaries(taskRepository.findSummariesByAssignedToId(
+                userId, KEYSET_START, 0L, Pageable.unpaged()));
+        metricsService.recordCacheLoad("user:tasks", System.nanoTime() - loadStart);
         
         // Cache the result
         cacheService.cacheUserTasks(userId, taskDtos);
@@ -210,6 +239,17 @@ public class TaskService {
         return taskDtos;
     }
     
+    /**
+     * Get one keyset page of tasks assigned to a user
+     */
+    @Transactional(readOnly = true)
+    public TaskPageDto getTaskPageByUserId(Long userId, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        return toPage(taskRepository.findSummariesByAssignedToId(
+                userId, position.createdAt, position.id, PageRequest.of(0, pageSize + 1)), pageSize);
+    }
+    
     /**
      * Get pending tasks for a user
      */
@@ -237,10 +277,80 @@ public class TaskService {
      */
     @Transactional(readOnly = true)
     public List<TaskDto> getTasksByRole(Long roleId) {
-        List<Task> tasks = taskRepository.findPendingTasksByRole(roleId);
-        return tasks.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertSummaries(taskRepository.findPendingSummariesByRole(
+                roleId, KEYSET_START, 0L, Pageable.unpaged()));
+    }
+    
+    /**
+     * Get one keyset page of pending tasks for a role
+     */
+    @Transactional(readOnly = true)
+    public TaskPageDto getTaskPageByRole(Long roleId, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        return toPage(taskRepository.findPendingSummariesByRole(
+                roleId, position.createdAt, position.id, PageRequest.of(0, pageSize + 1)), pageSize);
+    }
+    
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+    
+    /**
+     * Build a page from pageSize + 1 rows; the extra row only signals that more results exist
+     */
+    private TaskPageDto toPage(List<TaskSummaryView> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<TaskSummaryView> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            TaskSummaryView last = pageRows.get(pageRows.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getId());
+        }
+        return new TaskPageDto(convertSummaries(pageRows), nextCursor, hasMore);
+    }
+    
+    private List<TaskDto> convertSummaries(List<TaskSummaryView> rows) {
+        List<TaskDto> dtos = new ArrayList<>(rows.size());
+        for (TaskSummaryView row : rows) {
+            dtos.add(convertToDto(row));
+        }
+        return dtos;
+    }
+    
+    /**
+     * Position in the (created_at, id) ordering, exchanged with clients as an opaque string
+     */
+    private static final class KeysetCursor {
+        private final LocalDateTime createdAt;
+        private final Long id;
+        
+        private KeysetCursor(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+        
+        static String encode(LocalDateTime createdAt, Long id) {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static KeysetCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return new KeysetCursor(KEYSET_START, 0L);
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid task cursor: " + cursor, e);
+            }
+        }
     }
     
     /**
@@ -255,23 +365,32 @@ public class TaskService {
         // Validate status transition
         validateStatusTransition(task.getStatus(), status);
         
+        metricsService.recordTaskTransition(task.getStatus(), status);
         task.setStatus(status);
         task.setUpdatedBy("system"); // TODO: Get from security context
         
         if ("COMPLETED".equals(status) || "REJECTED".equals(status)) {
             task.setCompletedAt(LocalDateTime.now());
         }
+        if (!"IN_PROGRESS".equals(status)) {
+            // Finished tasks leave the claim queue
+            task.setClaimExpiresAt(null);
+        }
         
         Task savedTask = taskRepository.save(task);
         
-        // Invalidate cache for the assigned user
-        cacheService.evict("user:tasks:" + savedTask.getAssignedTo().getId());
-        logger.info("Invalidated cache for user: {}", savedTask.getAssignedTo().getId());
-        
-        // Send notification to assigned user
-        String assignedUsername = savedTask.getAssignedTo().getUsername();
-        String message = String.format("Task '%s' status updated to %s", savedTask.getTitle(), status);
-        notificationService.sendTaskUpdateNotification(assignedUsername, savedTask.getTitle(), status, message);
+        // Claimable tasks that nobody took have no assignee to invalidate or notify
+        Long assignedUserId = savedTask.getAssignedTo() != null ? savedTask.getAssignedTo().getId() : null;
+        String assignedUsername = savedTask.getAssignedTo() != null ? savedTask.getAssignedTo().getUsername() : null;
+        if (assignedUserId != null) {
+            // Invalidate cache for the assigned user
+            cacheService.evict("user:tasks:" + assignedUserId);
+            logger.info("Invalidated cache for user: {}", assignedUserId);
+            
+            // Send notification to assigned user
+            String message = String.format("Task '%s' status updated to %s", savedTask.getTitle(), status);
+            notificationService.sendTaskUpdateNotification(assignedUsername, savedTask.getTitle(), status, message);
+        }
         
         // CRITICAL: Update dependent tasks when parent task completes/rejects
         if ("COMPLETED".equals(status) || "REJECTED".equals(status)) {
@@ -281,7 +400,7 @@ public class TaskService {
             eventPublisher.publishTaskCompleted(
                 savedTask.getId().toString(),
                 savedTask.getTitle(),
-                savedTask.getAssignedTo().getId().toString(),
+                assignedUserId != null ? assignedUserId.toString() : null,
                 assignedUsername,
                 status
             );
@@ -334,23 +453,28 @@ public class TaskService {
             // Check if all dependencies for this dependent task are now satisfied
             if (areAllDependenciesSatisfied(dependentTask)) {
                 // Update dependent task to READY state
+                metricsService.recordTaskTransition(dependentTask.getStatus(), "READY");
                 dependentTask.setStatus("READY");
                 dependentTask.setUpdatedBy("system");
                 taskRepository.save(dependentTask);
                 
-                // Invalidate cache for the assigned user
-                cacheService.evict("user:tasks:" + dependentTask.getAssignedTo().getId());
-                
-                // Send notification to assigned user
-                String assignedUsername = dependentTask.getAssignedTo().getUsername();
-                String message = String.format("Task '%s' is now ready to start (dependencies satisfied)", dependentTask.getTitle());
-                notificationService.sendTaskUpdateNotification(assignedUsername, dependentTask.getTitle(), "READY", message);
+                // Claimable tasks have no assignee to invalidate or notify
+                Long assignedUserId = dependentTask.getAssignedTo() != null ? dependentTask.getAssignedTo().getId() : null;
+                String assignedUsername = dependentTask.getAssignedTo() != null ? dependentTask.getAssignedTo().getUsername() : null;
+                if (assignedUserId != null) {
+                    // Invalidate cache for the assigned user
+                    cacheService.evict("user:tasks:" + assignedUserId);
+                    
+                    // Send notification to assigned user
+                    String message = String.format("Task '%s' is now ready to start (dependencies satisfied)", dependentTask.getTitle());
+                    notificationService.sendTaskUpdateNotification(assignedUsername, dependentTask.getTitle(), "READY", message);
+                }
                 
                 // Emit task ready event
                 eventPublisher.publishTaskCreated(
                     dependentTask.getId().toString(),
                     dependentTask.getTitle(),
-                    dependentTask.getAssignedTo().getId().toString(),
+                    assignedUserId != null ? assignedUserId.toString() : null,
                     assignedUsername,
                     dependentTask.getWorkflowInstance().getId().toString()
                 );
@@ -358,12 +482,15 @@ public class TaskService {
                 logger.info("Activated dependent task: {} - {}", dependentTask.getId(), dependentTask.getTitle());
             } else {
                 // Task is still blocked by other dependencies
+                metricsService.recordTaskTransition(dependentTask.getStatus(), "BLOCKED");
                 dependentTask.setStatus("BLOCKED");
                 dependentTask.setUpdatedBy("system");
                 taskRepository.save(dependentTask);
                 
-                // Invalidate cache for the assigned user
-                cacheService.evict("user:tasks:" + dependentTask.getAssignedTo().getId());
+                // Invalidate cache for the assigned user (claimable tasks have none)
+                if (dependentTask.getAssignedTo() != null) {
+                    cacheService.evict("user:tasks:" + dependentTask.getAssignedTo().getId());
+                }
                 
                 logger.debug("Task {} is still blocked by other dependencies", dependentTask.getId());
             }
@@ -428,6 +555,33 @@ public class TaskService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Convert a task projection row to DTO
+     */
+    public TaskDto convertToDto(TaskSummaryView row) {
+        TaskDto dto = new TaskDto();
+        dto.setId(row.getId());
+        dto.setTitle(row.getTitle());
+        dto.setDescription(row.getDescription());
+        dto.setStatus(row.getStatus());
+        dto.setPriority(row.getPriority());
+        dto.setCreatedBy(row.getCreatedBy());
+        dto.setUpdatedBy(row.getUpdatedBy());
+        dto.setWorkflowInstanceId(row.getWorkflowInstanceId());
+        dto.setWorkflowStepId(row.getWorkflowStepId());
+        dto.setWorkflowStepName(row.getWorkflowStepName());
+        dto.setAssignedRoleId(row.getAssignedRoleId());
+        dto.setAssignedRoleName(row.getAssignedRoleName());
+        
+        if (row.getAssignedToId() != null) {
+            dto.setAssignedToId(row.getAssignedToId());
+            dto.setAssignedToUsername(row.getAssignedToUsername());
+            dto.setAssignedToFullName(row.getAssignedToFirstName() + " " + row.getAssignedToLastName());
+        }
+        
+        return dto;
+    }
+    
     /**
      * Convert Task entity to DTO
      */
@@ -42,6 +42,12 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private UserVersionService userVersionService;
+    
+    @Autowired
+    private RoleMembershipService roleMembershipService;
+    
     /**
      * Create a new user with password
      */
@@ -80,6 +86,7 @@ public class UserService {
         }
         
         User savedUser = userRepository.save(user);
+        roleMembershipService.invalidate(savedUser.getId());
         logger.info("User created successfully: {}", savedUser.getUsername());
         
         return convertToDto(savedUser);
@@ -123,6 +130,7 @@ public class UserService {
         }
         
         User savedUser = userRepository.save(user);
+        roleMembershipService.invalidate(savedUser.getId());
         logger.info("User created successfully: {}", savedUser.getUsername());
         
         return convertToDto(savedUser);
@@ -234,6 +242,8 @@ public class UserService {
         }
         
         User savedUser = userRepository.save(user);
+        userVersionService.bumpVersion(savedUser.getId());
+        roleMembershipService.invalidate(savedUser.getId());
         logger.info("User updated successfully: {}", savedUser.getUsername());
         
         return convertToDto(savedUser);
@@ -252,6 +262,8 @@ public class UserService {
         user.setIsActive(false);
         user.setUpdatedBy(updatedBy);
         userRepository.save(user);
+        userVersionService.bumpVersion(id);
+        roleMembershipService.invalidate(id);
         
         logger.info("User deactivated successfully: {}", user.getUsername());
     }
@@ -269,6 +281,7 @@ public class UserService {
         user.setIsActive(true);
         user.setUpdatedBy(updatedBy);
         userRepository.save(user);
+        roleMembershipService.invalidate(id);
         
         logger.info("User activated successfully: {}", user.getUsername());
     }
@@ -290,6 +303,8 @@ public class UserService {
         user.setUpdatedBy(updatedBy);
         
         User savedUser = userRepository.save(user);
+        userVersionService.bumpVersion(userId);
+        roleMembershipService.invalidate(userId);
         logger.info("Role assigned successfully");
         
         return convertToDto(savedUser);
@@ -312,6 +327,8 @@ public class UserService {
         user.setUpdatedBy(updatedBy);
         
         User savedUser = userRepository.save(user);
+        userVersionService.bumpVersion(userId);
+        roleMembershipService.invalidate(userId);
         logger.info("Role removed successfully");
         
         return convertToDto(savedUser);
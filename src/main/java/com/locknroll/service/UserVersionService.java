@@ -0,0 +1,74 @@
+package com.locknroll.service;
+
+import org.redisson.api.LocalCachedMapOptions;
+import org.redisson.api.RLocalCachedMap;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Tracks a per-user version number in Redis.
+ *
+ * Stateless JWTs carry the version they were issued with; bumping the version
+ * (role change, deactivation) makes every previously issued token stale.
+ * Reads are served from a Redisson near cache that is invalidated across nodes,
+ * so checking a token normally costs no network round-trip.
+ */
+@Service
+public class UserVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserVersionService.class);
+
+    private static final String USER_VERSIONS_KEY = "locknroll:user:versions";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    private RLocalCachedMap<Long, Long> userVersions;
+
+    @PostConstruct
+    void init() {
+        // LongCodec keeps values as plain numbers so HINCRBY-style increments work
+        userVersions = redissonClient.getLocalCachedMap(USER_VERSIONS_KEY, LongCodec.INSTANCE,
+                LocalCachedMapOptions.<Long, Long>defaults()
+                        .syncStrategy(LocalCachedMapOptions.SyncStrategy.INVALIDATE));
+    }
+
+    /**
+     * Current version for a user (0 if never bumped)
+     */
+    public long getVersion(Long userId) {
+        Long version = userVersions.get(userId);
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * Bump the version for a user, invalidating all tokens issued before.
+     * Inside a transaction the bump is deferred until commit so that a
+     * concurrent reload cannot observe the old roles under the new version.
+     */
+    public void bumpVersion(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doBump(userId);
+                }
+            });
+        } else {
+            doBump(userId);
+        }
+    }
+
+    private void doBump(Long userId) {
+        Long newVersion = userVersions.addAndGet(userId, 1L);
+        logger.debug("Bumped token version for user {} to {}", userId, newVersion);
+    }
+}
@@ -0,0 +1,319 @@
+package com.locknroll.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves finished workflow instances, with their tasks, task dependencies and approvals, out of the
+ * hot tables into the month-partitioned *_archive tables (V5 migration), keeping the hot tables
+ * bounded to live and recent work.
+ *
+ * Each batch is one transaction: rows are deleted and inserted into the archive in the same
+ * statement, children before parents so foreign keys hold throughout. Only one node archives at a
+ * time: a run holds a session-level advisory lock on a connection of its own for all of its batches
+ * and the partition detach. Archive reads take a created_at bound so Postgres only visits the
+ * matching monthly partitions.
+ */
+@Service
+public class WorkflowArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowArchiveService.class);
+
+    // Children first: each table is emptied before the rows it references are moved
+    private static final List<String> ARCHIVED_TABLES = List.of("approvals", "task_dependencies", "tasks", "workflow_instances");
+    private static final List<String> TERMINAL_STATUSES = List.of("COMPLETED", "REJECTED", "CANCELLED");
+    private static final String ARCHIVE_SUFFIX = "_archive";
+    private static final String PARTITION_INFIX = "_p";
+    private static final String DETACHED_SUFFIX = "_detached";
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final long ARCHIVE_LOCK_KEY = 4_802_117L;
+
+    // Same expression as idx_workflow_instances_archivable
+    private static final String FINISHED_AT = "COALESCE(completed_at, cancelled_at, updated_at, created_at)";
+    private static final String INSTANCE_TASK_IDS = "SELECT id FROM tasks WHERE workflow_instance_id IN (:ids)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    // Proxy to this bean, so batches called from the scheduled run get their own transaction
+    @Lazy
+    @Autowired
+    private WorkflowArchiveService self;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.archive.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.archive.max-batches:200}")
+    private int maxBatches;
+
+    @Value("${app.archive.detach-after-months:0}")
+    private int detachAfterMonths;
+
+    @Value("${app.archive.detached-tablespace:}")
+    private String detachedTablespace;
+
+    // Columns each hot table shares with its archive; columns Hibernate adds later are not
+    // archived until a migration adds them to the archive table too
+    private final Map<String, String> archiveColumns = new ConcurrentHashMap<>();
+
+    /**
+     * Archive instances that finished more than retention-days ago, then detach old partitions.
+     * Skipped when another node is already running it.
+     */
+    @Scheduled(cron = "${app.archive.cron:0 30 2 * * *}")
+    public void archiveFinishedWorkflows() {
+        if (!enabled) {
+            return;
+        }
+        // Batches run in their own transactions on other connections; this one only holds the lock,
+        // and Postgres drops it if the connection is lost
+        jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Void>) connection -> {
+            if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                logger.debug("Workflow archiving is running on another node");
+                return null;
+            }
+            try {
+                archiveAndDetach();
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock");
+            }
+            return null;
+        });
+    }
+
+    private void archiveAndDetach() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int total = 0;
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                int archived = self.archiveBatch(cutoff);
+                total += archived;
+                if (archived < batchSize) {
+                    break;
+                }
+            }
+            if (detachAfterMonths > 0) {
+                detachPartitionsBefore(YearMonth.now().minusMonths(detachAfterMonths));
+            }
+        } catch (Exception e) {
+            logger.error("Error archiving finished workflows: {}", e.getMessage(), e);
+        }
+        logger.info("Archived {} workflow instances finished before {}", total, cutoff);
+    }
+
+    /**
+     * Call one of the advisory lock functions for the archive lock on the given connection
+     */
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?)")) {
+            statement.setLong(1, ARCHIVE_LOCK_KEY);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Move one batch of finished instances and everything hanging off them into the archive; only
+     * called by archiveFinishedWorkflows, which holds the archive lock
+     *
+     * @return number of instances archived
+     */
+    @Transactional
+    public int archiveBatch(LocalDateTime cutoff) {
+        List<Long> instanceIds = jdbcTemplate.queryForList(
+                "SELECT id FROM workflow_instances WHERE status IN (:statuses) AND " + FINISHED_AT + " < :cutoff " +
+                "ORDER BY " + FINISHED_AT + " LIMIT :limit FOR UPDATE SKIP LOCKED",
+                new MapSqlParameterSource("statuses", TERMINAL_STATUSES)
+                        .addValue("cutoff", cutoff)
+                        .addValue("limit", batchSize),
+                Long.class);
+        if (instanceIds.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", instanceIds);
+        createMissingPartitions(ids);
+        move("approvals", "workflow_instance_id IN (:ids) OR task_id IN (" + INSTANCE_TASK_IDS + ")", ids);
+        move("task_dependencies", "parent_task_id IN (" + INSTANCE_TASK_IDS + ") OR dependent_task_id IN (" + INSTANCE_TASK_IDS + ")", ids);
+        move("tasks", "workflow_instance_id IN (:ids)", ids);
+        move("workflow_instances", "id IN (:ids)", ids);
+        return instanceIds.size();
+    }
+
+    /**
+     * Archived instances created in [from, to), newest first
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findArchivedWorkflowInstances(LocalDateTime from, LocalDateTime to, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT * FROM workflow_instances_archive WHERE created_at >= :from AND created_at < :to " +
+                "ORDER BY created_at DESC LIMIT :limit",
+                new MapSqlParameterSource("from", from).addValue("to", to).addValue("limit", limit));
+    }
+
+    /**
+     * Archived tasks of an archived instance. Tasks are created after their instance, so its
+     * created_at prunes every earlier month.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findArchivedTasks(Long workflowInstanceId, LocalDateTime instanceCreatedAt) {
+        return jdbcTemplate.queryForList(
+                "SELECT * FROM tasks_archive WHERE workflow_instance_id = :workflowInstanceId " +
+                "AND created_at >= :createdAt ORDER BY created_at",
+                new MapSqlParameterSource("workflowInstanceId", workflowInstanceId).addValue("createdAt", instanceCreatedAt));
+    }
+
+    /**
+     * Delete the matching rows and insert them into the table's archive in one statement
+     */
+    private void move(String table, String where, MapSqlParameterSource params) {
+        String columns = archiveColumns(table);
+        int moved = jdbcTemplate.update(
+                "WITH moved AS (DELETE FROM " + table + " WHERE " + where + " RETURNING *) " +
+                "INSERT INTO " + table + ARCHIVE_SUFFIX + " (" + columns + ") SELECT " + columns + " FROM moved",
+                params);
+        if (moved > 0) {
+            metricsService.recordArchivedRows(table, moved);
+        }
+    }
+
+    /**
+     * Create the monthly partitions the batch's rows fall into (there is no default partition)
+     */
+    private void createMissingPartitions(MapSqlParameterSource ids) {
+        List<String> months = jdbcTemplate.queryForList(
+                "SELECT DISTINCT to_char(created_at, 'YYYYMM') FROM (" +
+                "SELECT created_at FROM workflow_instances WHERE id IN (:ids) " +
+                "UNION ALL SELECT created_at FROM tasks WHERE workflow_instance_id IN (:ids) " +
+                "UNION ALL SELECT created_at FROM approvals WHERE workflow_instance_id IN (:ids) OR task_id IN (" + INSTANCE_TASK_IDS + ") " +
+                "UNION ALL SELECT created_at FROM task_dependencies WHERE parent_task_id IN (" + INSTANCE_TASK_IDS + ") " +
+                "OR dependent_task_id IN (" + INSTANCE_TASK_IDS + ")) m",
+                ids, String.class);
+
+        for (String table : ARCHIVED_TABLES) {
+            String archive = table + ARCHIVE_SUFFIX;
+            Set<String> existing = new HashSet<>(attachedPartitions(archive));
+            for (String month : months) {
+                String partition = archive + PARTITION_INFIX + month;
+                if (existing.contains(partition)) {
+                    continue;
+                }
+                YearMonth yearMonth = YearMonth.parse(month, PARTITION_MONTH);
+                jdbcTemplate.getJdbcTemplate().execute("CREATE TABLE " + partition + " PARTITION OF " + archive +
+                        " FOR VALUES FROM ('" + yearMonth.atDay(1) + "') TO ('" + yearMonth.plusMonths(1).atDay(1) + "')");
+                logger.info("Created archive partition {}", partition);
+            }
+        }
+    }
+
+    /**
+     * Detach archive partitions for months before the cutoff. The detached table is renamed so a
+     * late row for that month gets a fresh partition, and optionally moved to cheaper storage.
+     */
+    private void detachPartitionsBefore(YearMonth cutoff) {
+        for (String table : ARCHIVED_TABLES) {
+            String archive = table + ARCHIVE_SUFFIX;
+            for (String partition : attachedPartitions(archive)) {
+                YearMonth month = partitionMonth(archive, partition);
+                if (month == null || !month.isBefore(cutoff)) {
+                    continue;
+                }
+                try {
+                    String detached = detachedName(partition);
+                    jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE " + archive + " DETACH PARTITION " + partition);
+                    jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE " + partition + " RENAME TO " + detached);
+                    if (!detachedTablespace.isBlank()) {
+                        jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE " + detached + " SET TABLESPACE " + detachedTablespace);
+                    }
+                    logger.info("Detached archive partition {} as {}", partition, detached);
+                } catch (Exception e) {
+                    // Leave it for the next run; the other partitions are still detached
+                    logger.error("Failed to detach archive partition {}: {}", partition, e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * First free name for a detached partition: partition_detached, then partition_detached_2, ...
+     * A month's partition is recreated if rows for it are archived after it was detached, so the
+     * plain name may already be taken by an earlier detach.
+     */
+    private String detachedName(String partition) {
+        String detached = partition + DETACHED_SUFFIX;
+        for (int sequence = 2; tableExists(detached); sequence++) {
+            detached = partition + DETACHED_SUFFIX + "_" + sequence;
+        }
+        return detached;
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(:table) IS NOT NULL",
+                new MapSqlParameterSource("table", table), Boolean.class));
+    }
+
+    private List<String> attachedPartitions(String archive) {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = :archive AND p.relnamespace = current_schema()::regnamespace",
+                new MapSqlParameterSource("archive", archive), String.class);
+    }
+
+    private YearMonth partitionMonth(String archive, String partition) {
+        String prefix = archive + PARTITION_INFIX;
+        if (!partition.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(prefix.length()), PARTITION_MONTH);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private String archiveColumns(String table) {
+        return archiveColumns.computeIfAbsent(table, t -> String.join(", ", jdbcTemplate.queryForList(
+                "SELECT a.column_name FROM information_schema.columns a " +
+                "JOIN information_schema.columns h ON h.table_schema = a.table_schema " +
+                "AND h.table_name = :table AND h.column_name = a.column_name " +
+                "WHERE a.table_schema = current_schema() AND a.table_name = :archive " +
+                "ORDER BY a.ordinal_position",
+                new MapSqlParameterSource("table", t).addValue("archive", t + ARCHIVE_SUFFIX), String.class)));
+    }
+}
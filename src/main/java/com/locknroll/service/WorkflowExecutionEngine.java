@@ -4,6 +4,7 @@ import com.locknroll.entity.*;
 import com.locknroll.repository.*;
 import com.locknroll.dto.*;
 import com.locknroll.exception.*;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +43,12 @@ public class WorkflowExecutionEngine {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RoleMembershipService roleMembershipService;
+
+    @Autowired
+    private TaskAssignmentService taskAssignmentService;
+
     @Autowired
     private NotificationService notificationService;
 
@@ -51,17 +58,26 @@ public class WorkflowExecutionEngine {
     @Autowired
     private CacheService cacheService;
 
+    @Autowired
+    private MetricsService metricsService;
+
+    @Autowired
+    private WorkflowStatusService workflowStatusService;
+
+    @Autowired
+    private WorkflowPlanService workflowPlanService;
+
     /**
      * Start a workflow execution for an entity
      */
+    @Timed(value = MetricsService.WORKFLOW_START, extraTags = {"engine", "standard"}, histogram = true)
     public WorkflowInstanceDto startWorkflow(String entityType, String entityId, String workflowName, String startedBy) {
         logger.info("Starting workflow '{}' for entity {}:{}", workflowName, entityType, entityId);
 
-        // Get the workflow template
-        Workflow workflow = workflowRepository.findByName(workflowName)
-                .orElseThrow(() -> new ResourceNotFoundException("Workflow not found: " + workflowName));
+        // Get the compiled workflow template
+        WorkflowPlan plan = workflowPlanService.getPlanByName(workflowName);
 
-        if (!workflow.getIsActive()) {
+        if (!plan.isActive()) {
             throw new WorkflowException("Workflow is not active: " + workflowName);
         }
 
@@ -78,7 +94,7 @@ public class WorkflowExecutionEngine {
 
         // Create workflow instance
         WorkflowInstance workflowInstance = new WorkflowInstance();
-        workflowInstance.setWorkflow(workflow);
+        workflowInstance.setWorkflow(workflowRepository.getReferenceById(plan.getWorkflowId()));
         workflowInstance.setEntityType(entityType);
         workflowInstance.setEntityId(entityId);
         workflowInstance.setStatus("PENDING");
@@ -93,7 +109,7 @@ public class WorkflowExecutionEngine {
         // Generate tasks for the workflow
         try {
             logger.info("About to generate tasks for workflow instance: {}", savedInstance.getId());
-            generateTasksForWorkflow(savedInstance);
+            generateTasksForWorkflow(savedInstance, plan);
             //generate tasks in "PENDING"
             logger.info("Tasks generated successfully for workflow instance: {}", savedInstance.getId());
         } catch (Exception e) {
@@ -104,7 +120,7 @@ public class WorkflowExecutionEngine {
         // Start the first step
         try {
             logger.info("About to start first step for workflow instance: {}", savedInstance.getId());
-            startNextStep(savedInstance);
+            startNextStep(savedInstance, plan);
             // lets start all the steps for doing whatsoever is needed  | but some tasks are dependent so will be in pending state rest independent step tasts -> READY
             logger.info("First step started successfully for workflow instance: {}", savedInstance.getId());
         } catch (Exception e) {
@@ -113,14 +129,13 @@ public class WorkflowExecutionEngine {
         }
 
         // Send notification to all users involved in the workflow
-        List<WorkflowStep> steps = workflowStepRepository.findByWorkflowIdOrderByStepOrder(workflowInstance.getWorkflow().getId());
-        for (WorkflowStep step : steps) {
-            List<User> usersWithRole = userRepository.findByRoleName(step.getAssignedRoleName());
-            for (User user : usersWithRole) {
+        for (WorkflowPlan.StepPlan step : plan.getSteps()) {
+            RoleMembershipService.RoleMembers usersWithRole = roleMembershipService.getMembers(step.getAssignedRoleName());
+            for (int i = 0; i < usersWithRole.size(); i++) {
                 String message = String.format("New workflow '%s' started for %s %s", 
                     workflowName, entityType, entityId);
                 notificationService.sendWorkflowStatusNotification(
-                    user.getUsername(), workflowName, "STARTED", message);
+                    usersWithRole.getUsername(i), workflowName, "STARTED", message);
             }
         }
 
@@ -135,36 +150,43 @@ public class WorkflowExecutionEngine {
     /**
      * Generate tasks for a workflow instance based on workflow steps
      */
-    private void generateTasksForWorkflow(WorkflowInstance workflowInstance) {
-        logger.info("TASK GENERATION: Starting for workflow instance: {}", workflowInstance.getId());
+    private void generateTasksForWorkflow(WorkflowInstance workflowInstance, WorkflowPlan plan) {
+        logger.debug("TASK GENERATION: Starting for workflow instance: {}", workflowInstance.getId());
 
-        // Get all workflow steps ordered by step order
-        List<WorkflowStep> steps = workflowStepRepository
-                .findByWorkflowIdOrderByStepOrder(workflowInstance.getWorkflow().getId());
-        logger.info("TASK GENERATION: Found {} steps for workflow", steps.size());
+        // Steps come ordered by step order from the compiled plan
+        List<WorkflowPlan.StepPlan> steps = plan.getSteps();
+        logger.debug("TASK GENERATION: Found {} steps for workflow", steps.size());
 
-        for (WorkflowStep step : steps) {
-            if (!step.getIsActive()) {
+        int generatedTasks = 0;
+        for (WorkflowPlan.StepPlan step : steps) {
+            if (!step.isActive()) {
                 continue;
             }
 
             // Find users with the required role
-            List<User> usersWithRole = userRepository.findByRoleName(step.getAssignedRoleName());
+            RoleMembershipService.RoleMembers usersWithRole = roleMembershipService.getMembers(step.getAssignedRoleName());
             
             if (usersWithRole.isEmpty()) {
                 logger.warn("No users found with role: {}", step.getAssignedRoleName());
                 continue;
             }
 
-            // Create tasks for each user with the required role
-            logger.info("TASK GENERATION: Creating tasks for {} users with role {}", usersWithRole.size(), step.getAssignedRoleName());
-            for (User user : usersWithRole) {
+            // Create tasks for the users the role's assignment strategy picks (none: one claimable task)
+            int[] assignees = taskAssignmentService.selectAssignees(step.getAssignedRoleName(), usersWithRole);
+            logger.debug("TASK GENERATION: Creating tasks for {} of {} users with role {}",
+                    assignees.length, usersWithRole.size(), step.getAssignedRoleName());
+            WorkflowStep stepReference = workflowStepRepository.getReferenceById(step.getId());
+            for (int n = 0; n < Math.max(assignees.length, 1); n++) {
+                Long userId = assignees.length > 0 ? usersWithRole.getUserId(assignees[n]) : null;
+                String username = assignees.length > 0 ? usersWithRole.getUsername(assignees[n]) : null;
                 Task task = new Task();
                 task.setWorkflowInstance(workflowInstance);
-                task.setWorkflowStep(step);
+                task.setWorkflowStep(stepReference);
+                task.setClaimRoleName(step.getAssignedRoleName());
                 task.setTitle(step.getName());
                 task.setDescription(step.getDescription());
-                task.setAssignedTo(user);
+                task.setAssignedTo(userId != null ? userRepository.getReferenceById(userId) : null);
+                metricsService.recordTaskTransition(null, "PENDING");
                 task.setStatus("PENDING");
                 task.setPriority("MEDIUM");
                 task.setCreatedBy("system");
@@ -173,26 +195,31 @@ public class WorkflowExecutionEngine {
                 task.setDueDate(LocalDateTime.now().plusDays(7));
 
                 Task savedTask = taskRepository.save(task);
-                logger.info("TASK GENERATION: Created task ID={} for user {} ({})", savedTask.getId(), user.getUsername(), step.getName());
+                generatedTasks++;
+                logger.debug("TASK GENERATION: Created task ID={} for user {} ({})", savedTask.getId(), username, step.getName());
                 
                 // Invalidate cache for the assigned user
-                cacheService.evict("user:tasks:" + user.getId());
-                logger.info("Invalidated cache for user: {} after creating task", user.getId());
+                if (userId != null) {
+                    cacheService.evict("user:tasks:" + userId);
+                }
                 
                 // Publish task created event
                 eventPublisher.publishTaskCreated(savedTask.getId().toString(), step.getName(), 
-                    user.getId().toString(), user.getUsername(), workflowInstance.getId().toString());
+                    userId != null ? userId.toString() : null, username, workflowInstance.getId().toString());
             }
         }
 
+        logger.info("TASK GENERATION: Created {} tasks across {} steps for workflow instance: {}",
+                generatedTasks, steps.size(), workflowInstance.getId());
+
         // Set up task dependencies
-        setupTaskDependencies(workflowInstance, steps);
+        setupTaskDependencies(workflowInstance, plan);
     }
 
     /**
      * Set up task dependencies based on workflow step dependencies
      */
-    private void setupTaskDependencies(WorkflowInstance workflowInstance, List<WorkflowStep> steps) {
+    private void setupTaskDependencies(WorkflowInstance workflowInstance, WorkflowPlan plan) {
         logger.debug("Setting up task dependencies for workflow instance: {}", workflowInstance.getId());
 
         // Get all tasks for this workflow instance
@@ -200,19 +227,17 @@ public class WorkflowExecutionEngine {
 
         // Create a map of step order to tasks
         Map<Integer, List<Task>> stepTasks = tasks.stream()
-                .collect(Collectors.groupingBy(task -> {
-                    // Find the step order for this task
-                    return steps.stream()
-                            .filter(step -> step.getName().equals(task.getTitle()))
-                            .findFirst()
-                            .map(WorkflowStep::getStepOrder)
-                            .orElse(0);
-                }));
+                .collect(Collectors.groupingBy(task -> plan.getStepByName(task.getTitle())
+                        .map(WorkflowPlan.StepPlan::getStepOrder)
+                        .orElse(0)));
 //     {1->fin 2-> qual 3-> man}
-        // Set up dependencies: each step depends on the previous step
-        for (int i = 1; i <= steps.size(); i++) {
-            List<Task> currentStepTasks = stepTasks.get(i);
-            List<Task> previousStepTasks = stepTasks.get(i - 1);
+        // Set up dependencies along the plan's sequential edges: each step depends on the previous step
+        for (WorkflowPlan.StepPlan step : plan.getSteps()) {
+            if (step.getPreviousStepOrder() == null) {
+                continue;
+            }
+            List<Task> currentStepTasks = stepTasks.get(step.getStepOrder());
+            List<Task> previousStepTasks = stepTasks.get(step.getPreviousStepOrder());
 
             if (currentStepTasks != null && previousStepTasks != null) {
                 for (Task currentTask : currentStepTasks) {
@@ -236,24 +261,22 @@ public class WorkflowExecutionEngine {
      * Start the next step in the workflow
      */
     public void startNextStep(WorkflowInstance workflowInstance) {
-        logger.debug("Starting next step for workflow instance: {}", workflowInstance.getId());
+        startNextStep(workflowInstance, workflowPlanService.getPlan(workflowInstance.getWorkflow().getId()));
+    }
 
-        // Get the next step
-        List<WorkflowStep> steps = workflowStepRepository
-                .findByWorkflowIdOrderByStepOrder(workflowInstance.getWorkflow().getId());
+    private void startNextStep(WorkflowInstance workflowInstance, WorkflowPlan plan) {
+        logger.debug("Starting next step for workflow instance: {}", workflowInstance.getId());
 
         int nextStepOrder = workflowInstance.getCurrentStepOrder() + 1;
         
-        if (nextStepOrder > steps.size()) {
+        if (nextStepOrder > plan.getSteps().size()) {
             // Workflow completed
             completeWorkflow(workflowInstance);
             return;
         }
 
         // Find the next step
-        Optional<WorkflowStep> nextStep = steps.stream()
-                .filter(step -> step.getStepOrder() == nextStepOrder)
-                .findFirst();
+        Optional<WorkflowPlan.StepPlan> nextStep = plan.getStep(nextStepOrder);
 
         if (nextStep.isPresent()) {
             // Update workflow instance
@@ -269,7 +292,7 @@ public class WorkflowExecutionEngine {
     /**
      * Activate tasks for a specific step
      */
-    private void activateTasksForStep(WorkflowInstance workflowInstance, WorkflowStep step) {
+    private void activateTasksForStep(WorkflowInstance workflowInstance, WorkflowPlan.StepPlan step) {
         logger.debug("Activating tasks for step: {}", step.getName());
 
         // Get all tasks for this step
@@ -279,21 +302,27 @@ public class WorkflowExecutionEngine {
         for (Task task : stepTasks) {
             // Check if all dependencies are completed
             if (areTaskDependenciesCompleted(task)) {
+                metricsService.recordTaskTransition(task.getStatus(), "READY");
                 task.setStatus("READY");
                 task.setUpdatedBy("system");
                 taskRepository.save(task);
                 logger.debug("Activated task: {}", task.getId());
                 
-                // Invalidate cache for the assigned user
-                cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
+                // Invalidate cache for the assigned user (claimable tasks have none)
+                if (task.getAssignedTo() != null) {
+                    cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
+                }
             } else {
+                metricsService.recordTaskTransition(task.getStatus(), "BLOCKED");
                 task.setStatus("BLOCKED");
                 task.setUpdatedBy("system");
                 taskRepository.save(task);
                 logger.debug("Task {} is blocked by dependencies", task.getId());
                 
-                // Invalidate cache for the assigned user
-                cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
+                // Invalidate cache for the assigned user (claimable tasks have none)
+                if (task.getAssignedTo() != null) {
+                    cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
+                }
             }
         }
     }
@@ -354,12 +383,15 @@ public class WorkflowExecutionEngine {
                 workflowInstance.getId(), "PENDING");
 
         for (Task task : pendingTasks) {
+            metricsService.recordTaskTransition(task.getStatus(), "CANCELLED");
             task.setStatus("CANCELLED");
             task.setUpdatedBy("system");
             taskRepository.save(task);
             
-            // Invalidate cache for the assigned user
-            cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
+            // Invalidate cache for the assigned user (claimable tasks have none)
+            if (task.getAssignedTo() != null) {
+                cacheService.evict("user:tasks:" + task.getAssignedTo().getId());
+            }
         }
     }
 
@@ -382,25 +414,10 @@ public class WorkflowExecutionEngine {
     }
 
     /**
-     * Get workflow execution status
+     * Get workflow execution status (cached read model, see WorkflowStatusService)
      */
     public WorkflowExecutionStatusDto getWorkflowStatus(Long workflowInstanceId) {
-        WorkflowInstance workflowInstance = workflowInstanceRepository.findById(workflowInstanceId)
-                .orElseThrow(() -> new ResourceNotFoundException("Workflow instance not found: " + workflowInstanceId));
-
-        List<Task> tasks = taskRepository.findByWorkflowInstanceId(workflowInstanceId);
-
-        WorkflowExecutionStatusDto status = new WorkflowExecutionStatusDto();
-        status.setWorkflowInstanceId(workflowInstanceId);
-        status.setStatus(workflowInstance.getStatus());
-        status.setCurrentStep(workflowInstance.getCurrentStepOrder());
-        status.setTotalSteps(workflowStepRepository.findByWorkflowIdOrderByStepOrder(workflowInstance.getWorkflow().getId()).size());
-        status.setTotalTasks((long) tasks.size());
-        status.setCompletedTasks(tasks.stream().filter(t -> "COMPLETED".equals(t.getStatus())).count());
-        status.setPendingTasks(tasks.stream().filter(t -> "PENDING".equals(t.getStatus())).count());
-        status.setBlockedTasks(tasks.stream().filter(t -> "BLOCKED".equals(t.getStatus())).count());
-
-        return status;
+        return workflowStatusService.getStatus(workflowInstanceId);
     }
 
     /**
@@ -7,6 +7,7 @@ import com.locknroll.repository.WorkflowInstanceRepository;
 import com.locknroll.repository.WorkflowRepository;
 import com.locknroll.exception.ResourceNotFoundException;
 import com.locknroll.exception.WorkflowInstanceAlreadyExistsException;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -174,6 +175,7 @@ public class WorkflowInstanceService {
     /**
      * Start workflow instance
      */
+    @Timed(value = MetricsService.WORKFLOW_START, extraTags = {"engine", "instance"}, histogram = true)
     public WorkflowInstanceDto startWorkflowInstance(Long id) {
         logger.info("Starting workflow instance: {}", id);
         
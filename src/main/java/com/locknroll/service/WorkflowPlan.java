@@ -0,0 +1,393 @@
+package com.locknroll.service;
+
+import com.locknroll.entity.ParallelProcessingGroup;
+import com.locknroll.entity.Workflow;
+import com.locknroll.entity.WorkflowCondition;
+import com.locknroll.entity.WorkflowStep;
+import com.locknroll.entity.WorkflowTimeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, compiled snapshot of a workflow definition: ordered steps, parallel groups,
+ * step conditions (parsed once into predicates), sequential dependency edges and timeouts.
+ *
+ * Built by WorkflowPlanService from a handful of queries and shared between threads, so the
+ * engines can start and advance workflows without re-reading the definition. Holds ids rather
+ * than entities; use getReferenceById when a step has to be attached to a new row.
+ */
+public final class WorkflowPlan {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowPlan.class);
+
+    private final Long workflowId;
+    private final String name;
+    private final Integer version;
+    private final boolean active;
+    private final String entityType;
+    private final List<StepPlan> steps;
+    private final List<GroupPlan> groups;
+    private final Map<Integer, StepPlan> stepsByOrder;
+    private final Map<String, StepPlan> stepsByName;
+
+    WorkflowPlan(Workflow workflow, List<WorkflowStep> steps, List<ParallelProcessingGroup> groups,
+                 List<WorkflowCondition> conditions, List<WorkflowTimeout> timeouts) {
+        this.workflowId = workflow.getId();
+        this.name = workflow.getName();
+        this.version = workflow.getVersion();
+        this.active = Boolean.TRUE.equals(workflow.getIsActive());
+        this.entityType = workflow.getEntityType();
+
+        // Conditions in evaluation order (highest priority first), grouped per step
+        Map<Long, List<ConditionPlan>> conditionsByStep = new HashMap<>();
+        conditions.stream()
+                .sorted(Comparator.comparing(WorkflowCondition::getPriority, Comparator.reverseOrder()))
+                .forEach(condition -> conditionsByStep
+                        .computeIfAbsent(condition.getWorkflowStep().getId(), id -> new ArrayList<>())
+                        .add(ConditionPlan.compile(condition)));
+
+        Map<Long, List<TimeoutPlan>> timeoutsByStep = new HashMap<>();
+        for (WorkflowTimeout timeout : timeouts) {
+            timeoutsByStep.computeIfAbsent(timeout.getWorkflowStep().getId(), id -> new ArrayList<>())
+                    .add(new TimeoutPlan(timeout));
+        }
+
+        List<StepPlan> stepPlans = new ArrayList<>();
+        Map<Integer, StepPlan> byOrder = new HashMap<>();
+        Map<String, StepPlan> byName = new HashMap<>();
+        for (WorkflowStep step : steps) {
+            // Tasks of a step wait for the tasks of the preceding order; recorded once per order
+            Integer previousOrder = !byOrder.containsKey(step.getStepOrder())
+                    && byOrder.containsKey(step.getStepOrder() - 1) ? step.getStepOrder() - 1 : null;
+            StepPlan stepPlan = new StepPlan(step, previousOrder,
+                    conditionsByStep.getOrDefault(step.getId(), List.of()),
+                    timeoutsByStep.getOrDefault(step.getId(), List.of()));
+            stepPlans.add(stepPlan);
+            byOrder.putIfAbsent(stepPlan.getStepOrder(), stepPlan);
+            byName.putIfAbsent(stepPlan.getName(), stepPlan);
+        }
+
+        Map<Long, List<StepPlan>> stepsByGroup = new LinkedHashMap<>();
+        for (StepPlan step : stepPlans) {
+            if (step.getGroupId() != null) {
+                stepsByGroup.computeIfAbsent(step.getGroupId(), id -> new ArrayList<>()).add(step);
+            }
+        }
+        List<GroupPlan> groupPlans = new ArrayList<>();
+        for (ParallelProcessingGroup group : groups) {
+            groupPlans.add(new GroupPlan(group, stepsByGroup.getOrDefault(group.getId(), List.of())));
+        }
+
+        this.steps = Collections.unmodifiableList(stepPlans);
+        this.groups = Collections.unmodifiableList(groupPlans);
+        this.stepsByOrder = Collections.unmodifiableMap(byOrder);
+        this.stepsByName = Collections.unmodifiableMap(byName);
+    }
+
+    public Long getWorkflowId() {
+        return workflowId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * All steps, ordered by step order
+     */
+    public List<StepPlan> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Active parallel processing groups, ordered by group order
+     */
+    public List<GroupPlan> getGroups() {
+        return groups;
+    }
+
+    public Optional<StepPlan> getStep(int stepOrder) {
+        return Optional.ofNullable(stepsByOrder.get(stepOrder));
+    }
+
+    /**
+     * First step with the given name (tasks carry their step's name as title)
+     */
+    public Optional<StepPlan> getStepByName(String stepName) {
+        return Optional.ofNullable(stepsByName.get(stepName));
+    }
+
+    @Override
+    public String toString() {
+        return "WorkflowPlan{" +
+                "workflowId=" + workflowId +
+                ", name='" + name + '\'' +
+                ", version=" + version +
+                ", steps=" + steps.size() +
+                ", groups=" + groups.size() +
+                '}';
+    }
+
+    /**
+     * One workflow step with its compiled conditions and timeouts
+     */
+    public static final class StepPlan {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final Integer stepOrder;
+        private final boolean active;
+        private final String assignedRoleName;
+        private final Long groupId;
+        private final Integer previousStepOrder;
+        private final List<ConditionPlan> conditions;
+        private final List<TimeoutPlan> timeouts;
+
+        private StepPlan(WorkflowStep step, Integer previousStepOrder,
+                         List<ConditionPlan> conditions, List<TimeoutPlan> timeouts) {
+            this.id = step.getId();
+            this.name = step.getName();
+            this.description = step.getDescription();
+            this.stepOrder = step.getStepOrder();
+            this.active = Boolean.TRUE.equals(step.getIsActive());
+            this.assignedRoleName = step.getAssignedRoleName();
+            // Id comes from the proxy without loading the group
+            this.groupId = step.getParallelProcessingGroup() != null ? step.getParallelProcessingGroup().getId() : null;
+            this.previousStepOrder = previousStepOrder;
+            this.conditions = List.copyOf(conditions);
+            this.timeouts = List.copyOf(timeouts);
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public Integer getStepOrder() {
+            return stepOrder;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public String getAssignedRoleName() {
+            return assignedRoleName;
+        }
+
+        public Long getGroupId() {
+            return groupId;
+        }
+
+        /**
+         * Step order this step's tasks depend on (sequential edge); null for the first step and for
+         * further steps sharing an order, whose edge is already carried by the first one
+         */
+        public Integer getPreviousStepOrder() {
+            return previousStepOrder;
+        }
+
+        public List<ConditionPlan> getConditions() {
+            return conditions;
+        }
+
+        public List<TimeoutPlan> getTimeouts() {
+            return timeouts;
+        }
+
+        /**
+         * Whether the step runs for this context; the first failing condition in priority order, or null
+         */
+        public ConditionPlan firstFailingCondition(Map<String, Object> context) {
+            for (ConditionPlan condition : conditions) {
+                if (!condition.test(context)) {
+                    return condition;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A parallel processing group and its steps
+     */
+    public static final class GroupPlan {
+        private final Long id;
+        private final String name;
+        private final Integer groupOrder;
+        private final String completionStrategy;
+        private final Integer requiredCompletionCount;
+        private final List<StepPlan> steps;
+
+        private GroupPlan(ParallelProcessingGroup group, List<StepPlan> steps) {
+            this.id = group.getId();
+            this.name = group.getGroupName();
+            this.groupOrder = group.getGroupOrder();
+            this.completionStrategy = group.getCompletionStrategy();
+            this.requiredCompletionCount = group.getRequiredCompletionCount();
+            this.steps = List.copyOf(steps);
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getGroupOrder() {
+            return groupOrder;
+        }
+
+        public String getCompletionStrategy() {
+            return completionStrategy;
+        }
+
+        public Integer getRequiredCompletionCount() {
+            return requiredCompletionCount;
+        }
+
+        public List<StepPlan> getSteps() {
+            return steps;
+        }
+    }
+
+    /**
+     * Active timeout configuration of a step
+     */
+    public static final class TimeoutPlan {
+        private final Long id;
+        private final Integer timeoutDurationHours;
+        private final String timeoutAction;
+        private final String escalationRole;
+        private final String notificationMessage;
+
+        private TimeoutPlan(WorkflowTimeout timeout) {
+            this.id = timeout.getId();
+            this.timeoutDurationHours = timeout.getTimeoutDurationHours();
+            this.timeoutAction = timeout.getTimeoutAction();
+            this.escalationRole = timeout.getEscalationRole();
+            this.notificationMessage = timeout.getNotificationMessage();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Integer getTimeoutDurationHours() {
+            return timeoutDurationHours;
+        }
+
+        public String getTimeoutAction() {
+            return timeoutAction;
+        }
+
+        public String getEscalationRole() {
+            return escalationRole;
+        }
+
+        public String getNotificationMessage() {
+            return notificationMessage;
+        }
+    }
+
+    /**
+     * A step condition parsed once into a predicate over the workflow context
+     */
+    public static final class ConditionPlan {
+        private final String name;
+        private final Predicate<Map<String, Object>> predicate;
+
+        private ConditionPlan(String name, Predicate<Map<String, Object>> predicate) {
+            this.name = name;
+            this.predicate = predicate;
+        }
+
+        /**
+         * Parse a condition expression; unsupported expressions always pass,
+         * expressions that cannot be parsed always fail
+         */
+        public static ConditionPlan compile(WorkflowCondition condition) {
+            try {
+                // Simple condition evaluation - in a real implementation, you might use a rule engine
+                String expression = condition.getConditionExpression();
+
+                // Example: Check if a field exists in context
+                if (expression.contains("entityType")) {
+                    String expectedType = extractValue(expression, "entityType");
+                    return new ConditionPlan(condition.getConditionName(),
+                            context -> expectedType.equals(context.get("entityType")));
+                }
+
+                if (expression.contains("userRole")) {
+                    String expectedRole = extractValue(expression, "userRole");
+                    return new ConditionPlan(condition.getConditionName(),
+                            context -> expectedRole.equals(context.get("userRole")));
+                }
+
+                // Default to true if no specific conditions match
+                return new ConditionPlan(condition.getConditionName(), context -> true);
+            } catch (Exception e) {
+                logger.error("Error compiling condition {}: {}", condition.getConditionName(), e.getMessage());
+                return new ConditionPlan(condition.getConditionName(), context -> false);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean test(Map<String, Object> context) {
+            try {
+                return predicate.test(context);
+            } catch (Exception e) {
+                logger.error("Error evaluating condition {}: {}", name, e.getMessage());
+                return false;
+            }
+        }
+
+        /**
+         * Extract value from condition expression
+         */
+        private static String extractValue(String expression, String key) {
+            // Simple extraction - in a real implementation, use a proper expression parser
+            if (expression.contains(key + "=")) {
+                String[] parts = expression.split(key + "=");
+                if (parts.length > 1) {
+                    return parts[1].split("[,\\s]")[0];
+                }
+            }
+            return "";
+        }
+    }
+}
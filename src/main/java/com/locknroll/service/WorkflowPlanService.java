@@ -0,0 +1,194 @@
+package com.locknroll.service;
+
+import com.locknroll.datasource.ReplicaRoutingDataSource;
+import com.locknroll.entity.ParallelProcessingGroup;
+import com.locknroll.entity.Workflow;
+import com.locknroll.entity.WorkflowCondition;
+import com.locknroll.entity.WorkflowStep;
+import com.locknroll.entity.WorkflowTimeout;
+import com.locknroll.exception.ResourceNotFoundException;
+import com.locknroll.repository.ParallelProcessingGroupRepository;
+import com.locknroll.repository.WorkflowConditionRepository;
+import com.locknroll.repository.WorkflowRepository;
+import com.locknroll.repository.WorkflowStepRepository;
+import com.locknroll.repository.WorkflowTimeoutRepository;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of compiled workflow plans (see WorkflowPlan), keyed by workflow id.
+ *
+ * A plan is built on first use from five queries and reused by every start and step transition
+ * until the workflow is changed through WorkflowService. Invalidations are published on a Redis
+ * topic after commit so every node drops its copy; a plan built concurrently with an invalidation
+ * is returned to its caller but not cached. The same invalidation evicts the workflow's entries
+ * from the Hibernate second-level cache.
+ */
+@Service
+public class WorkflowPlanService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowPlanService.class);
+
+    private static final String INVALIDATION_TOPIC = "locknroll:workflow:plan:invalidations";
+
+    @Autowired
+    private WorkflowRepository workflowRepository;
+
+    @Autowired
+    private WorkflowStepRepository workflowStepRepository;
+
+    @Autowired
+    private ParallelProcessingGroupRepository parallelProcessingGroupRepository;
+
+    @Autowired
+    private WorkflowConditionRepository workflowConditionRepository;
+
+    @Autowired
+    private WorkflowTimeoutRepository workflowTimeoutRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    private final ConcurrentMap<Long, WorkflowPlan> plans = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> workflowIdsByName = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a build that raced with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private RTopic invalidations;
+
+    @PostConstruct
+    void init() {
+        invalidations = redissonClient.getTopic(INVALIDATION_TOPIC, LongCodec.INSTANCE);
+        invalidations.addListener(Long.class, (channel, workflowId) -> evict(workflowId));
+    }
+
+    /**
+     * Compiled plan for a workflow
+     */
+    @Transactional(readOnly = true)
+    public WorkflowPlan getPlan(Long workflowId) {
+        WorkflowPlan plan = plans.get(workflowId);
+        if (plan != null) {
+            return plan;
+        }
+        // Plans are kept until invalidated, so never build one from a lagging replica
+        ReplicaRoutingDataSource.usePrimary();
+        Workflow workflow = workflowRepository.findById(workflowId)
+                .orElseThrow(() -> new ResourceNotFoundException("Workflow not found with id: " + workflowId));
+        return build(workflow);
+    }
+
+    /**
+     * Compiled plan for a workflow looked up by name
+     */
+    @Transactional(readOnly = true)
+    public WorkflowPlan getPlanByName(String workflowName) {
+        Long workflowId = workflowIdsByName.get(workflowName);
+        if (workflowId != null) {
+            WorkflowPlan plan = plans.get(workflowId);
+            if (plan != null && plan.getName().equals(workflowName)) {
+                return plan;
+            }
+        }
+        ReplicaRoutingDataSource.usePrimary();
+        Workflow workflow = workflowRepository.findByName(workflowName)
+                .orElseThrow(() -> new ResourceNotFoundException("Workflow not found: " + workflowName));
+        return build(workflow);
+    }
+
+    /**
+     * Drop the plan on every node once the current transaction commits (immediately outside one)
+     */
+    public void invalidate(Long workflowId) {
+        if (workflowId == null) {
+            return;
+        }
+        // Also evict locally right away, so this transaction does not keep using the old plan
+        evict(workflowId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishInvalidation(workflowId);
+                }
+            });
+        } else {
+            publishInvalidation(workflowId);
+        }
+    }
+
+    private WorkflowPlan build(Workflow workflow) {
+        long buildGeneration = generation.get();
+        long loadStart = System.nanoTime();
+        Long workflowId = workflow.getId();
+
+        WorkflowPlan plan = new WorkflowPlan(workflow,
+                workflowStepRepository.findByWorkflowIdOrderByStepOrder(workflowId),
+                parallelProcessingGroupRepository.findActiveGroupsByWorkflowIdOrderByGroupOrder(workflowId),
+                workflowConditionRepository.findActiveConditionsByWorkflowId(workflowId),
+                workflowTimeoutRepository.findActiveTimeoutsByWorkflowId(workflowId));
+        metricsService.recordCacheLoad("workflowPlan", System.nanoTime() - loadStart);
+
+        if (generation.get() == buildGeneration) {
+            plans.put(workflowId, plan);
+            workflowIdsByName.put(plan.getName(), workflowId);
+            logger.debug("Compiled {}", plan);
+        }
+        return plan;
+    }
+
+    private void evict(Long workflowId) {
+        generation.incrementAndGet();
+        WorkflowPlan removed = plans.remove(workflowId);
+        workflowIdsByName.values().removeIf(workflowId::equals);
+        if (removed != null) {
+            logger.debug("Evicted compiled plan for workflow {}", workflowId);
+        }
+        evictSecondLevelCache(workflowId);
+    }
+
+    /**
+     * The second-level cache is per node, so definitions changed on another node are dropped here too.
+     * Child ids are not known, so their regions are cleared whole; definition changes are rare.
+     */
+    private void evictSecondLevelCache(Long workflowId) {
+        org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+        cache.evictEntityData(Workflow.class, workflowId);
+        cache.evictCollectionData(Workflow.class.getName() + ".steps", workflowId);
+        cache.evictEntityData(WorkflowStep.class);
+        cache.evictEntityData(WorkflowCondition.class);
+        cache.evictEntityData(WorkflowTimeout.class);
+        cache.evictEntityData(ParallelProcessingGroup.class);
+        cache.evictCollectionData(ParallelProcessingGroup.class.getName() + ".workflowSteps");
+    }
+
+    private void publishInvalidation(Long workflowId) {
+        try {
+            // Delivered to this node too, which evicts again after commit
+            invalidations.publish(workflowId);
+        } catch (Exception e) {
+            // Other nodes keep a stale plan until restart or the next change to this workflow
+            logger.error("Failed to publish plan invalidation for workflow {}: {}", workflowId, e.getMessage());
+        }
+    }
+}
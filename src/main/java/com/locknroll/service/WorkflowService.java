@@ -42,6 +42,9 @@ public class WorkflowService {
     @Autowired
     private RoleRepository roleRepository;
     
+    @Autowired
+    private WorkflowPlanService workflowPlanService;
+    
     /**
      * Create a new workflow
      */
@@ -141,9 +144,11 @@ public class WorkflowService {
         existingWorkflow.setDescription(workflowDto.getDescription());
         existingWorkflow.setEntityType(workflowDto.getEntityType());
         existingWorkflow.setIsActive(workflowDto.getIsActive());
+        existingWorkflow.setVersion(existingWorkflow.getVersion() + 1);
         existingWorkflow.setUpdatedBy("system"); // TODO: Get from security context
         
         Workflow savedWorkflow = workflowRepository.save(existingWorkflow);
+        workflowPlanService.invalidate(id);
         
         logger.info("Updated workflow: {}", savedWorkflow.getName());
         return convertToDto(savedWorkflow);
@@ -159,6 +164,7 @@ public class WorkflowService {
                 .orElseThrow(() -> new ResourceNotFoundException("Workflow not found with id: " + id));
         
         workflowRepository.deleteById(id);
+        workflowPlanService.invalidate(id);
         logger.info("Deleted workflow: {}", workflow.getName());
     }
     
@@ -172,9 +178,11 @@ public class WorkflowService {
                 .orElseThrow(() -> new ResourceNotFoundException("Workflow not found with id: " + id));
         
         workflow.setIsActive(true);
+        workflow.setVersion(workflow.getVersion() + 1);
         workflow.setUpdatedBy("system"); // TODO: Get from security context
         
         Workflow savedWorkflow = workflowRepository.save(workflow);
+        workflowPlanService.invalidate(id);
         logger.info("Activated workflow: {}", savedWorkflow.getName());
         
         return convertToDto(savedWorkflow);
@@ -190,9 +198,11 @@ public class WorkflowService {
                 .orElseThrow(() -> new ResourceNotFoundException("Workflow not found with id: " + id));
         
         workflow.setIsActive(false);
+        workflow.setVersion(workflow.getVersion() + 1);
         workflow.setUpdatedBy("system"); // TODO: Get from security context
         
         Workflow savedWorkflow = workflowRepository.save(workflow);
+        workflowPlanService.invalidate(id);
         logger.info("Deactivated workflow: {}", savedWorkflow.getName());
         
         return convertToDto(savedWorkflow);
@@ -0,0 +1,157 @@
+package com.locknroll.service;
+
+import com.locknroll.datasource.ReplicaRoutingDataSource;
+import com.locknroll.dto.WorkflowExecutionStatusDto;
+import com.locknroll.entity.WorkflowInstance;
+import com.locknroll.exception.ResourceNotFoundException;
+import com.locknroll.repository.TaskRepository;
+import com.locknroll.repository.TaskStatusCount;
+import com.locknroll.repository.WorkflowInstanceRepository;
+import com.locknroll.repository.WorkflowStepRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Cache-aside read model for workflow execution status, polled by the frontend.
+ * 
+ * The compact status record (task counts per status, current step, total steps) is kept in Redis
+ * per instance and rebuilt on a miss with one GROUP BY over the instance's tasks and one step count.
+ * Task and workflow instance changes evict it after their transaction commits (see
+ * WorkflowStatusListener). The TTL bounds staleness if a reader repopulates the record from data
+ * that was replaced while it was computing.
+ */
+@Service
+public class WorkflowStatusService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowStatusService.class);
+    
+    private static final String KEY_PREFIX = "workflow:status:";
+    private static final Duration STATUS_TTL = Duration.ofSeconds(60);
+    
+    // Transaction resource holding the instance ids to evict on commit
+    private static final Object PENDING_EVICTIONS = WorkflowStatusService.class.getName() + ".pendingEvictions";
+    
+    @Autowired
+    private WorkflowInstanceRepository workflowInstanceRepository;
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private WorkflowStepRepository workflowStepRepository;
+    
+    @Autowired
+    private CacheService cacheService;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    /**
+     * Status for a workflow instance, from Redis when present
+     */
+    @Transactional(readOnly = true)
+    public WorkflowExecutionStatusDto getStatus(Long workflowInstanceId) {
+        String key = KEY_PREFIX + workflowInstanceId;
+        Optional<WorkflowExecutionStatusDto> cached = cacheService.get(key, WorkflowExecutionStatusDto.class);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        
+        // Cached for every node; a lagging replica would re-cache the status a write just evicted
+        ReplicaRoutingDataSource.usePrimary();
+        long loadStart = System.nanoTime();
+        WorkflowExecutionStatusDto status = computeStatus(workflowInstanceId);
+        metricsService.recordCacheLoad("workflowStatus", System.nanoTime() - loadStart);
+        cacheService.cache(key, status, STATUS_TTL);
+        return status;
+    }
+    
+    /**
+     * Drop the cached status once the current transaction commits (immediately outside one).
+     * Multiple changes to the same instance in one transaction evict once.
+     */
+    @SuppressWarnings("unchecked")
+    public void evictAfterCommit(Long workflowInstanceId) {
+        if (workflowInstanceId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(workflowInstanceId);
+            return;
+        }
+        
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(PENDING_EVICTIONS);
+        if (pending == null) {
+            Set<Long> ids = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(PENDING_EVICTIONS, ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.forEach(WorkflowStatusService.this::evict);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_EVICTIONS);
+                }
+            });
+            pending = ids;
+        }
+        pending.add(workflowInstanceId);
+    }
+    
+    /**
+     * Drop the cached status now
+     */
+    public void evict(Long workflowInstanceId) {
+        try {
+            cacheService.evict(KEY_PREFIX + workflowInstanceId);
+        } catch (Exception e) {
+            // The TTL catches up; a failed eviction must not fail the caller
+            logger.warn("Failed to evict workflow status for instance {}: {}", workflowInstanceId, e.getMessage());
+        }
+    }
+    
+    private WorkflowExecutionStatusDto computeStatus(Long workflowInstanceId) {
+        WorkflowInstance workflowInstance = workflowInstanceRepository.findById(workflowInstanceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Workflow instance not found: " + workflowInstanceId));
+        
+        long total = 0;
+        long completed = 0;
+        long pending = 0;
+        long blocked = 0;
+        for (TaskStatusCount count : taskRepository.countByStatusForWorkflowInstance(workflowInstanceId)) {
+            long n = count.getCount();
+            total += n;
+            if ("COMPLETED".equals(count.getStatus())) {
+                completed = n;
+            } else if ("PENDING".equals(count.getStatus())) {
+                pending = n;
+            } else if ("BLOCKED".equals(count.getStatus())) {
+                blocked = n;
+            }
+        }
+        
+        WorkflowExecutionStatusDto status = new WorkflowExecutionStatusDto();
+        status.setWorkflowInstanceId(workflowInstanceId);
+        status.setStatus(workflowInstance.getStatus());
+        status.setCurrentStep(workflowInstance.getCurrentStepOrder());
+        // Workflow id comes from the proxy without loading the workflow
+        status.setTotalSteps((int) workflowStepRepository.countByWorkflowId(workflowInstance.getWorkflow().getId()));
+        status.setTotalTasks(total);
+        status.setCompletedTasks(completed);
+        status.setPendingTasks(pending);
+        status.setBlockedTasks(blocked);
+        return status;
+    }
+}
@@ -55,7 +55,7 @@ CREATE INDEX IF NOT EXISTS idx_fruits_created_at ON fruits(created_at);
 
 -- Approval table indexes
 CREATE INDEX IF NOT EXISTS idx_approvals_task_id ON approvals(task_id);
-CREATE INDEX IF NOT EXISTS idx_approvals_approved_by ON approvals(approved_by);
+CREATE INDEX IF NOT EXISTS idx_approvals_approved_by ON approvals(approved_by_id);
 CREATE INDEX IF NOT EXISTS idx_approvals_created_at ON approvals(created_at);
 
 -- WorkflowCondition table indexes
@@ -65,7 +65,7 @@ CREATE INDEX IF NOT EXISTS idx_workflow_conditions_workflow_step_id ON workflow_
 CREATE INDEX IF NOT EXISTS idx_workflow_timeouts_workflow_step_id ON workflow_timeouts(workflow_step_id);
 
 -- ParallelProcessingGroup table indexes
-CREATE INDEX IF NOT EXISTS idx_parallel_processing_groups_name ON parallel_processing_groups(name);
+CREATE INDEX IF NOT EXISTS idx_parallel_processing_groups_name ON parallel_processing_groups(group_name);
 
 -- Composite indexes for common query patterns
 CREATE INDEX IF NOT EXISTS idx_tasks_user_status ON tasks(assigned_to_id, status);
@@ -0,0 +1,23 @@
+-- Claim queue for role tasks that are not assigned up front (shared-queue assignment strategy)
+-- Approvers pull work with SELECT ... FOR UPDATE SKIP LOCKED; a claim is a lease that expires
+-- unless the holder heartbeats it
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS claim_expires_at TIMESTAMP;
+
+-- Role whose members may claim the task; the step's role, except for escalated tasks, which
+-- belong to the escalation role
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS claim_role_name VARCHAR(50);
+
+-- Open tasks created before the column existed belong to their step's role
+UPDATE tasks t SET claim_role_name = ws.assigned_role_name
+FROM workflow_steps ws
+WHERE ws.id = t.workflow_step_id AND t.claim_role_name IS NULL
+  AND t.status IN ('PENDING', 'READY', 'IN_PROGRESS');
+
+-- Unclaimed ready tasks, oldest first per role
+CREATE INDEX IF NOT EXISTS idx_tasks_claim_queue ON tasks(claim_role_name, created_at)
+    WHERE assigned_to_id IS NULL AND status = 'READY' AND is_active = true AND is_deleted = false;
+
+-- Claims whose lease ran out and can be taken over
+CREATE INDEX IF NOT EXISTS idx_tasks_claim_expiry ON tasks(claim_expires_at)
+    WHERE claim_expires_at IS NOT NULL;
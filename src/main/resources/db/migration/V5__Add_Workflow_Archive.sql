@@ -0,0 +1,46 @@
+-- Archive for finished workflow instances (see WorkflowArchiveService)
+-- The hot tables stay unpartitioned: other tables reference them by id alone, and Hibernate keeps
+-- managing them. Old finished instances are moved here with their tasks, task dependencies and
+-- approvals, so the hot tables only hold live and recent work.
+-- Archive tables are range-partitioned by created_at month; the archiver creates each monthly
+-- partition before moving rows into it, and can later detach old ones. Reads must bound
+-- created_at so the planner prunes partitions.
+
+CREATE TABLE IF NOT EXISTS workflow_instances_archive (
+    LIKE workflow_instances INCLUDING DEFAULTS,
+    archived_at TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE IF NOT EXISTS tasks_archive (
+    LIKE tasks INCLUDING DEFAULTS,
+    archived_at TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE IF NOT EXISTS task_dependencies_archive (
+    LIKE task_dependencies INCLUDING DEFAULTS,
+    archived_at TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE IF NOT EXISTS approvals_archive (
+    LIKE approvals INCLUDING DEFAULTS,
+    archived_at TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Partitioned indexes, created on every partition the archiver adds
+CREATE INDEX IF NOT EXISTS idx_workflow_instances_archive_entity ON workflow_instances_archive(entity_type, entity_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_tasks_archive_instance ON tasks_archive(workflow_instance_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_tasks_archive_assignee ON tasks_archive(assigned_to_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_task_dependencies_archive_dependent ON task_dependencies_archive(dependent_task_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_approvals_archive_instance ON approvals_archive(workflow_instance_id, created_at);
+
+-- Finished instances by the time they finished, oldest first; drives archive batch selection
+CREATE INDEX IF NOT EXISTS idx_workflow_instances_archivable
+    ON workflow_instances((COALESCE(completed_at, cancelled_at, updated_at, created_at)))
+    WHERE status IN ('COMPLETED', 'REJECTED', 'CANCELLED');
+
+-- Approvals moved along with their instance (task_id is indexed in V2)
+CREATE INDEX IF NOT EXISTS idx_approvals_workflow_instance_id ON approvals(workflow_instance_id);
@@ -0,0 +1,211 @@
+package com.locknroll.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EXPLAIN-based regression test for the engine's hot queries: seeds a realistically skewed data
+ * set (mostly finished tasks) and fails if any query plans a sequential scan on a large table.
+ *
+ * Runs against a throwaway Postgres container so Hibernate and all Flyway migrations are applied
+ * to an empty database, exactly as on a fresh install.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanRegressionTest {
+
+    private static final int USERS = 200;
+    private static final int INSTANCES = 5_000;
+    private static final int TASKS = 100_000;
+    private static final int TIMEOUTS = 20_000;
+
+    // Small lookup tables may legitimately be scanned
+    private static final Set<String> LARGE_TABLES = Set.of("tasks", "task_dependencies", "workflow_timeouts", "workflow_instances");
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private long userId;
+    private long instanceId;
+    private long stepId;
+
+    @BeforeAll
+    void seed() {
+        long roleId = jdbcTemplate.queryForObject(
+                "INSERT INTO roles (name, is_active, is_deleted, created_at) VALUES ('PLAN_TEST', true, false, now()) RETURNING id",
+                Long.class);
+        long workflowId = jdbcTemplate.queryForObject(
+                "INSERT INTO workflows (name, entity_type, is_active, is_default, version, is_deleted, created_at) " +
+                "VALUES ('plan-test', 'FRUIT', true, false, 1, false, now()) RETURNING id", Long.class);
+        stepId = jdbcTemplate.queryForObject(
+                "INSERT INTO workflow_steps (name, step_order, is_required, is_parallel, is_active, workflow_id, " +
+                "assigned_role_id, assigned_role_name, is_deleted, created_at) " +
+                "VALUES ('Review', 1, true, false, true, ?, ?, 'PLAN_TEST', false, now()) RETURNING id",
+                Long.class, workflowId, roleId);
+
+        long firstUser = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM users", Long.class);
+        jdbcTemplate.update(
+                "INSERT INTO users (username, email, password, first_name, last_name, is_active, is_email_verified, " +
+                "is_deleted, created_at) " +
+                "SELECT 'plan' || g, 'plan' || g || '@example.com', 'x', 'Plan', 'User' || g, true, true, false, now() " +
+                "FROM generate_series(1, ?) g", USERS);
+        userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE username LIKE 'plan%' AND id >= ?", Long.class, firstUser);
+
+        // One in ten instances is still running
+        jdbcTemplate.update(
+                "INSERT INTO workflow_instances (workflow_id, entity_id, entity_type, status, is_active, is_deleted, created_at) " +
+                "SELECT ?, g::text, 'FRUIT', CASE WHEN g % 10 = 0 THEN 'IN_PROGRESS' ELSE 'COMPLETED' END, true, false, " +
+                "now() - g * interval '1 minute' FROM generate_series(1, ?) g", workflowId, INSTANCES);
+        long firstInstance = jdbcTemplate.queryForObject("SELECT MIN(id) FROM workflow_instances WHERE workflow_id = ?", Long.class, workflowId);
+        instanceId = firstInstance + 9;
+
+        // 95% of tasks are finished, as in a long-running system
+        jdbcTemplate.update(
+                "INSERT INTO tasks (workflow_instance_id, workflow_step_id, assigned_to_id, title, status, is_active, is_deleted, created_at) " +
+                "SELECT ? + g % ?, ?, ? + g % ?, 'Task ' || g, " +
+                "CASE WHEN g % 20 = 0 THEN 'PENDING' WHEN g % 20 = 1 THEN 'IN_PROGRESS' ELSE 'COMPLETED' END, " +
+                "true, false, now() - g * interval '1 second' FROM generate_series(1, ?) g",
+                firstInstance, INSTANCES, stepId, userId, USERS, TASKS);
+
+        // Every other task depends on its predecessor
+        jdbcTemplate.update(
+                "INSERT INTO task_dependencies (parent_task_id, dependent_task_id, is_active, is_deleted, created_at) " +
+                "SELECT t.id, t.id + 1, true, false, now() FROM tasks t WHERE t.id % 2 = 0 " +
+                "AND EXISTS (SELECT 1 FROM tasks n WHERE n.id = t.id + 1)");
+
+        // One in a hundred timeouts is active
+        jdbcTemplate.update(
+                "INSERT INTO workflow_timeouts (workflow_step_id, timeout_duration_hours, timeout_action, is_active, " +
+                "last_checked, is_deleted, created_at) " +
+                "SELECT ?, 24, 'NOTIFY', g % 100 = 0, now() - g * interval '1 minute', false, now() " +
+                "FROM generate_series(1, ?) g", stepId, TIMEOUTS);
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    /**
+     * findByWorkflowInstanceIdAndStatusOrderByCreatedAt
+     */
+    @Test
+    void testTasksByInstanceAndStatusUseIndex() {
+        assertNoSequentialScan("SELECT * FROM tasks WHERE workflow_instance_id = " + instanceId +
+                " AND status = 'IN_PROGRESS' ORDER BY created_at");
+    }
+
+    /**
+     * findByAssignedToIdAndStatusOrderByCreatedAt (user inbox)
+     */
+    @Test
+    void testInboxUsesIndex() {
+        assertNoSequentialScan("SELECT * FROM tasks WHERE assigned_to_id = " + userId +
+                " AND status = 'PENDING' ORDER BY created_at");
+    }
+
+    /**
+     * findByWorkflowInstanceIdAndStepName
+     */
+    @Test
+    void testTasksByInstanceAndStepNameUseIndex() {
+        assertNoSequentialScan("SELECT t.* FROM tasks t JOIN workflow_steps ws ON ws.id = t.workflow_step_id " +
+                "WHERE t.workflow_instance_id = " + instanceId + " AND ws.name = 'Review'");
+    }
+
+    /**
+     * findReadyTasks: NOT EXISTS probe on task_dependencies
+     */
+    @Test
+    void testReadyTasksUseIndex() {
+        assertNoSequentialScan("SELECT t.* FROM tasks t WHERE t.workflow_instance_id = " + instanceId +
+                " AND t.status = 'PENDING' AND NOT EXISTS (SELECT 1 FROM task_dependencies td " +
+                "JOIN tasks p ON p.id = td.parent_task_id " +
+                "WHERE td.dependent_task_id = t.id AND p.status <> 'COMPLETED')");
+    }
+
+    /**
+     * findOverdueTimeouts
+     */
+    @Test
+    void testOverdueTimeoutsUseIndex() {
+        assertNoSequentialScan("SELECT * FROM workflow_timeouts WHERE is_active = true " +
+                "AND last_checked < now() - interval '1 hour'");
+    }
+
+    /**
+     * countOpenTasksByUser (least-loaded assignment)
+     */
+    @Test
+    void testOpenTaskCountsUseIndex() {
+        assertNoSequentialScan("SELECT assigned_to_id, COUNT(*) FROM tasks WHERE assigned_to_id IN (" +
+                userId + ", " + (userId + 1) + ", " + (userId + 2) + ") " +
+                "AND status IN ('PENDING', 'READY', 'BLOCKED', 'IN_PROGRESS') GROUP BY assigned_to_id");
+    }
+
+    /**
+     * findPendingSummariesByRole, first keyset page
+     */
+    @Test
+    void testPendingTasksByStepUseIndex() {
+        assertNoSequentialScan("SELECT t.id FROM tasks t WHERE t.workflow_step_id = " + stepId +
+                " AND t.status = 'PENDING' ORDER BY t.created_at, t.id LIMIT 50");
+    }
+
+    /**
+     * countActiveWorkflowInstances
+     */
+    @Test
+    void testRunningInstanceCountUsesIndex() {
+        assertNoSequentialScan("SELECT COUNT(*) FROM workflow_instances WHERE status IN ('PENDING', 'IN_PROGRESS')");
+    }
+
+    private void assertNoSequentialScan(String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class);
+        List<String> scans = new ArrayList<>();
+        try {
+            collectSequentialScans(objectMapper.readTree(plan).get(0).get("Plan"), scans);
+        } catch (Exception e) {
+            fail("Could not parse plan for: " + sql + "\n" + plan, e);
+        }
+        assertTrue(scans.isEmpty(), "Sequential scan on " + scans + " for: " + sql + "\n" + plan);
+    }
+
+    private void collectSequentialScans(JsonNode node, List<String> scans) {
+        if ("Seq Scan".equals(node.path("Node Type").asText()) && LARGE_TABLES.contains(node.path("Relation Name").asText())) {
+            scans.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSequentialScans(child, scans);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.locknroll.integration;
+
+import com.locknroll.datasource.ReplicaLagMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Read-replica routing against two Postgres containers. The "replica" is a standalone server
+ * (reports zero lag, see ReplicaLagMonitor); each database holds a one-row node table naming
+ * itself, so a query shows which one a transaction was routed to.
+ */
+@SpringBootTest(properties = "app.datasource.replica.enabled=true")
+@ActiveProfiles("test")
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ReplicaRoutingTest {
+
+    private static final String WHICH_NODE = "SELECT name FROM routing_test_node";
+
+    @Container
+    static final PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("app.datasource.replica.url", replica::getJdbcUrl);
+        registry.add("app.datasource.replica.username", replica::getUsername);
+        registry.add("app.datasource.replica.password", replica::getPassword);
+        registry.add("app.datasource.replica.lag-check-ms", () -> "200");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @SpyBean
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @BeforeAll
+    void markNodes() throws Exception {
+        markNode(primaryDataSource.getConnection(), "primary");
+        // The replica pool is read-only
+        markNode(DriverManager.getConnection(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()), "replica");
+
+        // Wait for the first lag sample
+        for (int attempt = 0; attempt < 50 && !replicaLagMonitor.isUsable(); attempt++) {
+            Thread.sleep(100);
+        }
+        assertTrue(replicaLagMonitor.isUsable(), "Replica lag was never sampled");
+    }
+
+    @AfterEach
+    void resetState() {
+        SecurityContextHolder.clearContext();
+        reset(replicaLagMonitor);
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseReplica() {
+        assertEquals("replica", readOnly());
+        assertEquals("primary", readWrite(), "Read-write transactions always use the primary");
+    }
+
+    @Test
+    void testLaggingReplicaFallsBackToPrimary() {
+        doReturn(false).when(replicaLagMonitor).isUsable();
+
+        assertEquals("primary", readOnly());
+    }
+
+    @Test
+    void testReadYourWritesKeepsWriterOnPrimary() {
+        signIn("routing-writer");
+        readWrite();
+        assertEquals("primary", readOnly(), "Reads right after the user's own write must see the primary");
+
+        signIn("routing-reader");
+        assertEquals("replica", readOnly(), "Other users keep reading the replica");
+    }
+
+    /**
+     * The lag limit itself: a sample over max-lag-ms makes the replica unusable
+     */
+    @Test
+    void testLagOverThresholdMakesReplicaUnusable() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(5000.0);
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource laggingReplica = mock(DataSource.class);
+        when(laggingReplica.getConnection()).thenReturn(connection);
+
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(laggingReplica, 2000, 1000);
+        monitor.sample();
+
+        assertEquals(5000, monitor.getLagMillis());
+        assertFalse(monitor.isUsable());
+    }
+
+    private String readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> jdbcTemplate.queryForObject(WHICH_NODE, String.class));
+    }
+
+    private String readWrite() {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.update("UPDATE routing_test_node SET touched_at = now()");
+            return jdbcTemplate.queryForObject(WHICH_NODE, String.class);
+        });
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private static void markNode(Connection connection, String name) throws SQLException {
+        try (connection; Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE routing_test_node (name VARCHAR(20), touched_at TIMESTAMP)");
+            statement.execute("INSERT INTO routing_test_node (name) VALUES ('" + name + "')");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.locknroll.integration;
+
+import com.locknroll.dto.TaskDto;
+import com.locknroll.entity.WorkflowInstance;
+import com.locknroll.entity.WorkflowStep;
+import com.locknroll.repository.WorkflowInstanceRepository;
+import com.locknroll.repository.WorkflowStepRepository;
+import com.locknroll.service.AdvancedWorkflowEngine;
+import com.locknroll.service.RoleMembershipService;
+import com.locknroll.service.TaskClaimService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * An escalated task without an assignee is queued for the escalation role: its members can claim
+ * it and members of the step's original role cannot
+ */
+@SpringBootTest(properties = "app.assignment.roles.ESCALATION_TEST=shared-queue")
+@ActiveProfiles("test")
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TaskClaimEscalationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AdvancedWorkflowEngine workflowEngine;
+
+    @Autowired
+    private TaskClaimService taskClaimService;
+
+    @Autowired
+    private RoleMembershipService roleMembershipService;
+
+    @Autowired
+    private WorkflowInstanceRepository workflowInstanceRepository;
+
+    @Autowired
+    private WorkflowStepRepository workflowStepRepository;
+
+    private long reviewerId;
+    private long escalationUserId;
+    private long stepId;
+    private long instanceId;
+
+    @BeforeAll
+    void seed() {
+        long reviewRole = insertRole("REVIEW_TEST");
+        long escalationRole = insertRole("ESCALATION_TEST");
+        reviewerId = insertUser("claim_reviewer", reviewRole);
+        escalationUserId = insertUser("claim_escalation", escalationRole);
+        // Seeded behind the membership index's back
+        roleMembershipService.invalidate(escalationUserId);
+
+        long workflowId = jdbcTemplate.queryForObject(
+                "INSERT INTO workflows (name, entity_type, is_active, is_default, version, is_deleted, created_at) " +
+                "VALUES ('claim-test', 'FRUIT', true, false, 1, false, now()) RETURNING id", Long.class);
+        stepId = jdbcTemplate.queryForObject(
+                "INSERT INTO workflow_steps (name, step_order, is_required, is_parallel, is_active, workflow_id, " +
+                "assigned_role_id, assigned_role_name, is_deleted, created_at) " +
+                "VALUES ('Review', 1, true, false, true, ?, ?, 'REVIEW_TEST', false, now()) RETURNING id",
+                Long.class, workflowId, reviewRole);
+        instanceId = jdbcTemplate.queryForObject(
+                "INSERT INTO workflow_instances (workflow_id, entity_id, entity_type, status, is_active, is_deleted, created_at) " +
+                "VALUES (?, '1', 'FRUIT', 'IN_PROGRESS', true, false, now()) RETURNING id", Long.class, workflowId);
+    }
+
+    @Test
+    void testEscalatedTaskIsClaimedByEscalationRole() {
+        transactionTemplate.executeWithoutResult(status -> {
+            WorkflowInstance instance = workflowInstanceRepository.findById(instanceId).orElseThrow();
+            WorkflowStep step = workflowStepRepository.findById(stepId).orElseThrow();
+            // escalateStep is what the timeout check calls; invoked on the target, past the proxy
+            ReflectionTestUtils.invokeMethod(AopTestUtils.getTargetObject(workflowEngine), "escalateStep",
+                    instance, step, "ESCALATION_TEST");
+        });
+
+        assertTrue(taskClaimService.claimTasks(reviewerId, List.of("REVIEW_TEST"), 10).isEmpty(),
+                "The step's original role must not see the escalated task");
+
+        List<TaskDto> claimed = taskClaimService.claimTasks(escalationUserId, List.of("ESCALATION_TEST"), 10);
+        assertEquals(1, claimed.size());
+        assertEquals("ESCALATED: Review", claimed.get(0).getTitle());
+    }
+
+    private long insertRole(String name) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO roles (name, is_active, is_deleted, created_at) VALUES (?, true, false, now()) RETURNING id",
+                Long.class, name);
+    }
+
+    private long insertUser(String username, long roleId) {
+        long userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, email, password, first_name, last_name, is_active, is_email_verified, " +
+                "is_deleted, created_at) VALUES (?, ?, 'x', 'Claim', 'User', true, true, false, now()) RETURNING id",
+                Long.class, username, username + "@example.com");
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)", userId, roleId);
+        return userId;
+    }
+}
@@ -0,0 +1,272 @@
+package com.locknroll.load;
+
+import com.locknroll.RedisLearningApplication;
+import com.locknroll.entity.Fruit;
+import com.locknroll.load.LoadTestSettings.Operation;
+import com.locknroll.repository.FruitRepository;
+import com.locknroll.service.DistributedLockService;
+import com.locknroll.service.FruitService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-node contention load test for fruit inventory.
+ *
+ * Starts several application contexts in this JVM, each with its own Redisson client and
+ * connection pool, against shared Testcontainers Postgres, Redis and MongoDB. Every node drives
+ * an open-loop mix of purchase/restock/update operations at a fixed rate; latency is measured
+ * from each operation's intended start time, so queueing behind slow locks shows up in the
+ * tail instead of silently lowering the offered load.
+ *
+ * At the end the stock of each fruit is compared with the ledger of successful operations to
+ * detect oversells and lost restocks. Updates send back the quantity they read, as a REST client
+ * would, so a stale update also shows up as drift; the default mix therefore has no updates, and
+ * -Dload.failOnViolation only asserts on drift when the mix has none. Run with: mvn -Pload test
+ * (see LoadTestSettings for knobs).
+ */
+@Tag("load")
+public class FruitInventoryLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FruitInventoryLoadTest.class);
+
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+    private static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+    private static final GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private static final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+    private static final LoadReport report = new LoadReport();
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @BeforeAll
+    static void startNodes() {
+        postgres.start();
+        mongo.start();
+        redis.start();
+
+        // Start sequentially so only the first node creates the schema and seeds reference data
+        for (int i = 0; i < settings.nodes; i++) {
+            nodes.add(startNode(i));
+        }
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        for (ConfigurableApplicationContext node : nodes) {
+            node.close();
+        }
+        redis.stop();
+        mongo.stop();
+        postgres.stop();
+    }
+
+    @Test
+    void fruitInventoryUnderContention() throws Exception {
+        List<Long> fruitIds = createFruits();
+        Map<Long, FruitLedger> ledgers = new HashMap<>();
+        for (Long fruitId : fruitIds) {
+            ledgers.put(fruitId, new FruitLedger());
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> dispatchers = new ArrayList<>();
+        List<ExecutorService> workers = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            ConfigurableApplicationContext node = nodes.get(i);
+            ExecutorService pool = Executors.newFixedThreadPool(settings.threadsPerNode);
+            workers.add(pool);
+            dispatchers.add(new Thread(() -> dispatch(node, pool, fruitIds, ledgers, running),
+                    "load-dispatcher-" + i));
+        }
+
+        logger.info("=== Fruit inventory load test: {} ===", settings);
+        dispatchers.forEach(Thread::start);
+
+        TimeUnit.SECONDS.sleep(settings.warmupSeconds);
+        report.startMeasurement(settings.outputDir);
+        ScheduledExecutorService intervalLogger = Executors.newSingleThreadScheduledExecutor();
+        intervalLogger.scheduleAtFixedRate(report::logInterval, 1, 1, TimeUnit.SECONDS);
+
+        TimeUnit.SECONDS.sleep(settings.durationSeconds);
+        running.set(false);
+        for (Thread dispatcher : dispatchers) {
+            dispatcher.join();
+        }
+        for (ExecutorService pool : workers) {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES), "Load workers did not drain");
+        }
+        intervalLogger.shutdownNow();
+
+        long oversoldUnits = 0;
+        long lostRestockUnits = 0;
+        FruitRepository fruitRepository = nodes.get(0).getBean(FruitRepository.class);
+        for (Long fruitId : fruitIds) {
+            int actual = fruitRepository.findById(fruitId).orElseThrow().getQuantity();
+            long drift = actual - ledgers.get(fruitId).expectedStock(settings.initialStock);
+            if (drift > 0) {
+                oversoldUnits += drift;
+            } else {
+                lostRestockUnits -= drift;
+            }
+        }
+
+        String summary = report.finish(settings.outputDir, settings, oversoldUnits, lostRestockUnits);
+        logger.info("\n{}", summary);
+        logger.info("HdrHistogram output written to {}", settings.outputDir.toAbsolutePath());
+
+        // Stale read-then-write updates drift stock by design, so only lock-protected mixes are checked
+        if (settings.failOnViolation && !settings.includes(Operation.UPDATE)) {
+            assertEquals(0, oversoldUnits, "Purchases were lost from stock (oversell)");
+            assertEquals(0, lostRestockUnits, "Restocks were lost from stock");
+        }
+    }
+
+    /**
+     * Issue operations for one node at its share of the target rate until stopped
+     */
+    private static void dispatch(ConfigurableApplicationContext node, ExecutorService pool, List<Long> fruitIds,
+                                 Map<Long, FruitLedger> ledgers, AtomicBoolean running) {
+        FruitService fruitService = node.getBean(FruitService.class);
+        FruitRepository fruitRepository = node.getBean(FruitRepository.class);
+        long interval = settings.nodeIntervalNanos();
+        // Stagger nodes so their schedules do not line up exactly
+        long intendedStart = System.nanoTime() + ThreadLocalRandom.current().nextLong(interval);
+
+        while (running.get()) {
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+
+            long scheduledAt = intendedStart;
+            Operation operation = settings.nextOperation();
+            Long fruitId = fruitIds.get(ThreadLocalRandom.current().nextInt(fruitIds.size()));
+            pool.execute(() -> execute(operation, fruitId, scheduledAt, fruitService, fruitRepository,
+                    ledgers.get(fruitId)));
+            intendedStart += interval;
+        }
+    }
+
+    private static void execute(Operation operation, Long fruitId, long scheduledAt, FruitService fruitService,
+                                FruitRepository fruitRepository, FruitLedger ledger) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            switch (operation) {
+                case PURCHASE: {
+                    int quantity = random.nextInt(1, settings.maxPurchaseQuantity + 1);
+                    fruitService.purchaseFruit(fruitId, quantity);
+                    ledger.purchased.addAndGet(quantity);
+                    break;
+                }
+                case RESTOCK: {
+                    int quantity = random.nextInt(1, settings.maxRestockQuantity + 1);
+                    fruitService.restockFruit(fruitId, quantity);
+                    ledger.restocked.addAndGet(quantity);
+                    break;
+                }
+                case UPDATE: {
+                    // Same as a REST client: read the current fruit, change the price, send the whole object back
+                    Fruit current = fruitRepository.findById(fruitId).orElseThrow();
+                    Fruit update = new Fruit(current.getName(),
+                            BigDecimal.valueOf(random.nextInt(100, 500), 2),
+                            current.getQuantity(), current.getDescription(), current.getCategory());
+                    fruitService.updateFruit(fruitId, update);
+                    break;
+                }
+            }
+            report.recordSuccess(operation, elapsedMicros(scheduledAt));
+        } catch (RuntimeException e) {
+            String message = String.valueOf(e.getMessage());
+            if (message.startsWith("Insufficient stock")) {
+                report.recordRejected(operation, elapsedMicros(scheduledAt));
+            } else {
+                report.recordFailure(operation, message.startsWith("Failed to acquire lock"));
+            }
+        }
+    }
+
+    private static long elapsedMicros(long scheduledAt) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAt);
+    }
+
+    private static List<Long> createFruits() {
+        FruitRepository fruitRepository = nodes.get(0).getBean(FruitRepository.class);
+        List<Long> fruitIds = new ArrayList<>();
+        for (int i = 0; i < settings.fruits; i++) {
+            Fruit fruit = new Fruit("Load Test Fruit " + i, new BigDecimal("2.50"), settings.initialStock,
+                    "Fruit used by the inventory load test", "Fruit");
+            fruitIds.add(fruitRepository.save(fruit).getId());
+        }
+        return fruitIds;
+    }
+
+    private static ConfigurableApplicationContext startNode(int index) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.application.name", "locknroll-load-node-" + index);
+        properties.put("spring.datasource.url", postgres.getJdbcUrl());
+        properties.put("spring.datasource.username", postgres.getUsername());
+        properties.put("spring.datasource.password", postgres.getPassword());
+        properties.put("spring.datasource.hikari.maximum-pool-size", settings.threadsPerNode + 4);
+        properties.put("spring.jpa.hibernate.ddl-auto", index == 0 ? "create" : "none");
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("spring.data.mongodb.uri", mongo.getReplicaSetUrl("locknroll_load"));
+        properties.put("spring.data.redis.host", redis.getHost());
+        properties.put("spring.data.redis.port", redis.getMappedPort(6379));
+        // No broker in the load test: keep listeners stopped and make publishes fail fast
+        properties.put("spring.kafka.listener.auto-startup", false);
+        properties.put("spring.kafka.producer.properties.max.block.ms", 500);
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.locknroll", "WARN");
+        properties.put("logging.level.com.locknroll.load", "INFO");
+
+        return new SpringApplicationBuilder(RedisLearningApplication.class)
+                .properties(properties)
+                .initializers(context -> ((GenericApplicationContext) context).registerBean(
+                        "recordingLockService", DistributedLockService.class,
+                        () -> new RecordingLockService(report.lockWaitRecorder()),
+                        definition -> definition.setPrimary(true)))
+                .run();
+    }
+
+    /**
+     * Units moved by successful operations on one fruit
+     */
+    private static class FruitLedger {
+        final AtomicLong purchased = new AtomicLong();
+        final AtomicLong restocked = new AtomicLong();
+
+        long expectedStock(int initialStock) {
+            return initialStock + restocked.get() - purchased.get();
+        }
+    }
+}
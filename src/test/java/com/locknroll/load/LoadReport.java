@@ -0,0 +1,170 @@
+package com.locknroll.load;
+
+import com.locknroll.load.LoadTestSettings.Operation;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects load test latencies (in microseconds) and writes them as HdrHistogram output:
+ * an interval log (fruit-inventory.hlog, one tagged histogram per series per second) readable by
+ * HistogramLogAnalyzer, a percentile distribution (.hgrm) per series, and a plain-text summary.
+ */
+class LoadReport {
+
+    static final String LOCK_WAIT = "lock-wait";
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+    private final Map<String, Histogram> totals = new LinkedHashMap<>();
+    private final Map<Operation, LongAdder> succeeded = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> rejected = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> failed = new EnumMap<>(Operation.class);
+    private final LongAdder lockTimeouts = new LongAdder();
+
+    private HistogramLogWriter logWriter;
+    private PrintStream logStream;
+    private long measurementStartMillis;
+
+    LoadReport() {
+        for (Operation operation : Operation.values()) {
+            register(seriesName(operation));
+            succeeded.put(operation, new LongAdder());
+            rejected.put(operation, new LongAdder());
+            failed.put(operation, new LongAdder());
+        }
+        register(LOCK_WAIT);
+    }
+
+    Recorder lockWaitRecorder() {
+        return recorders.get(LOCK_WAIT);
+    }
+
+    void recordSuccess(Operation operation, long latencyMicros) {
+        recorders.get(seriesName(operation)).recordValue(latencyMicros);
+        succeeded.get(operation).increment();
+    }
+
+    /**
+     * A request the service refused on business grounds (e.g. insufficient stock)
+     */
+    void recordRejected(Operation operation, long latencyMicros) {
+        recorders.get(seriesName(operation)).recordValue(latencyMicros);
+        rejected.get(operation).increment();
+    }
+
+    void recordFailure(Operation operation, boolean lockTimeout) {
+        failed.get(operation).increment();
+        if (lockTimeout) {
+            lockTimeouts.increment();
+        }
+    }
+
+    /**
+     * Drop everything recorded during warmup and start the interval log
+     */
+    void startMeasurement(Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        for (Recorder recorder : recorders.values()) {
+            recorder.reset();
+        }
+        for (Operation operation : Operation.values()) {
+            succeeded.get(operation).reset();
+            rejected.get(operation).reset();
+            failed.get(operation).reset();
+        }
+        lockTimeouts.reset();
+
+        measurementStartMillis = System.currentTimeMillis();
+        logStream = new PrintStream(Files.newOutputStream(outputDir.resolve("fruit-inventory.hlog")));
+        logWriter = new HistogramLogWriter(logStream);
+        logWriter.outputLogFormatVersion();
+        logWriter.outputStartTime(measurementStartMillis);
+        logWriter.setBaseTime(measurementStartMillis);
+        logWriter.outputLegend();
+    }
+
+    /**
+     * Roll every recorder into the interval log; called once per second during measurement
+     */
+    synchronized void logInterval() {
+        for (Map.Entry<String, Recorder> entry : recorders.entrySet()) {
+            Histogram interval = entry.getValue().getIntervalHistogram();
+            interval.setTag(entry.getKey());
+            totals.get(entry.getKey()).add(interval);
+            logWriter.outputIntervalHistogram(interval);
+        }
+    }
+
+    /**
+     * Write percentile distributions and the summary, returning the summary text
+     */
+    synchronized String finish(Path outputDir, LoadTestSettings settings, long oversoldUnits,
+                               long lostRestockUnits) throws IOException {
+        logInterval();
+        logStream.close();
+
+        double seconds = (System.currentTimeMillis() - measurementStartMillis) / 1000.0;
+        StringBuilder summary = new StringBuilder();
+        summary.append("Fruit inventory load test: ").append(settings).append('\n');
+        summary.append(String.format(Locale.ROOT, "Measured %.1fs; latencies in ms%n", seconds));
+        summary.append(String.format(Locale.ROOT, "%-10s %10s %9s %9s %9s %9s %9s %9s %9s%n",
+                "series", "ops/s", "ok", "rejected", "failed", "p50", "p99", "p999", "max"));
+
+        for (Map.Entry<String, Histogram> entry : totals.entrySet()) {
+            Histogram histogram = entry.getValue();
+            try (PrintStream out = new PrintStream(Files.newOutputStream(outputDir.resolve(entry.getKey() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+
+            Operation operation = operationOf(entry.getKey());
+            long ok = operation != null ? succeeded.get(operation).sum() : histogram.getTotalCount();
+            long refused = operation != null ? rejected.get(operation).sum() : 0;
+            long errors = operation != null ? failed.get(operation).sum() : lockTimeouts.sum();
+            summary.append(String.format(Locale.ROOT, "%-10s %10.1f %9d %9d %9d %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), (ok + refused) / seconds, ok, refused, errors,
+                    histogram.getValueAtPercentile(50.0) / MICROS_PER_MILLI,
+                    histogram.getValueAtPercentile(99.0) / MICROS_PER_MILLI,
+                    histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                    histogram.getMaxValue() / MICROS_PER_MILLI));
+        }
+
+        summary.append("Lock timeouts: ").append(lockTimeouts.sum()).append('\n');
+        summary.append("Oversold units (purchases not reflected in stock): ").append(oversoldUnits).append('\n');
+        summary.append("Lost restock units (restocks not reflected in stock): ").append(lostRestockUnits).append('\n');
+
+        Files.writeString(outputDir.resolve("summary.txt"), summary);
+        return summary.toString();
+    }
+
+    private void register(String series) {
+        recorders.put(series, new Recorder(3));
+        Histogram total = new Histogram(3);
+        total.setTag(series);
+        totals.put(series, total);
+    }
+
+    private static String seriesName(Operation operation) {
+        return operation.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static Operation operationOf(String series) {
+        for (Operation operation : Operation.values()) {
+            if (seriesName(operation).equals(series)) {
+                return operation;
+            }
+        }
+        return null;
+    }
+}
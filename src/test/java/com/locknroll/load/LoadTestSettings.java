@@ -0,0 +1,107 @@
+package com.locknroll.load;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load test knobs, read from system properties so runs are reproducible from the command line, e.g.
+ * mvn -Pload test -Dload.nodes=4 -Dload.rate=400 -Dload.mix=purchase:70,restock:20,update:10
+ */
+final class LoadTestSettings {
+
+    /**
+     * Fruit operations driven by the harness
+     */
+    enum Operation {
+        PURCHASE, RESTOCK, UPDATE
+    }
+
+    final int nodes;
+    final int ratePerSecond;
+    final int warmupSeconds;
+    final int durationSeconds;
+    final int threadsPerNode;
+    final int fruits;
+    final int initialStock;
+    final int maxPurchaseQuantity;
+    final int maxRestockQuantity;
+    final boolean failOnViolation;
+    final Path outputDir;
+
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+
+    private LoadTestSettings() {
+        nodes = Integer.getInteger("load.nodes", 3);
+        ratePerSecond = Integer.getInteger("load.rate", 200);
+        warmupSeconds = Integer.getInteger("load.warmupSeconds", 5);
+        durationSeconds = Integer.getInteger("load.durationSeconds", 30);
+        threadsPerNode = Integer.getInteger("load.threadsPerNode", 16);
+        fruits = Integer.getInteger("load.fruits", 4);
+        initialStock = Integer.getInteger("load.initialStock", 10_000);
+        maxPurchaseQuantity = Integer.getInteger("load.maxPurchaseQuantity", 5);
+        maxRestockQuantity = Integer.getInteger("load.maxRestockQuantity", 10);
+        failOnViolation = Boolean.getBoolean("load.failOnViolation");
+        outputDir = Paths.get(System.getProperty("load.outputDir", "target/load-test"));
+
+        mix = parseMix(System.getProperty("load.mix", "purchase:80,restock:20"));
+        totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("load.mix must have a positive total weight");
+        }
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings();
+    }
+
+    /**
+     * Pick the next operation according to the configured weights
+     */
+    Operation nextOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Operation weights exhausted");
+    }
+
+    /**
+     * Whether the mix includes the given operation with a positive weight
+     */
+    boolean includes(Operation operation) {
+        return mix.getOrDefault(operation, 0) > 0;
+    }
+
+    /**
+     * Interval between operations issued by a single node
+     */
+    long nodeIntervalNanos() {
+        return 1_000_000_000L * nodes / ratePerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "nodes=" + nodes + ", rate=" + ratePerSecond + "/s, warmup=" + warmupSeconds
+                + "s, duration=" + durationSeconds + "s, threadsPerNode=" + threadsPerNode
+                + ", fruits=" + fruits + ", initialStock=" + initialStock + ", mix=" + mix;
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid load.mix entry: " + part);
+            }
+            weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+}
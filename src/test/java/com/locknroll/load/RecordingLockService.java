@@ -0,0 +1,42 @@
+package com.locknroll.load;
+
+import com.locknroll.service.DistributedLockService;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * DistributedLockService that records how long each caller waited before entering the critical section.
+ * Registered as the primary lock service in every load test node; not a component, so normal
+ * test contexts never pick it up.
+ */
+class RecordingLockService extends DistributedLockService {
+
+    private final Recorder lockWait;
+
+    RecordingLockService(Recorder lockWait) {
+        this.lockWait = lockWait;
+    }
+
+    @Override
+    public <T> T executeWithLock(String lockKey, long waitTime, long leaseTime,
+                                 TimeUnit timeUnit, Supplier<T> task) {
+        long start = System.nanoTime();
+        return super.executeWithLock(lockKey, waitTime, leaseTime, timeUnit, () -> {
+            lockWait.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            return task.get();
+        });
+    }
+    
+    @Override
+    public <T> T executeWithFencedLock(String lockKey, long waitTime, long leaseTime,
+                                       TimeUnit timeUnit, LongFunction<T> task) {
+        long start = System.nanoTime();
+        return super.executeWithFencedLock(lockKey, waitTime, leaseTime, timeUnit, token -> {
+            lockWait.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            return task.apply(token);
+        });
+    }
+}
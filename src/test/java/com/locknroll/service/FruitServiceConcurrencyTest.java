@@ -382,4 +382,35 @@ public class FruitServiceConcurrencyTest {
         
         executor.shutdown();
     }
+    
+    /**
+     * Locked writes log how long the lock was held and reads log whether they hit the cache,
+     * which the contention and cache hit reports are built from
+     */
+    @Test
+    void testTransactionsRecordLockDurationAndCacheHits() throws InterruptedException {
+        fruitService.purchaseFruit(testFruit.getId(), 1);
+        fruitService.evictFruitCache(testFruit.getId());
+        fruitService.getFruitById(testFruit.getId());
+        fruitService.getFruitById(testFruit.getId());
+        
+        // Transactions are written on the audit executor
+        List<FruitTransaction> reads = List.of();
+        List<FruitTransaction> purchases = List.of();
+        for (int attempt = 0; attempt < 50 && (reads.size() < 2 || purchases.isEmpty()); attempt++) {
+            Thread.sleep(100);
+            reads = transactionRepository.findByOperationType("READ");
+            purchases = transactionRepository.findByOperationType("PURCHASE");
+        }
+        
+        assertEquals(1, purchases.size());
+        assertEquals(Boolean.TRUE, purchases.get(0).getLockAcquired());
+        assertNotNull(purchases.get(0).getLockDurationMs());
+        assertNull(purchases.get(0).getCacheHit());
+        
+        assertEquals(2, reads.size());
+        assertEquals(1, reads.stream().filter(read -> Boolean.FALSE.equals(read.getCacheHit())).count());
+        assertEquals(1, reads.stream().filter(read -> Boolean.TRUE.equals(read.getCacheHit())).count());
+        assertTrue(reads.stream().allMatch(read -> read.getLockDurationMs() == null));
+    }
 }
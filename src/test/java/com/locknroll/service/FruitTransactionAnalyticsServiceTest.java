@@ -0,0 +1,108 @@
+package com.locknroll.service;
+
+import com.locknroll.entity.FruitTransaction;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contention and cache hit reports over transactions logged the way FruitService logs them:
+ * locked writes with their hold time, reads with whether they hit the cache. Needs MongoDB 7.0
+ * for $percentile.
+ */
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class FruitTransactionAnalyticsServiceTest {
+
+    private static final long APPLE = 1L;
+    private static final long PEAR = 2L;
+    private static final LocalDateTime HOUR = LocalDateTime.of(2026, 1, 5, 10, 0);
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private MongoClient mongoClient;
+    private FruitTransactionAnalyticsService analyticsService;
+
+    @BeforeAll
+    void seed() {
+        mongoClient = MongoClients.create(mongo.getConnectionString());
+        MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, "analytics_test");
+        FruitTransactionRollupService rollupService = new FruitTransactionRollupService();
+        ReflectionTestUtils.setField(rollupService, "mongoTemplate", mongoTemplate);
+        analyticsService = new FruitTransactionAnalyticsService();
+        ReflectionTestUtils.setField(analyticsService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(analyticsService, "maxTimeSeconds", 60L);
+
+        List<FruitTransaction> transactions = List.of(
+                transaction(APPLE, "PURCHASE", 1, 10L, null),
+                transaction(APPLE, "PURCHASE", 2, 20L, null),
+                transaction(APPLE, "RESTOCK", 3, 30L, null),
+                transaction(APPLE, "UPDATE", 4, 40L, null),
+                transaction(APPLE, "READ", 5, null, false),
+                transaction(APPLE, "READ", 6, null, true),
+                transaction(APPLE, "READ", 7, null, true),
+                transaction(APPLE, "READ", 8, null, true),
+                transaction(PEAR, "READ", 9, null, false));
+        mongoTemplate.insert(transactions, FruitTransaction.COLLECTION);
+        transactions.forEach(rollupService::record);
+    }
+
+    @AfterAll
+    void disconnect() {
+        mongoClient.close();
+    }
+
+    @Test
+    void contentionHeatmapReportsLockHoldTimes() {
+        List<Document> rows = analyticsService.contentionHeatmap(HOUR, HOUR.plusHours(1), null).into(new ArrayList<>());
+
+        assertEquals(1, rows.size(), "Only the apple has locked writes");
+        Document row = rows.get(0);
+        assertEquals(APPLE, row.getLong("fruit_id"));
+        assertEquals(10, row.getInteger("hour_of_day"));
+        assertEquals(4, row.getInteger("samples"));
+        assertEquals(40L, ((Number) row.get("max_ms")).longValue());
+        double p50 = ((Number) row.get("p50_ms")).doubleValue();
+        assertTrue(p50 >= 10 && p50 <= 40, "p50 within the recorded hold times, was " + p50);
+    }
+
+    @Test
+    void cacheHitRatiosCountReadsOnly() {
+        List<Document> rows = analyticsService.cacheHitRatios(HOUR, HOUR.plusHours(1), null).into(new ArrayList<>());
+
+        assertEquals(2, rows.size());
+        Document pear = rows.get(0);
+        assertEquals(PEAR, pear.getLong("fruit_id"));
+        assertEquals(0.0, ((Number) pear.get("hit_ratio")).doubleValue());
+        Document apple = rows.get(1);
+        assertEquals(APPLE, apple.getLong("fruit_id"));
+        assertEquals(4L, ((Number) apple.get("lookups")).longValue());
+        assertEquals(0.75, ((Number) apple.get("hit_ratio")).doubleValue(), 1e-9);
+    }
+
+    private static FruitTransaction transaction(long fruitId, String operation, int minute, Long lockDurationMs,
+                                                Boolean cacheHit) {
+        FruitTransaction transaction = new FruitTransaction(fruitId, "Fruit " + fruitId, operation);
+        transaction.setTimestamp(HOUR.plusMinutes(minute));
+        transaction.setLockAcquired(lockDurationMs != null ? Boolean.TRUE : null);
+        transaction.setLockDurationMs(lockDurationMs);
+        transaction.setCacheHit(cacheHit);
+        return transaction;
+    }
+}
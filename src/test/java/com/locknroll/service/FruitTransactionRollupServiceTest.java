@@ -0,0 +1,127 @@
+package com.locknroll.service;
+
+import com.locknroll.entity.FruitTransaction;
+import com.locknroll.entity.FruitTransactionRollup;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rollups of fruit transactions against a throwaway MongoDB: the incremental upserts and the
+ * rebuild pipeline must produce the same non-zero lock and cache totals
+ */
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class FruitTransactionRollupServiceTest {
+
+    private static final long FRUIT_ID = 1L;
+    private static final LocalDateTime HOUR = LocalDateTime.of(2026, 1, 5, 10, 0);
+    private static final String LEGACY = "rollup_test_legacy";
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private FruitTransactionRollupService rollupService;
+
+    @BeforeAll
+    void connect() {
+        mongoClient = MongoClients.create(mongo.getConnectionString());
+        mongoTemplate = new MongoTemplate(mongoClient, "rollup_test");
+        rollupService = new FruitTransactionRollupService();
+        ReflectionTestUtils.setField(rollupService, "mongoTemplate", mongoTemplate);
+    }
+
+    @AfterAll
+    void disconnect() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void clean() {
+        mongoTemplate.getDb().drop();
+    }
+
+    @Test
+    void recordFillsLockAndCacheTotals() {
+        transactions().forEach(rollupService::record);
+
+        assertHourRollup();
+        List<FruitTransactionRollup> minutes = rollupService.findRollups(FRUIT_ID, "minute", HOUR, HOUR.plusHours(1));
+        assertEquals(2, minutes.size());
+        assertEquals(30L, minutes.get(1).getLockDurationMaxMs());
+    }
+
+    @Test
+    void rebuildMatchesIncrementalTotals() {
+        mongoTemplate.insert(transactions(), FruitTransaction.COLLECTION);
+
+        rollupService.rebuildRollups(HOUR, HOUR.plusHours(1));
+
+        assertHourRollup();
+    }
+
+    @Test
+    void addRollupsOnceAddsToLiveBucketsOnce() {
+        List<FruitTransaction> transactions = transactions();
+        transactions.subList(0, 2).forEach(rollupService::record);
+        mongoTemplate.insert(transactions.subList(2, 4), LEGACY);
+
+        rollupService.addRollupsOnce(LEGACY, HOUR, HOUR.plusHours(1), "legacy_added");
+        // A resumed migration runs it again
+        rollupService.addRollupsOnce(LEGACY, HOUR, HOUR.plusHours(1), "legacy_added");
+
+        assertHourRollup();
+        List<FruitTransactionRollup> minutes = rollupService.findRollups(FRUIT_ID, "minute", HOUR, HOUR.plusHours(1));
+        assertEquals(2, minutes.size());
+        assertEquals(2L, minutes.get(1).getCount());
+    }
+
+    private void assertHourRollup() {
+        List<FruitTransactionRollup> hours = rollupService.findRollups(FRUIT_ID, "hour", HOUR, HOUR.plusHours(1));
+        assertEquals(1, hours.size());
+        FruitTransactionRollup hour = hours.get(0);
+        assertEquals(4L, hour.getCount());
+        assertEquals(5L, hour.getQuantityOut());
+        assertEquals(10L, hour.getQuantityIn());
+        assertEquals(2L, hour.getLockCount());
+        assertEquals(42L, hour.getLockDurationTotalMs());
+        assertEquals(30L, hour.getLockDurationMaxMs());
+        assertEquals(1L, hour.getCacheHits());
+        assertEquals(1L, hour.getCacheMisses());
+        assertEquals(2L, hour.getOperations().get("READ"));
+    }
+
+    private static List<FruitTransaction> transactions() {
+        return List.of(
+                transaction("PURCHASE", HOUR.plusMinutes(5), -5, 12L, null),
+                transaction("READ", HOUR.plusMinutes(5), null, null, false),
+                transaction("READ", HOUR.plusMinutes(20), null, null, true),
+                transaction("RESTOCK", HOUR.plusMinutes(20), 10, 30L, null));
+    }
+
+    private static FruitTransaction transaction(String operation, LocalDateTime timestamp, Integer quantityChange,
+                                                Long lockDurationMs, Boolean cacheHit) {
+        FruitTransaction transaction = new FruitTransaction(FRUIT_ID, "Apple", operation);
+        transaction.setTimestamp(timestamp);
+        transaction.setQuantityChange(quantityChange);
+        transaction.setLockDurationMs(lockDurationMs);
+        transaction.setCacheHit(cacheHit);
+        return transaction;
+    }
+}
@@ -0,0 +1,158 @@
+package com.locknroll.service;
+
+import com.locknroll.dto.TaskDto;
+import com.locknroll.entity.Role;
+import com.locknroll.entity.Task;
+import com.locknroll.entity.User;
+import com.locknroll.entity.Workflow;
+import com.locknroll.entity.WorkflowInstance;
+import com.locknroll.entity.WorkflowStep;
+import com.locknroll.repository.RoleRepository;
+import com.locknroll.repository.TaskRepository;
+import com.locknroll.repository.UserRepository;
+import com.locknroll.repository.WorkflowInstanceRepository;
+import com.locknroll.repository.WorkflowRepository;
+import com.locknroll.repository.WorkflowStepRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the Task entity graphs: DTO conversion of task lists must cost a fixed number of
+ * statements, however many tasks are returned
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class TaskFetchPlanTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkflowRepository workflowRepository;
+
+    @Autowired
+    private WorkflowStepRepository workflowStepRepository;
+
+    @Autowired
+    private WorkflowInstanceRepository workflowInstanceRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User approver;
+    private WorkflowStep step;
+    private WorkflowInstance workflowInstance;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String suffix = String.valueOf(System.nanoTime());
+
+        Role role = roleRepository.save(new Role("FETCH_PLAN_" + suffix, "Fetch plan test role"));
+
+        approver = new User("fetchplan" + suffix, "fetchplan" + suffix + "@example.com", "password", "Fetch", "Plan");
+        approver.getRoles().add(role);
+        approver = userRepository.save(approver);
+
+        Workflow workflow = workflowRepository.save(new Workflow("fetch-plan-" + suffix, "Fetch plan test workflow", "FRUIT"));
+
+        step = new WorkflowStep("Review", "Fetch plan test step", 1, "APPROVAL");
+        step.setWorkflow(workflow);
+        step.setAssignedRole(role);
+        step.setAssignedRoleName(role.getName());
+        step = workflowStepRepository.save(step);
+
+        workflowInstance = workflowInstanceRepository.save(new WorkflowInstance(workflow, suffix, "FRUIT"));
+    }
+
+    /**
+     * Pending tasks for a user: one statement for 1 task and for 20
+     */
+    @Test
+    void testPendingTasksForUserUseFixedStatementCount() {
+        createPendingTasks(1);
+        long oneTask = countStatements(() -> taskService.getPendingTasksForUser(approver.getId()), 1);
+
+        createPendingTasks(19);
+        long manyTasks = countStatements(() -> taskService.getPendingTasksForUser(approver.getId()), 20);
+
+        assertEquals(1, oneTask);
+        assertEquals(oneTask, manyTasks);
+    }
+
+    /**
+     * Ready tasks of a workflow instance: the dependency check is a subquery, not a query per task
+     */
+    @Test
+    void testReadyTasksUseFixedStatementCount() {
+        createPendingTasks(1);
+        long oneTask = countStatements(() -> taskService.getReadyTasks(workflowInstance.getId()), 1);
+
+        createPendingTasks(19);
+        long manyTasks = countStatements(() -> taskService.getReadyTasks(workflowInstance.getId()), 20);
+
+        assertEquals(1, oneTask);
+        assertEquals(oneTask, manyTasks);
+    }
+
+    /**
+     * Single task lookup loads step, role and assignee with the task
+     */
+    @Test
+    void testTaskByIdUsesOneStatement() {
+        Long taskId = createPendingTasks(1).get(0).getId();
+
+        statistics.clear();
+        TaskDto task = taskService.getTaskById(taskId);
+
+        assertEquals(approver.getUsername(), task.getAssignedToUsername());
+        assertEquals(step.getAssignedRole().getName(), task.getAssignedRoleName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private List<Task> createPendingTasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task(workflowInstance, step, "Fetch plan task " + i, "Fetch plan test task");
+            task.setAssignedTo(approver);
+            tasks.add(task);
+        }
+        return taskRepository.saveAll(tasks);
+    }
+
+    private long countStatements(Supplier<List<TaskDto>> call, int expectedTasks) {
+        statistics.clear();
+        List<TaskDto> tasks = call.get();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(expectedTasks, tasks.size());
+        // Every lazy association convertToDto reads must already be loaded
+        tasks.forEach(task -> {
+            assertEquals(approver.getUsername(), task.getAssignedToUsername());
+            assertEquals(step.getAssignedRole().getName(), task.getAssignedRoleName());
+        });
+        return statements;
+    }
+}